@@ -12,6 +12,14 @@ repositories {
     mavenCentral()
 }
 
+// The code uses APIs that are not available in JDK 17 (ByteVector::compress, Math::unsignedMultiplyHigh,
+// Thread::threadId), so compilation, tests and benchmarks run on JDK 21 regardless of the JDK Gradle runs on.
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
@@ -32,9 +40,9 @@ tasks.withType<JmhBytecodeGeneratorTask> {
 }
 
 jmh {
-    fork = 1
-    warmupIterations = 3
-    iterations = 5
+    fork = getIntProperty("jmh.fork", 1)
+    warmupIterations = getIntProperty("jmh.warmupIterations", 3)
+    iterations = getIntProperty("jmh.iterations", 5)
     jvmArgsPrepend.set(listOf("--add-modules=jdk.incubator.vector"))
 
     if (getBooleanProperty("jmh.profilersEnabled", false)) {
@@ -55,6 +63,89 @@ jmh {
     }
 }
 
+tasks.register<JavaExec>("jitDiagnostics") {
+    description = "Reports the JIT inlining and Vector API intrinsification decisions for the indexer variants."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("io.github.piotrrzysko.JitDiagnostics")
+    jvmArgs("--add-modules=jdk.incubator.vector")
+    args(
+        layout.buildDirectory.dir("jit-diagnostics").get().asFile.path,
+        getIntProperty("jit.iterations", 5000).toString()
+    )
+}
+
+// Named sets of JVM flags that jmhMatrix runs the benchmarks with (on top of --add-modules=jdk.incubator.vector).
+// The default GC depends on the machine (G1 on server-class machines, Serial otherwise), hence g1GC.
+val jvmProfiles = linkedMapOf(
+    "default" to emptyList<String>(),
+    "avx2" to listOf("-XX:UseAVX=2"),
+    "avx512" to listOf("-XX:UseAVX=3"),
+    "vector128" to listOf("-XX:MaxVectorSize=16"),
+    "vector256" to listOf("-XX:MaxVectorSize=32"),
+    "vector512" to listOf("-XX:MaxVectorSize=64"),
+    "noSuperWord" to listOf("-XX:-UseSuperWord"),
+    "g1GC" to listOf("-XX:+UseG1GC"),
+    "parallelGC" to listOf("-XX:+UseParallelGC"),
+    "serialGC" to listOf("-XX:+UseSerialGC"),
+    "zGC" to listOf("-XX:+UseZGC", "-XX:+ZGenerational"),
+)
+// -XX:UseAVX is available only on x86, and the JVM doesn't start with it elsewhere.
+val x86JvmProfiles = setOf("avx2", "avx512")
+val x86 = System.getProperty("os.arch") in setOf("x86_64", "amd64")
+val jvmProfilesResultsDir = file("results/jvm-profiles")
+val requestedJvmProfiles = when (val profiles = project.findProperty("jmh.jvmProfiles")?.toString()) {
+    null -> listOf("default")
+    "all" -> jvmProfiles.keys.toList()
+    else -> profiles.split(",").map { it.trim() }
+}
+requestedJvmProfiles.firstOrNull { it !in jvmProfiles }?.let {
+    throw IllegalArgumentException("Unknown JVM profile: $it. Available profiles: ${jvmProfiles.keys}")
+}
+val selectedJvmProfiles = requestedJvmProfiles.filter { profile ->
+    val skipped = !x86 && profile in x86JvmProfiles
+    if (skipped) {
+        logger.warn("Skipping the $profile JVM profile, which requires x86.")
+    }
+    !skipped
+}
+
+val jvmProfileTasks = jvmProfiles.filterKeys { x86 || it !in x86JvmProfiles }.mapValues { (profile, flags) ->
+    tasks.register<JavaExec>("jmhProfile" + profile.replaceFirstChar { it.uppercase() }) {
+        description = "Runs the benchmarks in JVMs started with the $profile profile: $flags"
+        classpath = files(tasks.named("jmhJar"))
+        mainClass.set("org.openjdk.jmh.Main")
+        if (project.hasProperty("jmh.includes")) {
+            args(project.findProperty("jmh.includes").toString())
+        }
+        args(
+            "-f", getIntProperty("jmh.fork", 1).toString(),
+            "-wi", getIntProperty("jmh.warmupIterations", 3).toString(),
+            "-i", getIntProperty("jmh.iterations", 5).toString(),
+            "-jvmArgsPrepend", "--add-modules=jdk.incubator.vector",
+            "-rf", "csv",
+            "-rff", jvmProfilesResultsDir.resolve("$profile.csv").path
+        )
+        if (flags.isNotEmpty()) {
+            args("-jvmArgsAppend", flags.joinToString(" "))
+        }
+        doFirst {
+            jvmProfilesResultsDir.mkdirs()
+        }
+    }
+}
+val selectedJvmProfileTasks = selectedJvmProfiles.map { jvmProfileTasks.getValue(it) }
+
+// Runs the profiles in the given order.
+selectedJvmProfileTasks.zipWithNext { previous, next -> next.configure { mustRunAfter(previous) } }
+
+tasks.register<JavaExec>("jmhMatrix") {
+    description = "Runs the benchmarks with each of the selected JVM profiles and compares the results."
+    dependsOn(selectedJvmProfileTasks)
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("io.github.piotrrzysko.JvmProfileSummary")
+    args(jvmProfilesResultsDir.path, *selectedJvmProfiles.toTypedArray())
+}
+
 fun createDirIfDoesNotExist(dir: String) {
     val file = File(dir)
     file.mkdirs()
@@ -62,3 +153,6 @@ fun createDirIfDoesNotExist(dir: String) {
 
 fun getBooleanProperty(name: String, defaultValue: Boolean) =
     project.findProperty(name)?.toString()?.toBoolean() ?: defaultValue
+
+fun getIntProperty(name: String, defaultValue: Int) =
+    project.findProperty(name)?.toString()?.toInt() ?: defaultValue
@@ -0,0 +1,126 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.ArrayElementSplitter;
+import io.github.piotrrzysko.simdjson.ArrayElementSplitter.ElementVisitor;
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.BitIndexesCursor;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.StringDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Processes the statuses array of a document made of the statuses of twitter.json repeated 64 times (6400 elements,
+    about 30 MB), which is indexed once in the setup, with tags. Processing an element means decoding all of its
+    strings.
+
+    serial visits all elements in the benchmark thread, and parallel splits them into 4 chunks per thread, which are
+    visited by a ForkJoinPool with the given parallelism. Both include the serial walk that finds the elements, so the
+    scores of parallel for 1, 2, 4 and 8 threads show how the processing scales with the number of cores (as long as
+    the machine has that many).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ArrayElementSplitterBenchmark {
+
+    private static final int COPIES = 64;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    @Param({"1", "2", "4", "8"})
+    int threads;
+
+    private final ArrayElementSplitter splitter = new ArrayElementSplitter("statuses");
+
+    private ForkJoinPool pool;
+    private byte[] bytes;
+    private BitIndexes bitIndexes;
+    private long[] decodedBytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] twitter;
+        try (InputStream is = ArrayElementSplitterBenchmark.class.getResourceAsStream("/twitter.json")) {
+            twitter = is.readAllBytes();
+        }
+        BitIndexes twitterIndexes = index(twitter);
+        ByteArrayOutputStream elements = new ByteArrayOutputStream();
+        splitter.process(twitter, twitterIndexes, (element, cursor) -> {
+            int start = cursor.getAndAdvance();
+            int end = start;
+            while (!cursor.isEnd()) {
+                end = cursor.getAndAdvance();
+            }
+            elements.write(',');
+            elements.write(twitter, start, end + 1 - start);
+        });
+        byte[] statuses = elements.toByteArray();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes("{\"statuses\": [".getBytes(UTF_8));
+        for (int i = 0; i < COPIES; i++) {
+            // Skips the leading comma of the first element.
+            out.write(statuses, i == 0 ? 1 : 0, i == 0 ? statuses.length - 1 : statuses.length);
+        }
+        out.writeBytes("]}".getBytes(UTF_8));
+        bytes = out.toByteArray();
+        bitIndexes = index(bytes);
+        decodedBytes = new long[splitter.process(bytes, bitIndexes, (element, cursor) -> {
+        })];
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int serial() {
+        return splitter.process(bytes, bitIndexes, new DecodingVisitor());
+    }
+
+    @Benchmark
+    public int parallel() {
+        return splitter.process(bytes, bitIndexes, pool, threads * CHUNKS_PER_THREAD, DecodingVisitor::new);
+    }
+
+    private static BitIndexes index(byte[] bytes) {
+        BitIndexes bitIndexes = new BitIndexes(bytes.length + 64, true);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(bytes, bytes.length);
+        return bitIndexes;
+    }
+
+    private class DecodingVisitor implements ElementVisitor {
+
+        private final StringDecoder decoder = new StringDecoder();
+
+        @Override
+        public void visit(int element, BitIndexesCursor cursor) {
+            long total = 0;
+            while (!cursor.isEnd()) {
+                int idx = cursor.getAndAdvance();
+                if (bytes[idx] == '"') {
+                    total += decoder.decode(bytes, bytes.length, idx);
+                }
+            }
+            decodedBytes[element] = total;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+    Converts a stream of structural masks into positions. twitter.json has about 0.15 structurals per byte.
+
+    - bitIndexes: BitIndexes::write, which always writes 8 positions (and 16 when there are more than 8 bits set),
+      so that the loop doesn't depend on the number of bits and the branch is predictable for typical densities,
+    - lowestBitLoop: one position per iteration, until the mask is empty,
+    - unrolledByFour: the same as lowestBitLoop, but with four positions per iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BitIndexesWriteBenchmark {
+
+    @Param({"0.02", "0.05", "0.15", "0.3"})
+    double density;
+
+    private final BitIndexes bitIndexes = new BitIndexes(MaskStreams.BLOCKS * 64 + 64);
+    private final int[] indexes = new int[MaskStreams.BLOCKS * 64 + 64];
+
+    private long[] structurals;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        structurals = MaskStreams.random(density, 42);
+    }
+
+    @Benchmark
+    public int bitIndexes() {
+        bitIndexes.reset();
+        int blockIndex = 64;
+        for (long bits : structurals) {
+            bitIndexes.write(blockIndex, bits);
+            blockIndex += 64;
+        }
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    public int lowestBitLoop() {
+        int writeIdx = 0;
+        int idx = 0;
+        for (long bits : structurals) {
+            while (bits != 0) {
+                indexes[writeIdx++] = idx + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+            idx += 64;
+        }
+        return indexes[writeIdx - 1];
+    }
+
+    @Benchmark
+    public int unrolledByFour() {
+        int writeIdx = 0;
+        int idx = 0;
+        for (long bits : structurals) {
+            int cnt = Long.bitCount(bits);
+            int end = writeIdx + cnt;
+            while (writeIdx < end) {
+                indexes[writeIdx] = idx + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                indexes[writeIdx + 1] = idx + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                indexes[writeIdx + 2] = idx + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                indexes[writeIdx + 3] = idx + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                writeIdx += 4;
+            }
+            writeIdx = end;
+            idx += 64;
+        }
+        return indexes[writeIdx - 1];
+    }
+}
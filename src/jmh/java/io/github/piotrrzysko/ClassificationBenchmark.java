@@ -0,0 +1,221 @@
+package io.github.piotrrzysko;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.ByteVector.SPECIES_512;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.NE;
+
+/*
+    Computes the whitespace and op masks of all 64-byte blocks of twitter.json (the tail shorter than 64 bytes is
+    skipped) with the strategies of CharacterClassification. With bits=256, a block is processed as two 256-bit chunks
+    (like in the indexers), and with bits=512, as a single 512-bit chunk.
+
+    - rearrange: the indexers' version, i.e. two rearrange lookups by the low nibble converted to a VectorShuffle,
+    - selectFrom: the same lookups with ByteVector::selectFrom,
+    - twoNibbleTables: simdjson's version, i.e. a lookup by each nibble and the AND of the two results,
+    - compareChain: one comparison per character. Comparing the curlified chunk (chunk | 0x20) with ':', ',', '{'
+      and '}' gives exactly the same op mask as OP_TABLE (including the 0x1A and 0x0C quirks).
+
+    All variants produce identical masks. On x86, a byte rearrange of a 512-bit vector requires AVX-512 VBMI, so the
+    lookups with bits=512 are expected to be much slower on CPUs without it.
+
+    The helper methods are shared by both species, so each value of bits has to be measured in a separate fork (as
+    JMH does by default). Otherwise, the helpers see two vector classes, C2 cannot intrinsify the calls, and the
+    results of the second species are dominated by boxing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ClassificationBenchmark {
+
+    private static final byte LOW_NIBBLE_MASK = 0x0f;
+    private static final byte[] WHITESPACE_TABLE = {
+            ' ', 100, 100, 100, 17, 100, 113, 2, 100, '\t', '\n', 112, 100, '\r', 100, 100
+    };
+    private static final byte[] OP_TABLE = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, ':', '{', ',', '}', 0, 0};
+    // See CharacterClassifier for the meaning of the bits.
+    private static final byte WHITESPACE_CLASSES = 1 | 2;
+    private static final byte OP_CLASSES = 4 | 8 | 16;
+    private static final byte[] LOW_NIBBLE_TABLE = {1, 0, 0, 0, 0, 0, 0, 0, 0, 2, 2 | 4, 16, 8, 2 | 16, 0, 0};
+    private static final byte[] HIGH_NIBBLE_TABLE = {2 | 8, 4, 1 | 8, 4, 0, 16, 0, 16, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final ByteVector WHITESPACE_TABLE_256 = repeat(SPECIES_256, WHITESPACE_TABLE);
+    private static final ByteVector OP_TABLE_256 = repeat(SPECIES_256, OP_TABLE);
+    private static final ByteVector LOW_NIBBLE_TABLE_256 = repeat(SPECIES_256, LOW_NIBBLE_TABLE);
+    private static final ByteVector HIGH_NIBBLE_TABLE_256 = repeat(SPECIES_256, HIGH_NIBBLE_TABLE);
+    private static final ByteVector WHITESPACE_TABLE_512 = repeat(SPECIES_512, WHITESPACE_TABLE);
+    private static final ByteVector OP_TABLE_512 = repeat(SPECIES_512, OP_TABLE);
+    private static final ByteVector LOW_NIBBLE_TABLE_512 = repeat(SPECIES_512, LOW_NIBBLE_TABLE);
+    private static final ByteVector HIGH_NIBBLE_TABLE_512 = repeat(SPECIES_512, HIGH_NIBBLE_TABLE);
+
+    @Param({"256", "512"})
+    int bits;
+
+    private byte[] bytes;
+    private int loopBound;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = ClassificationBenchmark.class.getResourceAsStream("/twitter.json")) {
+            bytes = is.readAllBytes();
+        }
+        loopBound = SPECIES_512.loopBound(bytes.length);
+    }
+
+    @Benchmark
+    public long rearrange() {
+        long result = 0;
+        for (int offset = 0; offset < loopBound; offset += 64) {
+            long whitespace;
+            long op;
+            if (bits == 256) {
+                ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, bytes, offset);
+                ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, bytes, offset + 32);
+                whitespace = rearrangeWhitespace(chunk0, WHITESPACE_TABLE_256)
+                        | (rearrangeWhitespace(chunk1, WHITESPACE_TABLE_256) << 32);
+                op = rearrangeOp(chunk0, OP_TABLE_256) | (rearrangeOp(chunk1, OP_TABLE_256) << 32);
+            } else {
+                ByteVector chunk = ByteVector.fromArray(SPECIES_512, bytes, offset);
+                whitespace = rearrangeWhitespace(chunk, WHITESPACE_TABLE_512);
+                op = rearrangeOp(chunk, OP_TABLE_512);
+            }
+            result ^= whitespace * 31 + op;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long selectFrom() {
+        long result = 0;
+        for (int offset = 0; offset < loopBound; offset += 64) {
+            long whitespace;
+            long op;
+            if (bits == 256) {
+                ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, bytes, offset);
+                ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, bytes, offset + 32);
+                whitespace = selectFromWhitespace(chunk0, WHITESPACE_TABLE_256)
+                        | (selectFromWhitespace(chunk1, WHITESPACE_TABLE_256) << 32);
+                op = selectFromOp(chunk0, OP_TABLE_256) | (selectFromOp(chunk1, OP_TABLE_256) << 32);
+            } else {
+                ByteVector chunk = ByteVector.fromArray(SPECIES_512, bytes, offset);
+                whitespace = selectFromWhitespace(chunk, WHITESPACE_TABLE_512);
+                op = selectFromOp(chunk, OP_TABLE_512);
+            }
+            result ^= whitespace * 31 + op;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long twoNibbleTables() {
+        long result = 0;
+        for (int offset = 0; offset < loopBound; offset += 64) {
+            long whitespace;
+            long op;
+            if (bits == 256) {
+                ByteVector classes0 = classes(
+                        ByteVector.fromArray(SPECIES_256, bytes, offset), LOW_NIBBLE_TABLE_256, HIGH_NIBBLE_TABLE_256
+                );
+                ByteVector classes1 = classes(
+                        ByteVector.fromArray(SPECIES_256, bytes, offset + 32), LOW_NIBBLE_TABLE_256, HIGH_NIBBLE_TABLE_256
+                );
+                whitespace = classes0.and(WHITESPACE_CLASSES).compare(NE, 0).toLong()
+                        | (classes1.and(WHITESPACE_CLASSES).compare(NE, 0).toLong() << 32);
+                op = classes0.and(OP_CLASSES).compare(NE, 0).toLong()
+                        | (classes1.and(OP_CLASSES).compare(NE, 0).toLong() << 32);
+            } else {
+                ByteVector classes = classes(
+                        ByteVector.fromArray(SPECIES_512, bytes, offset), LOW_NIBBLE_TABLE_512, HIGH_NIBBLE_TABLE_512
+                );
+                whitespace = classes.and(WHITESPACE_CLASSES).compare(NE, 0).toLong();
+                op = classes.and(OP_CLASSES).compare(NE, 0).toLong();
+            }
+            result ^= whitespace * 31 + op;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long compareChain() {
+        long result = 0;
+        for (int offset = 0; offset < loopBound; offset += 64) {
+            long whitespace;
+            long op;
+            if (bits == 256) {
+                ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, bytes, offset);
+                ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, bytes, offset + 32);
+                whitespace = compareChainWhitespace(chunk0) | (compareChainWhitespace(chunk1) << 32);
+                op = compareChainOp(chunk0) | (compareChainOp(chunk1) << 32);
+            } else {
+                ByteVector chunk = ByteVector.fromArray(SPECIES_512, bytes, offset);
+                whitespace = compareChainWhitespace(chunk);
+                op = compareChainOp(chunk);
+            }
+            result ^= whitespace * 31 + op;
+        }
+        return result;
+    }
+
+    private static long rearrangeWhitespace(ByteVector chunk, ByteVector table) {
+        return chunk.eq(table.rearrange(chunk.and(LOW_NIBBLE_MASK).toShuffle())).toLong();
+    }
+
+    private static long rearrangeOp(ByteVector chunk, ByteVector table) {
+        return chunk.or((byte) 0x20).eq(table.rearrange(chunk.and(LOW_NIBBLE_MASK).toShuffle())).toLong();
+    }
+
+    private static long selectFromWhitespace(ByteVector chunk, ByteVector table) {
+        return chunk.eq(chunk.and(LOW_NIBBLE_MASK).selectFrom(table)).toLong();
+    }
+
+    private static long selectFromOp(ByteVector chunk, ByteVector table) {
+        return chunk.or((byte) 0x20).eq(chunk.and(LOW_NIBBLE_MASK).selectFrom(table)).toLong();
+    }
+
+    private static ByteVector classes(ByteVector chunk, ByteVector lowNibbleTable, ByteVector highNibbleTable) {
+        ByteVector low = lowNibbleTable.rearrange(chunk.and(LOW_NIBBLE_MASK).toShuffle());
+        ByteVector high = highNibbleTable.rearrange(chunk.lanewise(LSHR, 4).and(LOW_NIBBLE_MASK).toShuffle());
+        return low.and(high);
+    }
+
+    private static long compareChainWhitespace(ByteVector chunk) {
+        return chunk.eq((byte) ' ')
+                .or(chunk.eq((byte) '\t'))
+                .or(chunk.eq((byte) '\n'))
+                .or(chunk.eq((byte) '\r'))
+                .toLong();
+    }
+
+    private static long compareChainOp(ByteVector chunk) {
+        ByteVector curlified = chunk.or((byte) 0x20);
+        return curlified.eq((byte) ':')
+                .or(curlified.eq((byte) ','))
+                .or(curlified.eq((byte) '{'))
+                .or(curlified.eq((byte) '}'))
+                .toLong();
+    }
+
+    private static ByteVector repeat(VectorSpecies<Byte> species, byte[] array) {
+        byte[] result = new byte[species.length()];
+        for (int dst = 0; dst < result.length; dst += array.length) {
+            System.arraycopy(array, 0, result, dst, array.length);
+        }
+        return ByteVector.fromArray(species, result, 0);
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.CharacterClassification;
+import io.github.piotrrzysko.simdjson.ClassifyingStructuralIndexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Indexes twitter.json with ClassifyingStructuralIndexer configured with each CharacterClassification strategy,
+    i.e. shows how much the differences measured by ClassificationBenchmark matter for the whole indexer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ClassificationStrategyBenchmark {
+
+    @Param({"REARRANGE", "SELECT_FROM", "TWO_NIBBLE_TABLES", "COMPARE_CHAIN"})
+    CharacterClassification classification;
+
+    private final BitIndexes bitIndexes = new BitIndexes(128 * 1024);
+
+    private ClassifyingStructuralIndexer indexer;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = ClassificationStrategyBenchmark.class.getResourceAsStream("/twitter.json")) {
+            bytes = is.readAllBytes();
+        }
+        indexer = new ClassifyingStructuralIndexer(bitIndexes, classification);
+    }
+
+    @Benchmark
+    public int index() {
+        indexer.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+}
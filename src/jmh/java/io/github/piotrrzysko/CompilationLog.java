@@ -0,0 +1,241 @@
+package io.github.piotrrzysko;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    The C2 compilations from a -XX:+LogCompilation file, reduced to what is needed to explain the performance of the
+    indexers: for every call made while parsing a compiled method, whether it was inlined (and why or why not), and for
+    every call to jdk.internal.vm.vector.VectorSupport, whether it was intrinsified.
+
+    The log contains a <task> element per compilation. Within a task, methods and classes are referred to by ids that
+    are declared by <method> and <klass> elements. Each <parse> element corresponds to a method being parsed (the
+    compiled method or an inlined one), and each <call> inside it is followed by its outcome: <inline_success>,
+    <inline_fail> or <intrinsic>. Most VectorSupport calls can't be intrinsified while parsing, because their
+    arguments (e.g. the vector class) are not constants yet. Such a call is logged with <inline_id> and <direct_call>,
+    and C2 retries it after parsing: a <late_inline> element with the same inline_id followed by <intrinsic> means
+    that it succeeded. Otherwise, the call stays a call, and the vectors passed to it are boxed.
+
+    OSR compilations, C1 compilations and failed compilations are skipped. If a method was compiled more than once
+    (e.g. after a deoptimization), only the last compilation is kept.
+ */
+class CompilationLog {
+
+    private static final String VECTOR_SUPPORT = "jdk.internal.vm.vector.VectorSupport";
+
+    private final Map<String, Compilation> compilations;
+
+    private CompilationLog(Map<String, Compilation> compilations) {
+        this.compilations = compilations;
+    }
+
+    static CompilationLog parse(Path logFile) throws IOException {
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            Handler handler = new Handler();
+            factory.newSAXParser().parse(logFile.toFile(), handler);
+            return new CompilationLog(handler.compilations);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Cannot parse " + logFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Returns the compilations of methods whose names (as returned by Compilation::method) start with the prefix.
+    List<Compilation> compilations(String methodPrefix) {
+        List<Compilation> result = new ArrayList<>();
+        for (Compilation compilation : compilations.values()) {
+            if (compilation.method().startsWith(methodPrefix)) {
+                result.add(compilation);
+            }
+        }
+        return result;
+    }
+
+    Compilation compilation(String method) {
+        return compilations.get(method);
+    }
+
+    // method is in the form of SimpleClassName::methodName, without the signature, so overloads are merged.
+    record Compilation(String method, int compileId, int bytes, Set<Call> calls) {
+
+        List<Call> vectorIntrinsics() {
+            return calls.stream().filter(Call::isVectorIntrinsic).toList();
+        }
+
+        List<Call> failedVectorIntrinsics() {
+            return calls.stream().filter(call -> call.isVectorIntrinsic() && !call.inlined()).toList();
+        }
+
+        List<Call> callsTo(String callee) {
+            return calls.stream().filter(call -> call.callee().equals(callee)).toList();
+        }
+    }
+
+    // For intrinsics, inlined means intrinsified, and reason is the intrinsic id (e.g. _VectorLoadOp).
+    record Call(String caller, String callee, String calleeClass, boolean inlined, String reason) {
+
+        boolean isVectorIntrinsic() {
+            return calleeClass.equals(VECTOR_SUPPORT);
+        }
+    }
+
+    private static class Handler extends DefaultHandler {
+
+        private final Map<String, Compilation> compilations = new LinkedHashMap<>();
+
+        private final Map<String, String> klasses = new HashMap<>();
+        private final Map<String, String[]> methods = new HashMap<>();
+        private final Deque<String> parsedMethods = new ArrayDeque<>();
+        private final Map<String, Call> deferredCalls = new LinkedHashMap<>();
+        private Set<Call> calls;
+        private String taskMethod;
+        private int compileId;
+        private int bytes;
+        private String[] pendingCall;
+        private String pendingInlineId;
+        private String lateInlineId;
+        private boolean lateInlineFinished;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (qName) {
+                case "task" -> startTask(attributes);
+                case "task_done" -> finishTask(attributes);
+                default -> {
+                    if (calls != null) {
+                        taskElement(qName, attributes);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (calls == null) {
+                return;
+            }
+            switch (qName) {
+                case "parse" -> parsedMethods.pop();
+                case "late_inline" -> lateInlineFinished = lateInlineId != null;
+                default -> {
+                }
+            }
+        }
+
+        private void startTask(Attributes attributes) {
+            // C2 tasks don't have the level attribute.
+            if (attributes.getValue("level") != null || attributes.getValue("compile_kind") != null) {
+                return;
+            }
+            String[] method = attributes.getValue("method").split(" ");
+            taskMethod = simpleName(method[0]) + "::" + method[1];
+            compileId = Integer.parseInt(attributes.getValue("compile_id"));
+            bytes = Integer.parseInt(attributes.getValue("bytes"));
+            calls = new LinkedHashSet<>();
+            klasses.clear();
+            methods.clear();
+            parsedMethods.clear();
+            deferredCalls.clear();
+            pendingCall = null;
+            pendingInlineId = null;
+            lateInlineId = null;
+            lateInlineFinished = false;
+        }
+
+        private void finishTask(Attributes attributes) {
+            if (calls != null && "1".equals(attributes.getValue("success"))) {
+                // The deferred calls that are still there have never been intrinsified.
+                calls.addAll(deferredCalls.values());
+                compilations.remove(taskMethod);
+                compilations.put(taskMethod, new Compilation(taskMethod, compileId, bytes, calls));
+            }
+            calls = null;
+        }
+
+        private void taskElement(String qName, Attributes attributes) {
+            if (lateInlineFinished) {
+                if (qName.equals("intrinsic")) {
+                    Call call = deferredCalls.remove(lateInlineId);
+                    calls.add(new Call(call.caller(), call.callee(), call.calleeClass(), true, attributes.getValue("id")));
+                }
+                lateInlineId = null;
+                lateInlineFinished = false;
+            }
+            switch (qName) {
+                case "klass" -> klasses.put(attributes.getValue("id"), attributes.getValue("name"));
+                case "method" -> methods.put(attributes.getValue("id"), new String[]{
+                        attributes.getValue("holder"), attributes.getValue("name")
+                });
+                case "parse" -> parsedMethods.push(methodName(attributes.getValue("method")));
+                case "call" -> {
+                    pendingInlineId = null;
+                    pendingCall = new String[]{
+                            parsedMethods.isEmpty() ? taskMethod : parsedMethods.peek(),
+                            methodName(attributes.getValue("method")),
+                            holderName(attributes.getValue("method"))
+                    };
+                }
+                case "inline_success" -> resolveCall(true, attributes.getValue("reason"));
+                case "inline_fail" -> resolveCall(false, attributes.getValue("reason"));
+                case "intrinsic" -> resolveCall(true, attributes.getValue("id"));
+                case "inline_id" -> pendingInlineId = attributes.getValue("id");
+                case "direct_call" -> deferCall();
+                case "late_inline" -> {
+                    if (deferredCalls.containsKey(attributes.getValue("inline_id"))) {
+                        lateInlineId = attributes.getValue("inline_id");
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void resolveCall(boolean inlined, String reason) {
+            if (pendingCall != null) {
+                calls.add(new Call(pendingCall[0], pendingCall[1], pendingCall[2], inlined, reason));
+                pendingCall = null;
+            }
+        }
+
+        private void deferCall() {
+            if (pendingCall != null && pendingInlineId != null && pendingCall[2].equals(VECTOR_SUPPORT)) {
+                Call call = new Call(pendingCall[0], pendingCall[1], pendingCall[2], false, "not intrinsified");
+                deferredCalls.put(pendingInlineId, call);
+            }
+            pendingCall = null;
+            pendingInlineId = null;
+        }
+
+        private String methodName(String methodId) {
+            String[] method = methods.get(methodId);
+            if (method == null) {
+                return "?";
+            }
+            return simpleName(klasses.getOrDefault(method[0], "?")) + "::" + method[1];
+        }
+
+        private String holderName(String methodId) {
+            String[] method = methods.get(methodId);
+            return method == null ? "?" : klasses.getOrDefault(method[0], "?");
+        }
+
+        private static String simpleName(String className) {
+            return className.substring(className.lastIndexOf('.') + 1);
+        }
+    }
+}
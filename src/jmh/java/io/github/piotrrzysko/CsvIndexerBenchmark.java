@@ -0,0 +1,97 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.CsvIndexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    The corpus is a generated file of 20 000 records with 8 fields: numbers, short unquoted strings and quoted
+    strings, some of which contain delimiters, doubled quotes and line breaks. For TSV, the same records are
+    separated with tabs.
+
+    byteLoop is a naive loop that toggles the quoted state on every quote and writes the positions of delimiters and
+    line feeds outside quotes to an array.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CsvIndexerBenchmark {
+
+    private static final int RECORDS = 20_000;
+    private static final String[] TEXTS = {
+            "plain text",
+            "text with a delimiter, inside",
+            "text with \"\"quotes\"\"",
+            "multi-line\ntext",
+            "a longer piece of text that describes the record in a few more words than the others"
+    };
+
+    @Param({"csv", "tsv"})
+    String format;
+
+    private byte[] bytes;
+    private byte delimiter;
+    private CsvIndexer indexer;
+    private BitIndexes bitIndexes;
+    private int[] positions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        delimiter = format.equals("csv") ? (byte) ',' : (byte) '\t';
+        String separator = format.equals("csv") ? "," : "\t";
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < RECORDS; i++) {
+            String record = String.join(separator,
+                    Integer.toString(i),
+                    Integer.toString(random.nextInt(1_000_000)),
+                    "user" + random.nextInt(10_000),
+                    "\"" + TEXTS[random.nextInt(TEXTS.length)] + "\"",
+                    Double.toString(random.nextDouble()),
+                    random.nextBoolean() ? "true" : "false",
+                    "\"" + TEXTS[random.nextInt(TEXTS.length)] + "\"",
+                    "2024-05-01"
+            );
+            out.writeBytes((record + "\r\n").getBytes(UTF_8));
+        }
+        bytes = out.toByteArray();
+        bitIndexes = new BitIndexes(bytes.length + 64);
+        indexer = new CsvIndexer(bitIndexes, delimiter, (byte) '"');
+        positions = new int[bytes.length];
+    }
+
+    @Benchmark
+    public int vectorized() {
+        indexer.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    public int byteLoop() {
+        int written = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && (b == delimiter || b == '\n')) {
+                positions[written++] = i;
+            }
+        }
+        return positions[written - 1];
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.DocumentStatistics;
+import io.github.piotrrzysko.simdjson.DocumentStatisticsCollector;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+    indexAndWalk computes the same statistics as DocumentStatisticsCollector by indexing the document and then walking
+    over BitIndexes, which is what has to be done without the statistics mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DocumentStatisticsBenchmark {
+
+    private final BitIndexes bitIndexes = new BitIndexes(128 * 1024);
+    private final InlinedIndexStructuralIndexer inlinedIndex = new InlinedIndexStructuralIndexer(bitIndexes);
+    private final DocumentStatisticsCollector collector = new DocumentStatisticsCollector();
+
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = DocumentStatisticsBenchmark.class.getResourceAsStream("/twitter.json")) {
+            bytes = is.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public DocumentStatistics statistics() {
+        return collector.collect(bytes, bytes.length);
+    }
+
+    @Benchmark
+    public DocumentStatistics indexAndWalk() {
+        inlinedIndex.index(bytes, bytes.length);
+        int structurals = 0;
+        int strings = 0;
+        int keys = 0;
+        int containers = 0;
+        int primitives = 0;
+        int depth = 0;
+        int maxDepth = 0;
+        int topLevelCommas = 0;
+        int first = -1;
+        while (!bitIndexes.isEnd()) {
+            byte b = bytes[bitIndexes.getAndAdvance()];
+            if (first == -1) {
+                first = b;
+            }
+            structurals++;
+            switch (b) {
+                case '{', '[' -> {
+                    containers++;
+                    depth++;
+                    maxDepth = Math.max(maxDepth, depth);
+                }
+                case '}', ']' -> depth--;
+                case ':' -> keys++;
+                case ',' -> topLevelCommas += depth == 1 ? 1 : 0;
+                case '"' -> strings++;
+                default -> primitives++;
+            }
+        }
+        int topLevelArrayLength = first != '[' ? -1 : structurals == 2 ? 0 : topLevelCommas + 1;
+        return new DocumentStatistics(bytes.length, structurals, strings + primitives + containers - keys,
+                strings - keys, keys, containers, maxDepth, topLevelArrayLength);
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.piotrrzysko;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+    Computes the escaped masks (characters preceded by an odd number of backslashes) from a stream of backslash
+    masks, including the carry between blocks.
+
+    - branchyOddSequences: the indexers' version, which skips the computation for blocks without backslashes,
+    - branchlessOddSequences: the same formulas, without the branch,
+    - sequenceLoop: walks over the backslashes one by one.
+
+    With density 0, all blocks take the fast path, which is the common case for real documents. With higher
+    densities, the branch becomes unpredictable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EscapeBenchmark {
+
+    private static final long EVEN_BITS_MASK = 0x5555555555555555L;
+    private static final long ODD_BITS_MASK = ~EVEN_BITS_MASK;
+
+    @Param({"0", "0.001", "0.01", "0.1"})
+    double density;
+
+    private long[] backslashes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        backslashes = MaskStreams.random(density, 42);
+    }
+
+    @Benchmark
+    public long branchyOddSequences() {
+        long prevEscaped = 0;
+        long result = 0;
+        for (long backslash : backslashes) {
+            long escaped;
+            if (backslash == 0) {
+                escaped = prevEscaped;
+                prevEscaped = 0;
+            } else {
+                backslash &= ~prevEscaped;
+                long followsEscape = backslash << 1 | prevEscaped;
+                long oddSequenceStarts = backslash & ODD_BITS_MASK & ~followsEscape;
+                long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+                prevEscaped = ((oddSequenceStarts >>> 1) + (backslash >>> 1) + ((oddSequenceStarts & backslash) & 1)) >>> 63;
+                long invertMask = sequencesStartingOnEvenBits << 1;
+                escaped = (EVEN_BITS_MASK ^ invertMask) & followsEscape;
+            }
+            result ^= escaped;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long branchlessOddSequences() {
+        long prevEscaped = 0;
+        long result = 0;
+        for (long backslash : backslashes) {
+            backslash &= ~prevEscaped;
+            long followsEscape = backslash << 1 | prevEscaped;
+            long oddSequenceStarts = backslash & ODD_BITS_MASK & ~followsEscape;
+            long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+            prevEscaped = ((oddSequenceStarts >>> 1) + (backslash >>> 1) + ((oddSequenceStarts & backslash) & 1)) >>> 63;
+            long invertMask = sequencesStartingOnEvenBits << 1;
+            result ^= (EVEN_BITS_MASK ^ invertMask) & followsEscape;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long sequenceLoop() {
+        long prevEscaped = 0;
+        long result = 0;
+        for (long backslash : backslashes) {
+            long escaped = prevEscaped;
+            long remaining = backslash & ~prevEscaped;
+            prevEscaped = 0;
+            while (remaining != 0) {
+                int bit = Long.numberOfTrailingZeros(remaining);
+                // The backslash at the given bit escapes the next character, which therefore can't start an escape.
+                if (bit == 63) {
+                    prevEscaped = 1;
+                    remaining = 0;
+                } else {
+                    escaped |= 1L << (bit + 1);
+                    remaining &= ~(3L << bit);
+                }
+            }
+            result ^= escaped;
+        }
+        return result;
+    }
+}
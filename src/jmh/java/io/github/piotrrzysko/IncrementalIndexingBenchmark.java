@@ -0,0 +1,126 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.IncrementalStructuralIndexer;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    The document is a top-level array of copies of twitter.json, and each invocation applies one patch in the middle
+    of it and brings the index up to date, either with IncrementalStructuralIndexer::reindex or by indexing the whole
+    document with InlinedIndexStructuralIndexer.
+
+    - value: a digit of a number is changed (the length of the document doesn't change),
+    - element: "0," is inserted between two elements of the top-level array, or removed in the next invocation.
+      The tail of the document is moved in the buffer, which is included in both variants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IncrementalIndexingBenchmark {
+
+    private static final byte[] ELEMENT = "0,".getBytes(UTF_8);
+
+    @Param({"1", "10", "100"})
+    int sizeMb;
+
+    @Param({"value", "element"})
+    String patch;
+
+    private final IncrementalStructuralIndexer incremental = new IncrementalStructuralIndexer();
+
+    private BitIndexes bitIndexes;
+    private InlinedIndexStructuralIndexer full;
+    private byte[] buffer;
+    private int length;
+    private int digitOffset;
+    private int elementOffset;
+    private boolean inserted;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] twitter;
+        try (InputStream is = IncrementalIndexingBenchmark.class.getResourceAsStream("/twitter.json")) {
+            twitter = is.readAllBytes();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        int copies = (sizeMb * 1024 * 1024 + twitter.length - 1) / twitter.length;
+        for (int i = 0; i < copies; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            if (i == copies / 2) {
+                elementOffset = out.size();
+                digitOffset = elementOffset + indexOf(twitter, "\"retweet_count\": ") + "\"retweet_count\": ".length();
+            }
+            out.writeBytes(twitter);
+        }
+        out.write(']');
+        length = out.size();
+        buffer = new byte[length + ELEMENT.length];
+        System.arraycopy(out.toByteArray(), 0, buffer, 0, length);
+
+        bitIndexes = new BitIndexes(length / 4);
+        full = new InlinedIndexStructuralIndexer(bitIndexes);
+        incremental.index(buffer, length);
+    }
+
+    @Benchmark
+    public int fullIndex() {
+        applyPatch();
+        full.index(buffer, length);
+        return bitIndexes.size();
+    }
+
+    @Benchmark
+    public int reindex() {
+        if (patch.equals("value")) {
+            applyPatch();
+            incremental.reindex(buffer, length, digitOffset, 1, 1);
+        } else {
+            boolean insert = !inserted;
+            applyPatch();
+            if (insert) {
+                incremental.reindex(buffer, length, elementOffset, 0, ELEMENT.length);
+            } else {
+                incremental.reindex(buffer, length, elementOffset, ELEMENT.length, 0);
+            }
+        }
+        return incremental.size();
+    }
+
+    private void applyPatch() {
+        if (patch.equals("value")) {
+            buffer[digitOffset] = buffer[digitOffset] == '1' ? (byte) '2' : (byte) '1';
+        } else if (inserted) {
+            System.arraycopy(buffer, elementOffset + ELEMENT.length, buffer, elementOffset, length - elementOffset - ELEMENT.length);
+            length -= ELEMENT.length;
+            inserted = false;
+        } else {
+            System.arraycopy(buffer, elementOffset, buffer, elementOffset + ELEMENT.length, length - elementOffset);
+            System.arraycopy(ELEMENT, 0, buffer, elementOffset, ELEMENT.length);
+            length += ELEMENT.length;
+            inserted = true;
+        }
+    }
+
+    private static int indexOf(byte[] bytes, String pattern) {
+        return new String(bytes, UTF_8).indexOf(pattern);
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.IndexingMetrics;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.InstrumentedStructuralIndexer;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Measures the overhead of InstrumentedStructuralIndexer:
+
+    - off: the plain InlinedIndexStructuralIndexer,
+    - eventDisabled: instrumented, but without metrics and with the JFR event disabled (the default),
+    - metrics: instrumented, with IndexingMetrics and the JFR event disabled,
+    - eventEnabled: instrumented, without metrics, while a JFR recording with the event enabled is running.
+
+    The overhead is per call, so besides twitter.json, the benchmark uses its first kilobyte (cut at a line break).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InstrumentationBenchmark {
+
+    private static final int SMALL_INPUT_SIZE = 1024;
+
+    @Param({"twitter", "small"})
+    String input;
+
+    private final BitIndexes bitIndexes = new BitIndexes(128 * 1024);
+    private final InlinedIndexStructuralIndexer plain = new InlinedIndexStructuralIndexer(bitIndexes);
+    private final InstrumentedStructuralIndexer withoutMetrics = new InstrumentedStructuralIndexer(null, bitIndexes);
+    private final InstrumentedStructuralIndexer withMetrics = new InstrumentedStructuralIndexer(new IndexingMetrics(), bitIndexes);
+
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = InstrumentationBenchmark.class.getResourceAsStream("/twitter.json")) {
+            bytes = is.readAllBytes();
+        }
+        if (input.equals("small")) {
+            int length = SMALL_INPUT_SIZE;
+            while (bytes[length - 1] != '\n') {
+                length--;
+            }
+            bytes = Arrays.copyOf(bytes, length);
+        }
+    }
+
+    @Benchmark
+    public int off() {
+        plain.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    public int eventDisabled() {
+        withoutMetrics.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    public int metrics() {
+        withMetrics.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    public int eventEnabled(EnabledRecording recording) {
+        withoutMetrics.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+
+    @State(Scope.Thread)
+    public static class EnabledRecording {
+
+        private Recording recording;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            recording = new Recording();
+            recording.enable("io.github.piotrrzysko.simdjson.Indexing");
+            recording.setToDisk(false);
+            recording.start();
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop() {
+            recording.close();
+        }
+    }
+}
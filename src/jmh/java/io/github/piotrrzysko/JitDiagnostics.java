@@ -0,0 +1,194 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.CompilationLog.Call;
+import io.github.piotrrzysko.CompilationLog.Compilation;
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.ClassifyingStructuralIndexer;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.InlinedStepStructuralIndexer;
+import io.github.piotrrzysko.simdjson.LoadingInStepStructuralIndexer;
+import io.github.piotrrzysko.simdjson.OriginalStructuralIndexer;
+import io.github.piotrrzysko.simdjson.StructuralIndexer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Explains the performance differences between the indexer variants with the JIT's own decisions, instead of
+    hand-read -XX:+LogCompilation output.
+
+    Each variant is run in a separate JVM with compilation logging enabled (see Workload). Then, for every method of
+    the simdjson package compiled by C2, the report lists the calls to other methods of the package and whether they
+    were inlined (with the reason given by C2), and how many of the distinct VectorSupport methods called from it were
+    intrinsified. Calls to the Vector API that were not intrinsified are listed one by one, because each of them means
+    boxed vectors, i.e. allocation in the hot loop.
+
+    Finally, the results are compared with the expectations stored in jit-expectations.txt, so that a JDK upgrade
+    that changes any of the decisions described in the class comments of the indexers is flagged. The process exits
+    with status 1 if any expectation doesn't hold. The logs are kept in the output directory for further
+    investigation.
+ */
+public class JitDiagnostics {
+
+    private static final String PACKAGE_PREFIX = "io.github.piotrrzysko.simdjson.";
+    private static final String VECTOR_INTRINSICS = "vector-intrinsics";
+    private static final Map<String, Class<? extends StructuralIndexer>> VARIANTS = new LinkedHashMap<>();
+
+    static {
+        VARIANTS.put("original", OriginalStructuralIndexer.class);
+        VARIANTS.put("loadingInStep", LoadingInStepStructuralIndexer.class);
+        VARIANTS.put("inlinedStep", InlinedStepStructuralIndexer.class);
+        VARIANTS.put("inlinedIndex", InlinedIndexStructuralIndexer.class);
+        VARIANTS.put("classifying", ClassifyingStructuralIndexer.class);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path outputDir = Path.of(args.length > 0 ? args[0] : "build/jit-diagnostics");
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        Files.createDirectories(outputDir);
+
+        Map<String, CompilationLog> logs = new LinkedHashMap<>();
+        for (String variant : VARIANTS.keySet()) {
+            Path logFile = outputDir.resolve(variant + ".log");
+            runWorkload(variant, iterations, logFile);
+            CompilationLog log = CompilationLog.parse(logFile);
+            logs.put(variant, log);
+            report(variant, log);
+        }
+
+        List<String> mismatches = checkExpectations(logs);
+        System.out.println();
+        if (mismatches.isEmpty()) {
+            System.out.println("All expectations hold.");
+        } else {
+            System.out.println("Expectations that don't hold (update jit-expectations.txt and the class comments):");
+            mismatches.forEach(mismatch -> System.out.println("  " + mismatch));
+            System.exit(1);
+        }
+    }
+
+    private static void runWorkload(String variant, int iterations, Path logFile) throws IOException, InterruptedException {
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(
+                java.toString(),
+                "--add-modules=jdk.incubator.vector",
+                "-XX:+UnlockDiagnosticVMOptions",
+                "-XX:+LogCompilation",
+                "-XX:LogFile=" + logFile,
+                "-cp", System.getProperty("java.class.path"),
+                Workload.class.getName(),
+                variant,
+                Integer.toString(iterations)
+        ).inheritIO().start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("The workload for " + variant + " failed with status " + process.exitValue());
+        }
+    }
+
+    private static void report(String variant, CompilationLog log) {
+        System.out.println();
+        System.out.println("== " + variant + " (" + VARIANTS.get(variant).getSimpleName() + ")");
+        for (Compilation compilation : log.compilations(VARIANTS.get(variant).getSimpleName() + "::")) {
+            List<Call> intrinsics = compilation.vectorIntrinsics();
+            List<Call> failedIntrinsics = compilation.failedVectorIntrinsics();
+            System.out.printf(
+                    "%s (compile id: %d, %d bytes), Vector API call targets intrinsified: %d/%d%n",
+                    compilation.method(),
+                    compilation.compileId(),
+                    compilation.bytes(),
+                    intrinsics.size() - failedIntrinsics.size(),
+                    intrinsics.size()
+            );
+            for (Call call : compilation.calls()) {
+                if (!call.isVectorIntrinsic() && call.calleeClass().startsWith(PACKAGE_PREFIX)) {
+                    System.out.printf(
+                            "  %s -> %s: %s (%s)%n",
+                            call.caller(), call.callee(), call.inlined() ? "inlined" : "NOT inlined", call.reason()
+                    );
+                }
+            }
+            for (Call call : failedIntrinsics) {
+                System.out.printf("  %s -> %s: NOT intrinsified (%s)%n", call.caller(), call.callee(), call.reason());
+            }
+        }
+    }
+
+    /*
+        Each line of jit-expectations.txt consists of a variant, a compiled method, and either a callee followed by
+        inlined/not-inlined, or vector-intrinsics followed by all/some:
+
+            inlinedStep  InlinedStepStructuralIndexer::index  InlinedStepStructuralIndexer::step  not-inlined
+            inlinedStep  InlinedStepStructuralIndexer::step   vector-intrinsics                   all
+
+        A callee is inlined if all its calls in the compiled method were inlined.
+     */
+    private static List<String> checkExpectations(Map<String, CompilationLog> logs) throws IOException {
+        List<String> mismatches = new ArrayList<>();
+        try (InputStream is = JitDiagnostics.class.getResourceAsStream("/jit-expectations.txt");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(is), UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\\s+");
+                if (columns.length != 4 || !logs.containsKey(columns[0])) {
+                    throw new IllegalArgumentException("Invalid expectation: " + line);
+                }
+                String actual = actual(logs.get(columns[0]).compilation(columns[1]), columns[2]);
+                if (!actual.equals(columns[3])) {
+                    mismatches.add(String.join(" ", columns[0], columns[1], columns[2]) + ": expected " + columns[3] + ", but was " + actual);
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    private static String actual(Compilation compilation, String check) {
+        if (compilation == null) {
+            return "not-compiled";
+        }
+        if (check.equals(VECTOR_INTRINSICS)) {
+            if (compilation.vectorIntrinsics().isEmpty()) {
+                return "none";
+            }
+            return compilation.failedVectorIntrinsics().isEmpty() ? "all" : "some";
+        }
+        List<Call> calls = compilation.callsTo(check);
+        if (calls.isEmpty()) {
+            return "not-called";
+        }
+        return calls.stream().allMatch(Call::inlined) ? "inlined" : "not-inlined";
+    }
+
+    // Runs in the JVM with compilation logging enabled.
+    public static class Workload {
+
+        public static void main(String[] args) throws Exception {
+            byte[] buffer;
+            try (InputStream is = Workload.class.getResourceAsStream("/twitter.json")) {
+                buffer = Objects.requireNonNull(is).readAllBytes();
+            }
+            BitIndexes bitIndexes = new BitIndexes(buffer.length + 64);
+            StructuralIndexer indexer = VARIANTS.get(args[0])
+                    .getConstructor(BitIndexes.class)
+                    .newInstance(bitIndexes);
+            int iterations = Integer.parseInt(args[1]);
+            for (int i = 0; i < iterations; i++) {
+                indexer.index(buffer, buffer.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.JsonValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+    inlinedIndex is the cost of stage 1 alone, i.e. a lower bound of what a validator built on top of BitIndexes
+    could achieve.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonValidatorBenchmark {
+
+    private final BitIndexes bitIndexes = new BitIndexes(128 * 1024);
+    private final InlinedIndexStructuralIndexer inlinedIndex = new InlinedIndexStructuralIndexer(bitIndexes);
+    private final JsonValidator validator = new JsonValidator();
+
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = JsonValidatorBenchmark.class.getResourceAsStream("/twitter.json")) {
+            bytes = is.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public boolean validator() {
+        return validator.validate(bytes, bytes.length);
+    }
+
+    @Benchmark
+    public int inlinedIndex() {
+        inlinedIndex.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+}
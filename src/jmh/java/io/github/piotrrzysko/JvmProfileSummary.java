@@ -0,0 +1,164 @@
+package io.github.piotrrzysko;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+    Compares the results of the benchmarks run with different JVM profiles (named sets of JVM flags defined in
+    build.gradle.kts, e.g. -XX:UseAVX=2 or -XX:+UseZGC).
+
+    Each profile produces a JMH result file in the CSV format (<profile>.csv). The summary is a table with a row per
+    benchmark and parameter values, and a column per profile. The scores of all profiles but the first one are
+    followed by the difference relative to the first profile, so that the first profile should be the baseline
+    (e.g. default). Whether a positive difference is an improvement depends on the benchmark mode, which is shown
+    with the unit (e.g. ops/s vs us/op).
+
+    The table is printed and saved to summary.md next to the result files.
+ */
+public class JvmProfileSummary {
+
+    private static final String PACKAGE_PREFIX = "io.github.piotrrzysko.";
+    private static final String PARAM_PREFIX = "Param: ";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: JvmProfileSummary <results directory> <profile>...");
+        }
+        Path resultsDir = Path.of(args[0]);
+        List<String> profiles = List.of(args).subList(1, args.length);
+
+        Map<String, Map<String, Score>> scores = new LinkedHashMap<>();
+        for (String profile : profiles) {
+            Path resultFile = resultsDir.resolve(profile + ".csv");
+            if (!Files.exists(resultFile)) {
+                throw new IllegalArgumentException("There are no results for the profile " + profile + ": " + resultFile);
+            }
+            for (Map.Entry<String, Score> result : read(resultFile).entrySet()) {
+                scores.computeIfAbsent(result.getKey(), benchmark -> new LinkedHashMap<>()).put(profile, result.getValue());
+            }
+        }
+
+        String summary = summary(profiles, scores);
+        System.out.print(summary);
+        Files.writeString(resultsDir.resolve("summary.md"), summary);
+    }
+
+    // Returns the scores by benchmark names followed by their parameters (e.g. ClassificationBenchmark.rearrange bits=256).
+    private static Map<String, Score> read(Path resultFile) throws IOException {
+        List<String> lines = Files.readAllLines(resultFile);
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("The result file is empty: " + resultFile);
+        }
+        List<String> header = columns(lines.get(0));
+        int benchmarkColumn = header.indexOf("Benchmark");
+        int modeColumn = header.indexOf("Mode");
+        int scoreColumn = header.indexOf("Score");
+        int errorColumn = header.indexOf("Score Error (99.9%)");
+        int unitColumn = header.indexOf("Unit");
+        if (benchmarkColumn < 0 || modeColumn < 0 || scoreColumn < 0 || errorColumn < 0 || unitColumn < 0) {
+            throw new IllegalArgumentException("The result file is not in the JMH CSV format: " + resultFile);
+        }
+
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> row = columns(line);
+            StringBuilder name = new StringBuilder(row.get(benchmarkColumn).replace(PACKAGE_PREFIX, ""));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith(PARAM_PREFIX) && !row.get(i).isEmpty()) {
+                    name.append(' ').append(header.get(i).substring(PARAM_PREFIX.length())).append('=').append(row.get(i));
+                }
+            }
+            scores.put(name.toString(), new Score(
+                    parseDouble(row.get(scoreColumn)),
+                    parseDouble(row.get(errorColumn)),
+                    row.get(unitColumn) + " (" + row.get(modeColumn) + ")"
+            ));
+        }
+        return scores;
+    }
+
+    private static String summary(List<String> profiles, Map<String, Map<String, Score>> scores) {
+        StringBuilder sb = new StringBuilder("| Benchmark | Unit |");
+        for (String profile : profiles) {
+            sb.append(' ').append(profile).append(" |");
+        }
+        sb.append('\n').append("|---|---|");
+        sb.append("---:|".repeat(profiles.size())).append('\n');
+
+        for (Map.Entry<String, Map<String, Score>> benchmark : scores.entrySet()) {
+            Map<String, Score> byProfile = benchmark.getValue();
+            Score baseline = byProfile.get(profiles.get(0));
+            String unit = byProfile.values().iterator().next().unit();
+            sb.append("| ").append(benchmark.getKey()).append(" | ").append(unit).append(" |");
+            for (String profile : profiles) {
+                Score score = byProfile.get(profile);
+                sb.append(' ');
+                if (score == null) {
+                    sb.append('-');
+                } else {
+                    sb.append(format(score.value()));
+                    if (!Double.isNaN(score.error())) {
+                        sb.append(" +- ").append(format(score.error()));
+                    }
+                    if (baseline != null && score != baseline && baseline.value() != 0) {
+                        double difference = (score.value() - baseline.value()) / baseline.value() * 100;
+                        sb.append(String.format(Locale.ROOT, " (%+.1f%%)", difference));
+                    }
+                }
+                sb.append(" |");
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, Math.abs(value) >= 100 ? "%.0f" : "%.3f", value);
+    }
+
+    private static double parseDouble(String value) {
+        // JMH writes NaN for the error of a single measurement.
+        return value.isEmpty() || value.equals("NaN") ? Double.NaN : Double.parseDouble(value);
+    }
+
+    // Splits a line of a CSV file, in which values may be quoted, and quotes inside of them are doubled.
+    private static List<String> columns(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    column.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+
+    private record Score(double value, double error, String unit) {
+    }
+}
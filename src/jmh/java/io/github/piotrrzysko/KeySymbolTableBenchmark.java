@@ -0,0 +1,76 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.KeySymbolTable;
+import io.github.piotrrzysko.simdjson.StringDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Turns all object keys of twitter.json (about 13 000 occurrences, 12.5 bytes long on average) into Strings:
+    decode creates a new String for every occurrence with StringDecoder, and intern looks the keys up in a
+    KeySymbolTable, which after the first call contains all of them. The positions of the keys (an opening quote
+    followed by a colon) are taken from the structural index computed once in the setup, so that only the key handling
+    is measured. The gc profiler shows the allocation per key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class KeySymbolTableBenchmark {
+
+    private final StringDecoder decoder = new StringDecoder();
+    private final KeySymbolTable table = new KeySymbolTable(1024, 64);
+
+    private byte[] bytes;
+    private int[] quotes;
+    private int[] colons;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = KeySymbolTableBenchmark.class.getResourceAsStream("/twitter.json")) {
+            bytes = is.readAllBytes();
+        }
+        BitIndexes bitIndexes = new BitIndexes(bytes.length + 64);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(bytes, bytes.length);
+        int[] indexes = bitIndexes.toArray();
+        quotes = new int[indexes.length];
+        colons = new int[indexes.length];
+        int keys = 0;
+        for (int i = 0; i + 1 < indexes.length; i++) {
+            if (bytes[indexes[i]] == '"' && bytes[indexes[i + 1]] == ':') {
+                quotes[keys] = indexes[i];
+                colons[keys] = indexes[i + 1];
+                keys++;
+            }
+        }
+        quotes = Arrays.copyOf(quotes, keys);
+        colons = Arrays.copyOf(colons, keys);
+    }
+
+    @Benchmark
+    public void decode(Blackhole bh) {
+        for (int quote : quotes) {
+            bh.consume(decoder.decodeString(bytes, bytes.length, quote));
+        }
+    }
+
+    @Benchmark
+    public void intern(Blackhole bh) {
+        for (int i = 0; i < quotes.length; i++) {
+            bh.consume(table.internKey(bytes, bytes.length, quotes[i], colons[i], decoder));
+        }
+    }
+}
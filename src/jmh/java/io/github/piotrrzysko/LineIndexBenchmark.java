@@ -0,0 +1,53 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.CharacterClassification;
+import io.github.piotrrzysko.simdjson.ClassifyingStructuralIndexer;
+import io.github.piotrrzysko.simdjson.LineIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+    The overhead of building a LineIndex on the main loop of ClassifyingStructuralIndexer. blocksPerEntry = 0 means
+    that the indexer is created without a LineIndex. twitter.json is pretty-printed, so it contains line feeds in
+    most blocks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LineIndexBenchmark {
+
+    @Param({"0", "1", "16"})
+    int blocksPerEntry;
+
+    private final BitIndexes bitIndexes = new BitIndexes(128 * 1024);
+
+    private ClassifyingStructuralIndexer indexer;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = LineIndexBenchmark.class.getResourceAsStream("/twitter.json")) {
+            bytes = is.readAllBytes();
+        }
+        LineIndex lineIndex = blocksPerEntry == 0 ? null : new LineIndex(bytes.length, blocksPerEntry);
+        indexer = new ClassifyingStructuralIndexer(bitIndexes, CharacterClassification.REARRANGE, lineIndex);
+    }
+
+    @Benchmark
+    public int index() {
+        indexer.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.piotrrzysko;
+
+import java.util.Random;
+
+/*
+    Pre-generated 64-bit masks for the kernel benchmarks. Each bit is set independently with the given probability,
+    so the density parameter is the expected fraction of set bits (e.g. quotes or structurals per input byte).
+ */
+class MaskStreams {
+
+    // 16 384 blocks correspond to 1 MB of input.
+    static final int BLOCKS = 16 * 1024;
+
+    static long[] random(double density, long seed) {
+        Random random = new Random(seed);
+        long[] masks = new long[BLOCKS];
+        for (int i = 0; i < masks.length; i++) {
+            long mask = 0;
+            for (int bit = 0; bit < 64; bit++) {
+                if (random.nextDouble() < density) {
+                    mask |= 1L << bit;
+                }
+            }
+            masks[i] = mask;
+        }
+        return masks;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.JsonMinifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+    twitter.json is pretty-printed with two spaces per indentation level. The indentation parameter re-indents it,
+    so that the share of removed bytes grows with the parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MinifierBenchmark {
+
+    @Param({"2", "4", "8"})
+    int indentation;
+
+    private final JsonMinifier minifier = new JsonMinifier();
+
+    private byte[] bytes;
+    private byte[] output;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] twitter;
+        try (InputStream is = MinifierBenchmark.class.getResourceAsStream("/twitter.json")) {
+            twitter = is.readAllBytes();
+        }
+        bytes = reindent(twitter, indentation);
+        output = new byte[bytes.length];
+    }
+
+    @Benchmark
+    public int vectorized() {
+        return minifier.minify(bytes, bytes.length, output);
+    }
+
+    @Benchmark
+    public int byteLoop() {
+        int written = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        for (int i = 0; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                continue;
+            }
+            output[written++] = b;
+        }
+        return written;
+    }
+
+    private static byte[] reindent(byte[] pretty, int indentation) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pretty.length * indentation / 2);
+        boolean lineStart = true;
+        for (byte b : pretty) {
+            if (lineStart && b == ' ') {
+                for (int i = 0; i < indentation / 2; i++) {
+                    out.write(' ');
+                }
+                continue;
+            }
+            lineStart = b == '\n';
+            out.write(b);
+        }
+        return out.toByteArray();
+    }
+}
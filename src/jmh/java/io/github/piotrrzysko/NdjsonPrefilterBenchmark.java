@@ -0,0 +1,112 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.NdjsonPrefilter;
+import io.github.piotrrzysko.simdjson.NdjsonPrefilter.MatchMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    The corpus is a generated NDJSON log: 20 000 records of 150-400 bytes, and the selectivity parameter is the
+    fraction of records with "level":"ERROR". Some of the other records mention errors in their messages (including
+    an escaped "level":"ERROR"), so that ANYWHERE has to verify candidates and the string-aware modes have to reject
+    them.
+
+    indexAll indexes every record, which is what the pipeline does today. prefilterThenIndex indexes only the records
+    accepted by NdjsonPrefilter. In both cases, a record is copied into a separate buffer before indexing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NdjsonPrefilterBenchmark {
+
+    private static final int RECORDS = 20_000;
+    private static final String[] MESSAGES = {
+            "request completed",
+            "cache miss for key user:1234",
+            "retrying after ERROR from upstream",
+            "upstream responded with {\\\"level\\\":\\\"ERROR\\\"}",
+            "connection pool exhausted, waiting for a free connection"
+    };
+
+    @Param({"0.01", "0.1", "0.5"})
+    double selectivity;
+
+    @Param({"ANYWHERE", "OUTSIDE_STRINGS", "KEY"})
+    MatchMode mode;
+
+    private final BitIndexes bitIndexes = new BitIndexes(1024);
+    private final InlinedIndexStructuralIndexer indexer = new InlinedIndexStructuralIndexer(bitIndexes);
+    private final byte[] record = new byte[1024];
+
+    private NdjsonPrefilter prefilter;
+    private byte[] bytes;
+    private int[] recordStarts;
+    private int[] recordLengths;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        prefilter = new NdjsonPrefilter(mode, "\"level\":\"ERROR\"");
+
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recordStarts = new int[RECORDS];
+        recordLengths = new int[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            String level = random.nextDouble() < selectivity ? "ERROR" : "INFO";
+            String line = "{\"ts\":\"2024-05-01T12:" + (10 + random.nextInt(50)) + ":00.123Z\","
+                    + "\"level\":\"" + level + "\","
+                    + "\"tenant\":\"t-" + random.nextInt(1000) + "\","
+                    + "\"service\":\"api-gateway\","
+                    + "\"msg\":\"" + MESSAGES[random.nextInt(MESSAGES.length)] + "\","
+                    + "\"tags\":[" + "\"tag\",".repeat(random.nextInt(30)) + "\"last\"],"
+                    + "\"latency_ms\":" + random.nextInt(5000) + "}";
+            byte[] lineBytes = line.getBytes(UTF_8);
+            recordStarts[i] = out.size();
+            recordLengths[i] = lineBytes.length;
+            out.writeBytes(lineBytes);
+            out.write('\n');
+        }
+        bytes = out.toByteArray();
+    }
+
+    @Benchmark
+    public int indexAll() {
+        int structurals = 0;
+        for (int i = 0; i < RECORDS; i++) {
+            structurals += index(recordStarts[i], recordLengths[i]);
+        }
+        return structurals;
+    }
+
+    @Benchmark
+    public int prefilterThenIndex() {
+        int structurals = 0;
+        for (int i = 0; i < RECORDS; i++) {
+            if (prefilter.test(bytes, recordStarts[i], recordLengths[i])) {
+                structurals += index(recordStarts[i], recordLengths[i]);
+            }
+        }
+        return structurals;
+    }
+
+    private int index(int start, int length) {
+        System.arraycopy(bytes, start, record, 0, length);
+        indexer.index(record, length);
+        return bitIndexes.size();
+    }
+}
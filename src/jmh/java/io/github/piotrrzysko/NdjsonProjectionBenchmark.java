@@ -0,0 +1,218 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.NdjsonProjection;
+import io.github.piotrrzysko.simdjson.NdjsonProjection.Field;
+import io.github.piotrrzysko.simdjson.NumberParser;
+import io.github.piotrrzysko.simdjson.ProjectedColumn;
+import io.github.piotrrzysko.simdjson.StringDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.piotrrzysko.simdjson.NdjsonProjection.ColumnType.DOUBLE;
+import static io.github.piotrrzysko.simdjson.NdjsonProjection.ColumnType.LONG;
+import static io.github.piotrrzysko.simdjson.NdjsonProjection.ColumnType.STRING;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Rows per second of reading four fields (tenant, bytes, http.status and http.latency_ms) out of a generated NDJSON
+    log of 100 000 records of about 300 bytes.
+
+    objects is what the pipeline does today: every record is indexed separately and turned into a tree of maps,
+    lists, strings and boxed numbers, out of which the fields are taken into a Row. columnar uses NdjsonProjection,
+    which appends the fields straight into the columns. Both split the input into the same number of chunks, which
+    are processed in parallel by the given number of threads, and concatenate the results.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NdjsonProjectionBenchmark {
+
+    private static final int RECORDS = 100_000;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final String[] TENANTS = {"acme", "globex", "initech", "umbrella", "hooli"};
+
+    @Param({"1", "2", "4"})
+    int threads;
+
+    private final NdjsonProjection projection = new NdjsonProjection(
+            new Field("tenant", STRING),
+            new Field("bytes", LONG),
+            new Field("http.status", LONG),
+            new Field("http.latency_ms", DOUBLE)
+    );
+
+    private ExecutorService executor;
+    private byte[] bytes;
+    private int[] chunkEnds;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < RECORDS; i++) {
+            String line = "{\"ts\":\"2024-05-01T12:" + (10 + random.nextInt(50)) + ":00.123Z\","
+                    + "\"tenant\":\"" + TENANTS[random.nextInt(TENANTS.length)] + "\","
+                    + "\"msg\":\"request completed \\\"GET /api/v1/items\\\"\","
+                    + "\"tags\":[" + "\"tag\",".repeat(random.nextInt(10)) + "\"last\"],"
+                    + "\"http\":{\"method\":\"GET\",\"status\":" + (random.nextInt(10) == 0 ? 500 : 200)
+                    + (random.nextInt(20) == 0 ? "" : ",\"latency_ms\":" + random.nextInt(5000) / 10.0) + "},"
+                    + "\"bytes\":" + random.nextInt(1 << 20) + "}";
+            out.writeBytes(line.getBytes(UTF_8));
+            out.write('\n');
+        }
+        bytes = out.toByteArray();
+
+        int chunks = threads * CHUNKS_PER_THREAD;
+        chunkEnds = new int[chunks];
+        for (int i = 0; i < chunks; i++) {
+            int end = (int) ((long) bytes.length * (i + 1) / chunks);
+            while (end < bytes.length && bytes[end - 1] != '\n') {
+                end++;
+            }
+            chunkEnds[i] = end;
+        }
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int columnar() {
+        ProjectedColumn[] columns = projection.project(bytes, bytes.length, executor, threads * CHUNKS_PER_THREAD);
+        return columns[0].size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int objects() throws ExecutionException, InterruptedException {
+        List<Future<List<Row>>> futures = new ArrayList<>();
+        int start = 0;
+        for (int end : chunkEnds) {
+            int chunkStart = start;
+            futures.add(executor.submit(() -> new TreeParser().parse(bytes, chunkStart, end)));
+            start = end;
+        }
+        List<Row> rows = new ArrayList<>();
+        for (Future<List<Row>> future : futures) {
+            rows.addAll(future.get());
+        }
+        return rows.size();
+    }
+
+    public record Row(String tenant, Long bytes, Long status, Double latency) {
+    }
+
+    // Turns each record into a tree of objects, like a general-purpose JSON parser.
+    private static class TreeParser {
+
+        private final byte[] record = new byte[64 * 1024];
+        private final BitIndexes bitIndexes = new BitIndexes(record.length + 64);
+        private final InlinedIndexStructuralIndexer indexer = new InlinedIndexStructuralIndexer(bitIndexes);
+        private final StringDecoder decoder = new StringDecoder();
+        private int length;
+
+        List<Row> parse(byte[] buffer, int from, int to) {
+            List<Row> rows = new ArrayList<>();
+            int start = from;
+            while (start < to) {
+                int end = start;
+                while (end < to && buffer[end] != '\n') {
+                    end++;
+                }
+                length = end - start;
+                System.arraycopy(buffer, start, record, 0, length);
+                indexer.index(record, length);
+                @SuppressWarnings("unchecked")
+                Map<String, Object> object = (Map<String, Object>) value(bitIndexes.getAndAdvance());
+                @SuppressWarnings("unchecked")
+                Map<String, Object> http = (Map<String, Object>) object.get("http");
+                rows.add(new Row(
+                        (String) object.get("tenant"),
+                        (Long) object.get("bytes"),
+                        http == null ? null : (Long) http.get("status"),
+                        http == null ? null : (Double) http.get("latency_ms")
+                ));
+                start = end + 1;
+            }
+            return rows;
+        }
+
+        private Object value(int idx) {
+            switch (record[idx]) {
+                case '{' -> {
+                    Map<String, Object> object = new HashMap<>();
+                    int next = bitIndexes.getAndAdvance();
+                    while (record[next] != '}') {
+                        String key = decoder.decodeString(record, length, next);
+                        bitIndexes.advance();
+                        object.put(key, value(bitIndexes.getAndAdvance()));
+                        next = bitIndexes.getAndAdvance();
+                        if (record[next] == ',') {
+                            next = bitIndexes.getAndAdvance();
+                        }
+                    }
+                    return object;
+                }
+                case '[' -> {
+                    List<Object> array = new ArrayList<>();
+                    int next = bitIndexes.getAndAdvance();
+                    while (record[next] != ']') {
+                        array.add(value(next));
+                        next = bitIndexes.getAndAdvance();
+                        if (record[next] == ',') {
+                            next = bitIndexes.getAndAdvance();
+                        }
+                    }
+                    return array;
+                }
+                case '"' -> {
+                    return decoder.decodeString(record, length, idx);
+                }
+                case 't', 'f' -> {
+                    return record[idx] == 't';
+                }
+                case 'n' -> {
+                    return null;
+                }
+                default -> {
+                    return isInteger(idx) ? (Object) NumberParser.parseLong(record, length, idx) : (Object) NumberParser.parseDouble(record, length, idx);
+                }
+            }
+        }
+
+        private boolean isInteger(int idx) {
+            int i = idx + 1;
+            while (i < length && record[i] >= '0' && record[i] <= '9') {
+                i++;
+            }
+            return i == length || (record[i] != '.' && record[i] != 'e' && record[i] != 'E');
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.NumberParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    The corpus is a generated array of numbers: 'coordinates' resembles canada.json (longitudes and latitudes with
+    8 to 15 fractional digits), 'integers' contains random longs, and 'mixed' interleaves both with doubles in
+    scientific notation. Positions of the numbers are computed once by the structural indexer, so the benchmarks
+    measure only the conversion.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NumberParserBenchmark {
+
+    private static final int NUMBERS = 100_000;
+
+    @Param({"coordinates", "integers", "mixed"})
+    String corpus;
+
+    private byte[] bytes;
+    private int[] positions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < NUMBERS; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(number(random, i));
+        }
+        sb.append(']');
+        bytes = sb.toString().getBytes(UTF_8);
+
+        BitIndexes bitIndexes = new BitIndexes(bytes.length + 64);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(bytes, bytes.length);
+        positions = new int[NUMBERS];
+        int count = 0;
+        while (!bitIndexes.isEnd()) {
+            int idx = bitIndexes.getAndAdvance();
+            if (bytes[idx] != '[' && bytes[idx] != ',' && bytes[idx] != ']') {
+                positions[count++] = idx;
+            }
+        }
+    }
+
+    private String number(Random random, int i) {
+        switch (corpus) {
+            case "coordinates":
+                return String.format(Locale.ROOT, "%." + (8 + random.nextInt(8)) + "f", random.nextDouble() * 360 - 180);
+            case "integers":
+                return Long.toString(random.nextLong() >> random.nextInt(63));
+            case "mixed":
+                return switch (i % 3) {
+                    case 0 -> String.format(Locale.ROOT, "%.8f", random.nextDouble() * 180 - 90);
+                    case 1 -> Long.toString(random.nextInt());
+                    default -> Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20));
+                };
+            default:
+                throw new IllegalArgumentException("Unknown corpus: " + corpus);
+        }
+    }
+
+    @Benchmark
+    public double numberParser() {
+        double sum = 0;
+        for (int idx : positions) {
+            sum += NumberParser.parseDouble(bytes, bytes.length, idx);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double doubleParseDouble() {
+        double sum = 0;
+        for (int idx : positions) {
+            int end = idx;
+            while (end < bytes.length && bytes[end] != ',' && bytes[end] != ']') {
+                end++;
+            }
+            sum += Double.parseDouble(new String(bytes, idx, end - idx, ISO_8859_1));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.OffHeapBitIndexes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+    Write throughput of BitIndexes backed by an int[] and by a direct buffer (OffHeapBitIndexes) for the same stream
+    of structural masks (see BitIndexesWriteBenchmark). twitter.json has about 0.15 structurals per byte.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OffHeapBitIndexesBenchmark {
+
+    @Param({"0.05", "0.15", "0.3"})
+    double density;
+
+    private final BitIndexes onHeap = new BitIndexes(MaskStreams.BLOCKS * 64 + 64);
+    private final OffHeapBitIndexes offHeap = new OffHeapBitIndexes(MaskStreams.BLOCKS * 64 + 64);
+
+    private long[] structurals;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        structurals = MaskStreams.random(density, 42);
+    }
+
+    @Benchmark
+    public int onHeap() {
+        onHeap.reset();
+        int blockIndex = 64;
+        for (long bits : structurals) {
+            onHeap.write(blockIndex, bits);
+            blockIndex += 64;
+        }
+        return onHeap.getLast();
+    }
+
+    @Benchmark
+    public int offHeap() {
+        offHeap.reset();
+        int blockIndex = 64;
+        for (long bits : structurals) {
+            offHeap.write(blockIndex, bits);
+            blockIndex += 64;
+        }
+        return offHeap.getLast();
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.piotrrzysko;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+    Computes the in-string masks from a stream of quote masks, including the carry between blocks.
+
+    - shiftLadder: the six shift-xor steps used by the indexers,
+    - lowestBitLoop: every quote toggles all bits above it, which is the same as XORing -quote, so the cost is
+      proportional to the number of quotes instead of being constant,
+    - bitLoop: a reference bit-by-bit loop.
+
+    Java doesn't expose carry-less multiplication, which is what simdjson uses for this kernel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PrefixXorBenchmark {
+
+    @Param({"0.01", "0.05", "0.2"})
+    double density;
+
+    private long[] quotes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        quotes = MaskStreams.random(density, 42);
+    }
+
+    @Benchmark
+    public long shiftLadder() {
+        long prevInString = 0;
+        long result = 0;
+        for (long quote : quotes) {
+            long bitmask = quote;
+            bitmask ^= bitmask << 1;
+            bitmask ^= bitmask << 2;
+            bitmask ^= bitmask << 4;
+            bitmask ^= bitmask << 8;
+            bitmask ^= bitmask << 16;
+            bitmask ^= bitmask << 32;
+            long inString = bitmask ^ prevInString;
+            prevInString = inString >> 63;
+            result ^= inString;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long lowestBitLoop() {
+        long prevInString = 0;
+        long result = 0;
+        for (long quote : quotes) {
+            long inString = prevInString;
+            while (quote != 0) {
+                inString ^= -(quote & -quote);
+                quote &= quote - 1;
+            }
+            prevInString = inString >> 63;
+            result ^= inString;
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long bitLoop() {
+        long prevInString = 0;
+        long result = 0;
+        for (long quote : quotes) {
+            long inString = 0;
+            long state = prevInString & 1;
+            for (int bit = 0; bit < 64; bit++) {
+                state ^= (quote >>> bit) & 1;
+                inString |= state << bit;
+            }
+            prevInString = inString >> 63;
+            result ^= inString;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.piotrrzysko;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Computes the final structural masks from the op, whitespace, quote and in-string masks of twitter.json. The input
+    masks are computed in the setup with a byte-by-byte loop, so that they are realistic (e.g. scalars are
+    separated by ops and whitespace), and only the last stage of the block loop is measured.
+
+    - scalarStarts: the indexers' version, based on the starts of non-quote scalars,
+    - pseudoStructurals: the approach of the first simdjson release, where a "pseudo-structural" is a
+      non-whitespace character outside strings preceded by whitespace or a structural.
+
+    For valid JSON, both variants produce the same masks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScalarStartBenchmark {
+
+    private long[] ops;
+    private long[] whitespaces;
+    private long[] quotes;
+    private long[] inStrings;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] bytes;
+        try (InputStream is = ScalarStartBenchmark.class.getResourceAsStream("/twitter.json")) {
+            bytes = is.readAllBytes();
+        }
+        int blocks = bytes.length / 64;
+        ops = new long[blocks];
+        whitespaces = new long[blocks];
+        quotes = new long[blocks];
+        inStrings = new long[blocks];
+        boolean inString = false;
+        boolean escaped = false;
+        for (int i = 0; i < blocks * 64; i++) {
+            byte b = bytes[i];
+            long bit = 1L << (i % 64);
+            int block = i / 64;
+            if (escaped) {
+                escaped = false;
+            } else if (b == '\\') {
+                escaped = true;
+            } else if (b == '"') {
+                quotes[block] |= bit;
+                inString = !inString;
+            }
+            if (inString) {
+                inStrings[block] |= bit;
+            }
+            switch (b) {
+                case ' ', '\t', '\n', '\r' -> whitespaces[block] |= bit;
+                case ':', ',', '{', '}', '[', ']' -> ops[block] |= bit;
+                default -> {
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public long scalarStarts() {
+        long prevScalar = 0;
+        long result = 0;
+        for (int i = 0; i < ops.length; i++) {
+            long op = ops[i];
+            long quote = quotes[i];
+            long scalar = ~(op | whitespaces[i]);
+            long nonQuoteScalar = scalar & ~quote;
+            long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+            prevScalar = nonQuoteScalar >>> 63;
+            long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+            long potentialStructuralStart = op | potentialScalarStart;
+            result ^= potentialStructuralStart & ~(inStrings[i] ^ quote);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long pseudoStructurals() {
+        long prevEndsPseudoPred = 0;
+        long result = 0;
+        for (int i = 0; i < ops.length; i++) {
+            long whitespace = whitespaces[i];
+            long quote = quotes[i];
+            long inString = inStrings[i];
+            long structurals = ops[i] & ~inString;
+            structurals |= quote;
+            long pseudoPred = structurals | whitespace;
+            long shiftedPseudoPred = pseudoPred << 1 | prevEndsPseudoPred;
+            prevEndsPseudoPred = pseudoPred >>> 63;
+            structurals |= shiftedPseudoPred & ~whitespace & ~inString;
+            // Closing quotes are not structurals.
+            structurals &= ~(quote & ~inString);
+            result ^= structurals;
+        }
+        return result;
+    }
+}
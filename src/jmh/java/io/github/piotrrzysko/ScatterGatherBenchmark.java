@@ -0,0 +1,84 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.ScatteredStructuralIndexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Simulates a document received into pooled network buffers: twitter.json is split into fragments of fragmentSize
+    bytes, each of them stored at a non-zero offset of a larger pooled buffer.
+
+    concatenateAndIndex copies the fragments into one contiguous array (which is reused, so only the copy is measured)
+    and indexes it with InlinedIndexStructuralIndexer. indexScattered indexes the fragments in place with
+    ScatteredStructuralIndexer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScatterGatherBenchmark {
+
+    private static final int POOLED_BUFFER_HEADROOM = 64;
+
+    @Param({"4096", "16384", "65536"})
+    int fragmentSize;
+
+    private final BitIndexes bitIndexes = new BitIndexes(128 * 1024);
+    private final InlinedIndexStructuralIndexer contiguousIndexer = new InlinedIndexStructuralIndexer(bitIndexes);
+    private final ScatteredStructuralIndexer scatteredIndexer = new ScatteredStructuralIndexer(bitIndexes);
+
+    private byte[][] buffers;
+    private int[] offsets;
+    private int[] lengths;
+    private int count;
+    private byte[] contiguous;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] json;
+        try (InputStream is = ScatterGatherBenchmark.class.getResourceAsStream("/twitter.json")) {
+            json = is.readAllBytes();
+        }
+        count = (json.length + fragmentSize - 1) / fragmentSize;
+        buffers = new byte[count][];
+        offsets = new int[count];
+        lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            int from = i * fragmentSize;
+            buffers[i] = new byte[fragmentSize + 2 * POOLED_BUFFER_HEADROOM];
+            offsets[i] = POOLED_BUFFER_HEADROOM;
+            lengths[i] = Math.min(fragmentSize, json.length - from);
+            System.arraycopy(json, from, buffers[i], offsets[i], lengths[i]);
+        }
+        contiguous = new byte[json.length];
+    }
+
+    @Benchmark
+    public int concatenateAndIndex() {
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(buffers[i], offsets[i], contiguous, length, lengths[i]);
+            length += lengths[i];
+        }
+        contiguousIndexer.index(contiguous, length);
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    public int indexScattered() {
+        scatteredIndexer.index(buffers, offsets, lengths, count);
+        return bitIndexes.getLast();
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.StringDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    'twitter' is twitter.json: mostly short keys and ASCII values, with some UTF-8 (Japanese) text and a few escaped
+    quotes and newlines. 'ascii' is a generated array of escape-free ASCII strings (10 to 200 bytes). 'escapes' is a
+    generated array of strings in which roughly every eighth character is escaped, including \\uXXXX sequences and
+    surrogate pairs. Positions of the strings are computed once by the structural indexer, so the benchmarks measure
+    only the decoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StringDecoderBenchmark {
+
+    private static final int STRINGS = 20_000;
+
+    @Param({"twitter", "ascii", "escapes"})
+    String corpus;
+
+    private final StringDecoder decoder = new StringDecoder();
+
+    private byte[] bytes;
+    private int[] positions;
+    private byte[] scratch;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        if (corpus.equals("twitter")) {
+            try (InputStream is = StringDecoderBenchmark.class.getResourceAsStream("/twitter.json")) {
+                bytes = is.readAllBytes();
+            }
+        } else {
+            bytes = generate(new Random(42), corpus.equals("escapes"));
+        }
+        scratch = new byte[bytes.length];
+
+        BitIndexes bitIndexes = new BitIndexes(bytes.length + 64);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(bytes, bytes.length);
+        int[] quotes = new int[bytes.length];
+        int count = 0;
+        while (!bitIndexes.isEnd()) {
+            int idx = bitIndexes.getAndAdvance();
+            if (bytes[idx] == '"') {
+                quotes[count++] = idx;
+            }
+        }
+        positions = Arrays.copyOf(quotes, count);
+    }
+
+    @Benchmark
+    public void decodeString(Blackhole blackhole) {
+        for (int position : positions) {
+            blackhole.consume(decoder.decodeString(bytes, bytes.length, position));
+        }
+    }
+
+    @Benchmark
+    public void scalarDecodeString(Blackhole blackhole) {
+        for (int position : positions) {
+            int length = scalarDecode(position);
+            blackhole.consume(new String(scratch, 0, length, UTF_8));
+        }
+    }
+
+    @Benchmark
+    public int decode() {
+        int total = 0;
+        for (int position : positions) {
+            total += decoder.decode(bytes, bytes.length, position);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int scalarDecode() {
+        int total = 0;
+        for (int position : positions) {
+            total += scalarDecode(position);
+        }
+        return total;
+    }
+
+    private int scalarDecode(int position) {
+        int dst = 0;
+        int src = position + 1;
+        while (true) {
+            byte b = bytes[src];
+            if (b == '"') {
+                return dst;
+            }
+            if (b != '\\') {
+                scratch[dst++] = b;
+                src++;
+                continue;
+            }
+            byte escape = bytes[src + 1];
+            src += 2;
+            switch (escape) {
+                case 'b' -> scratch[dst++] = '\b';
+                case 'f' -> scratch[dst++] = '\f';
+                case 'n' -> scratch[dst++] = '\n';
+                case 'r' -> scratch[dst++] = '\r';
+                case 't' -> scratch[dst++] = '\t';
+                case 'u' -> {
+                    int codePoint = Integer.parseInt(new String(bytes, src, 4, UTF_8), 16);
+                    src += 4;
+                    if (Character.isHighSurrogate((char) codePoint)) {
+                        int low = Integer.parseInt(new String(bytes, src + 2, 4, UTF_8), 16);
+                        codePoint = Character.toCodePoint((char) codePoint, (char) low);
+                        src += 6;
+                    }
+                    byte[] encoded = new String(Character.toChars(codePoint)).getBytes(UTF_8);
+                    System.arraycopy(encoded, 0, scratch, dst, encoded.length);
+                    dst += encoded.length;
+                }
+                default -> scratch[dst++] = escape;
+            }
+        }
+    }
+
+    private static byte[] generate(Random random, boolean escapes) {
+        String[] escapeSequences = {"\\n", "\\t", "\\\"", "\\\\", "\\/", "\\u00e9", "\\u20ac", "\\ud83d\\ude00"};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        for (int i = 0; i < STRINGS; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write('"');
+            int length = 10 + random.nextInt(190);
+            for (int j = 0; j < length; j++) {
+                if (escapes && random.nextInt(8) == 0) {
+                    out.writeBytes(escapeSequences[random.nextInt(escapeSequences.length)].getBytes(UTF_8));
+                } else {
+                    out.write('a' + random.nextInt(26));
+                }
+            }
+            out.write('"');
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+}
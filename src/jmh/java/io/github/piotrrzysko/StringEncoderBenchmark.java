@@ -0,0 +1,173 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.StringDecoder;
+import io.github.piotrrzysko.simdjson.StringEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    'twitter' are the (decoded) strings of twitter.json: mostly short keys and ASCII values, with some UTF-8 (Japanese)
+    text and a few quotes and newlines. 'ascii' are generated ASCII strings (10 to 200 characters) that don't need
+    escaping. 'escapes' are generated strings in which roughly every eighth character has to be escaped (quotes,
+    backslashes, newlines, tabs and other control characters). 'utf8' are generated strings of Polish and Japanese
+    characters that don't need escaping. The strings are stored one after another in a single array, and every
+    benchmark escapes all of them into a reusable buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StringEncoderBenchmark {
+
+    private static final int STRINGS = 20_000;
+
+    @Param({"twitter", "ascii", "escapes", "utf8"})
+    String corpus;
+
+    private final StringEncoder encoder = new StringEncoder();
+
+    private byte[] bytes;
+    private int[] offsets;
+    private byte[] scratch;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        offsets = new int[STRINGS + 1];
+        int count = 0;
+        if (corpus.equals("twitter")) {
+            byte[] json;
+            try (InputStream is = StringEncoderBenchmark.class.getResourceAsStream("/twitter.json")) {
+                json = is.readAllBytes();
+            }
+            BitIndexes bitIndexes = new BitIndexes(json.length + 64);
+            new InlinedIndexStructuralIndexer(bitIndexes).index(json, json.length);
+            StringDecoder decoder = new StringDecoder();
+            while (!bitIndexes.isEnd() && count < STRINGS) {
+                int idx = bitIndexes.getAndAdvance();
+                if (json[idx] == '"') {
+                    out.write(decoder.getDecoded(), 0, decoder.decode(json, json.length, idx));
+                    offsets[++count] = out.size();
+                }
+            }
+        } else {
+            Random random = new Random(42);
+            for (; count < STRINGS; count++) {
+                out.writeBytes(generate(random).getBytes(UTF_8));
+                offsets[count + 1] = out.size();
+            }
+        }
+        offsets = Arrays.copyOf(offsets, count + 1);
+        bytes = out.toByteArray();
+        scratch = new byte[6 * bytes.length + 2];
+    }
+
+    @Benchmark
+    public int encode() {
+        int total = 0;
+        for (int i = 0; i + 1 < offsets.length; i++) {
+            total += encoder.encode(bytes, offsets[i], offsets[i + 1] - offsets[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int scalarEncode() {
+        int total = 0;
+        for (int i = 0; i + 1 < offsets.length; i++) {
+            total += scalarEncode(offsets[i], offsets[i + 1]);
+        }
+        return total;
+    }
+
+    private int scalarEncode(int from, int to) {
+        int dst = 0;
+        scratch[dst++] = '"';
+        for (int src = from; src < to; src++) {
+            byte b = bytes[src];
+            switch (b) {
+                case '"' -> {
+                    scratch[dst++] = '\\';
+                    scratch[dst++] = '"';
+                }
+                case '\\' -> {
+                    scratch[dst++] = '\\';
+                    scratch[dst++] = '\\';
+                }
+                case '\b' -> {
+                    scratch[dst++] = '\\';
+                    scratch[dst++] = 'b';
+                }
+                case '\f' -> {
+                    scratch[dst++] = '\\';
+                    scratch[dst++] = 'f';
+                }
+                case '\n' -> {
+                    scratch[dst++] = '\\';
+                    scratch[dst++] = 'n';
+                }
+                case '\r' -> {
+                    scratch[dst++] = '\\';
+                    scratch[dst++] = 'r';
+                }
+                case '\t' -> {
+                    scratch[dst++] = '\\';
+                    scratch[dst++] = 't';
+                }
+                default -> {
+                    if (b >= 0 && b < 0x20) {
+                        scratch[dst++] = '\\';
+                        scratch[dst++] = 'u';
+                        scratch[dst++] = '0';
+                        scratch[dst++] = '0';
+                        scratch[dst++] = (byte) Character.forDigit(b >>> 4, 16);
+                        scratch[dst++] = (byte) Character.forDigit(b & 0xF, 16);
+                    } else {
+                        scratch[dst++] = b;
+                    }
+                }
+            }
+        }
+        scratch[dst++] = '"';
+        return dst;
+    }
+
+    private String generate(Random random) {
+        String[] escaped = {"\"", "\\", "\n", "\t", "\r", "\u0001", "\u001f"};
+        String utf8 = "zażółć gęślą jaźń 日本語のテキスト";
+        int length = 10 + random.nextInt(190);
+        StringBuilder sb = new StringBuilder(length);
+        for (int j = 0; j < length; j++) {
+            switch (corpus) {
+                case "ascii" -> sb.append((char) ('a' + random.nextInt(26)));
+                case "escapes" -> {
+                    if (random.nextInt(8) == 0) {
+                        sb.append(escaped[random.nextInt(escaped.length)]);
+                    } else {
+                        sb.append((char) ('a' + random.nextInt(26)));
+                    }
+                }
+                case "utf8" -> sb.append(utf8.charAt(random.nextInt(utf8.length())));
+                default -> throw new IllegalArgumentException("Unknown corpus: " + corpus);
+            }
+        }
+        return sb.toString();
+    }
+}
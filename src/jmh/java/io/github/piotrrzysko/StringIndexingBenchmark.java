@@ -0,0 +1,68 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.StringStructuralIndexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Compares indexing a String with StringStructuralIndexer with the path used by callers holding Strings today:
+    String::getBytes followed by InlinedIndexStructuralIndexer.
+
+    twitter.json contains Japanese text, so as a String it's stored as UTF-16. For the latin1 corpus, all chars above
+    0x7F are replaced with '?', so that the String is compact (LATIN1) and ASCII only, and getBytes takes its ASCII
+    fast path (chars from 0x80 to 0xFF would be encoded as two bytes each).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StringIndexingBenchmark {
+
+    @Param({"utf16", "latin1"})
+    String corpus;
+
+    private final BitIndexes bitIndexes = new BitIndexes(128 * 1024);
+    private final InlinedIndexStructuralIndexer bytesIndexer = new InlinedIndexStructuralIndexer(bitIndexes);
+    private final StringStructuralIndexer stringIndexer = new StringStructuralIndexer(bitIndexes);
+
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = StringIndexingBenchmark.class.getResourceAsStream("/twitter.json")) {
+            json = new String(is.readAllBytes(), UTF_8);
+        }
+        if (corpus.equals("latin1")) {
+            StringBuilder sb = new StringBuilder(json.length());
+            json.chars().forEach(c -> sb.append(c > 0x7F ? '?' : (char) c));
+            json = sb.toString();
+        }
+    }
+
+    @Benchmark
+    public int getBytesAndIndex() {
+        byte[] bytes = json.getBytes(UTF_8);
+        bytesIndexer.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    public int indexString() {
+        stringIndexer.index(json);
+        return bitIndexes.getLast();
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.CachingStructuralIndexer;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.StructuralIndex;
+import io.github.piotrrzysko.simdjson.StructuralIndexCache;
+import io.github.piotrrzysko.simdjson.VectorizedHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+    The hit-dominated benchmark indexes the same payload over and over again, so after the first call it only pays for
+    hashing and comparing the input with the cached copy. The miss-dominated benchmark cycles through more distinct
+    payloads than the cache can hold, so every call pays for hashing, indexing, copying the result, and evicting an
+    entry. Comparing it with noCache shows the overhead of the caching layer, and hash shows the cost of hashing alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StructuralIndexCacheBenchmark {
+
+    private static final int DISTINCT_PAYLOADS = 8;
+    private static final int CACHED_PAYLOADS = 2;
+
+    private final BitIndexes bitIndexes = new BitIndexes(128 * 1024);
+    private final InlinedIndexStructuralIndexer noCache = new InlinedIndexStructuralIndexer(bitIndexes);
+
+    private byte[][] payloads;
+    private CachingStructuralIndexer hitDominated;
+    private CachingStructuralIndexer missDominated;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        byte[] bytes;
+        try (InputStream is = StructuralIndexCacheBenchmark.class.getResourceAsStream("/twitter.json")) {
+            bytes = is.readAllBytes();
+        }
+        payloads = new byte[DISTINCT_PAYLOADS][];
+        for (int i = 0; i < DISTINCT_PAYLOADS; i++) {
+            payloads[i] = bytes.clone();
+            // The document starts with "{\n  ", so swapping these whitespaces keeps the payloads valid and distinct.
+            payloads[i][1] = (byte) (i % 2 == 0 ? ' ' : '\n');
+            payloads[i][2] = (byte) (i / 2 % 2 == 0 ? ' ' : '\n');
+            payloads[i][3] = (byte) (i / 4 % 2 == 0 ? ' ' : '\n');
+        }
+
+        noCache.index(bytes, bytes.length);
+        long payloadSize = 64 + bytes.length + (long) Integer.BYTES * bitIndexes.size();
+        hitDominated = new CachingStructuralIndexer(new StructuralIndexCache(payloadSize), new BitIndexes(128 * 1024));
+        missDominated = new CachingStructuralIndexer(new StructuralIndexCache(CACHED_PAYLOADS * payloadSize), new BitIndexes(128 * 1024));
+    }
+
+    @Benchmark
+    public int noCache() {
+        byte[] payload = nextPayload();
+        noCache.index(payload, payload.length);
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    public int hitDominated() {
+        byte[] payload = payloads[0];
+        StructuralIndex index = hitDominated.index(payload, payload.length);
+        return index.get(index.size() - 1);
+    }
+
+    @Benchmark
+    public int missDominated() {
+        byte[] payload = nextPayload();
+        StructuralIndex index = missDominated.index(payload, payload.length);
+        return index.get(index.size() - 1);
+    }
+
+    @Benchmark
+    public long hash() {
+        byte[] payload = nextPayload();
+        return VectorizedHash.hash(payload, 0, payload.length);
+    }
+
+    private byte[] nextPayload() {
+        byte[] payload = payloads[next];
+        next = (next + 1) % DISTINCT_PAYLOADS;
+        return payload;
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Compares a stage 2 that loads buffer[index] for every structural with one that reads the tags stored by
+    BitIndexes, i.e. saves one input load per structural. Each walk returns the number of the loads
+    it made from the input, so that the saved loads can be seen in the results (one per structural).
+
+    The walks are similar to DocumentStatisticsBenchmark::indexAndWalk: the document is indexed and then all the
+    structurals are classified. The tags benchmark includes the cost of writing them while indexing, which can be
+    compared with the indexing alone (index vs indexWithTags). copies is the number of copies of twitter.json in a
+    top-level array; 64 copies (about 40 MB) don't fit in the cache.
+
+    Note that this walk reads the structurals in order, so the input loads are sequential and the hardware prefetcher
+    hides most of their latency. The tags pay off when the input loads in stage 2 miss the cache, i.e. when writing
+    them in stage 1 (it adds about a third to the indexing time of twitter.json) is cheaper than the misses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StructuralTagsBenchmark {
+
+    @Param({"1", "64"})
+    int copies;
+
+    private BitIndexes bitIndexes;
+    private BitIndexes taggedBitIndexes;
+    private InlinedIndexStructuralIndexer indexer;
+    private InlinedIndexStructuralIndexer taggedIndexer;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        String twitter;
+        try (InputStream is = StructuralTagsBenchmark.class.getResourceAsStream("/twitter.json")) {
+            twitter = new String(is.readAllBytes(), UTF_8);
+        }
+        String document = copies == 1 ? twitter : "[" + String.join(",", Collections.nCopies(copies, twitter)) + "]";
+        bytes = document.getBytes(UTF_8);
+        bitIndexes = new BitIndexes(bytes.length + 64);
+        taggedBitIndexes = new BitIndexes(bytes.length + 64, true);
+        indexer = new InlinedIndexStructuralIndexer(bitIndexes);
+        taggedIndexer = new InlinedIndexStructuralIndexer(taggedBitIndexes);
+    }
+
+    @Benchmark
+    public int index() {
+        indexer.index(bytes, bytes.length);
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    public int indexWithTags() {
+        taggedIndexer.index(bytes, bytes.length);
+        return taggedBitIndexes.getLast();
+    }
+
+    @Benchmark
+    public Walk indexAndWalkBytes() {
+        indexer.index(bytes, bytes.length);
+        int inputLoads = 0;
+        int depth = 0;
+        int maxDepth = 0;
+        int strings = 0;
+        int primitives = 0;
+        while (!bitIndexes.isEnd()) {
+            byte b = bytes[bitIndexes.getAndAdvance()];
+            inputLoads++;
+            switch (b) {
+                case '{', '[' -> maxDepth = Math.max(maxDepth, ++depth);
+                case '}', ']' -> depth--;
+                case ':', ',' -> {
+                }
+                case '"' -> strings++;
+                default -> primitives++;
+            }
+        }
+        return new Walk(inputLoads, maxDepth, strings, primitives);
+    }
+
+    @Benchmark
+    public Walk indexAndWalkTags() {
+        taggedIndexer.index(bytes, bytes.length);
+        int inputLoads = 0;
+        int depth = 0;
+        int maxDepth = 0;
+        int strings = 0;
+        int primitives = 0;
+        while (!taggedBitIndexes.isEnd()) {
+            byte b = taggedBitIndexes.getTag();
+            taggedBitIndexes.advance();
+            switch (b) {
+                case '{', '[' -> maxDepth = Math.max(maxDepth, ++depth);
+                case '}', ']' -> depth--;
+                case ':', ',' -> {
+                }
+                case '"' -> strings++;
+                default -> primitives++;
+            }
+        }
+        return new Walk(inputLoads, maxDepth, strings, primitives);
+    }
+
+    public record Walk(int inputLoads, int maxDepth, int strings, int primitives) {
+    }
+}
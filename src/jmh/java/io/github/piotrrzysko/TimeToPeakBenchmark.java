@@ -0,0 +1,103 @@
+package io.github.piotrrzysko;
+
+import io.github.piotrrzysko.simdjson.BitIndexes;
+import io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer;
+import io.github.piotrrzysko.simdjson.InlinedStepStructuralIndexer;
+import io.github.piotrrzysko.simdjson.LoadingInStepStructuralIndexer;
+import io.github.piotrrzysko.simdjson.OriginalStructuralIndexer;
+import io.github.piotrrzysko.simdjson.StructuralIndexer;
+import io.github.piotrrzysko.simdjson.StructuralIndexerWarmer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/*
+    Measures the latency of the n-th call to index() in a fresh JVM, i.e. how long it takes each variant to reach its
+    peak performance. Before the measured call, the setup makes n - 1 calls with the same input, so each fork yields
+    exactly one sample. To get a distribution, the benchmark has to be run with many forks, and with no warmup
+    iterations and a single measurement iteration (see README).
+
+    The input is the beginning of twitter.json (cut at a line break, so no string is split), about the size of a
+    typical request body. With prewarm=true, StructuralIndexerWarmer runs before the n - 1 calls.
+
+    freshJvm is the baseline. cds runs with a dynamic AppCDS archive, which is created when the first fork exits and
+    used by the following ones. CDS only reduces class loading and linking time, it doesn't store JIT-compiled code.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class TimeToPeakBenchmark {
+
+    private static final int INPUT_SIZE = 4 * 1024;
+
+    @Param({"1", "10", "100", "1000"})
+    int callNumber;
+
+    @Param({"original", "loadingInStep", "inlinedStep", "inlinedIndex"})
+    String variant;
+
+    @Param({"false", "true"})
+    boolean prewarm;
+
+    private final BitIndexes bitIndexes = new BitIndexes(INPUT_SIZE);
+
+    private StructuralIndexer indexer;
+    private byte[] buffer;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        try (InputStream is = TimeToPeakBenchmark.class.getResourceAsStream("/twitter.json")) {
+            byte[] twitter = is.readAllBytes();
+            int length = INPUT_SIZE;
+            while (twitter[length - 1] != '\n') {
+                length--;
+            }
+            buffer = Arrays.copyOf(twitter, length);
+        }
+        Function<BitIndexes, StructuralIndexer> factory = switch (variant) {
+            case "original" -> OriginalStructuralIndexer::new;
+            case "loadingInStep" -> LoadingInStepStructuralIndexer::new;
+            case "inlinedStep" -> InlinedStepStructuralIndexer::new;
+            case "inlinedIndex" -> InlinedIndexStructuralIndexer::new;
+            default -> throw new IllegalArgumentException("Unknown variant: " + variant);
+        };
+        if (prewarm) {
+            StructuralIndexerWarmer.warmUp(factory, Duration.ofSeconds(2));
+        }
+        indexer = factory.apply(bitIndexes);
+        for (int i = 1; i < callNumber; i++) {
+            indexer.index(buffer, buffer.length);
+        }
+    }
+
+    @Benchmark
+    public int freshJvm() {
+        indexer.index(buffer, buffer.length);
+        return bitIndexes.getLast();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = {"-XX:+AutoCreateSharedArchive", "-XX:SharedArchiveFile=build/jmh-time-to-peak.jsa"})
+    public int cds() {
+        indexer.index(buffer, buffer.length);
+        return bitIndexes.getLast();
+    }
+}
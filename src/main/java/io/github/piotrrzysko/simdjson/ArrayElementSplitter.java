@@ -0,0 +1,320 @@
+package io.github.piotrrzysko.simdjson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Processes the elements of a large array (e.g. the statuses array of twitter.json) in parallel, using a single
+    structural index of the whole document.
+
+    The array is given by a path of keys separated by dots, like in NdjsonProjection (e.g. statuses, or data.items),
+    and an empty path stands for the top-level array. Once the document is indexed, its structurals are walked once,
+    serially, to find the array (objects whose keys don't match the path are skipped by counting brackets), and the
+    boundaries of its elements: an element ends at a comma or the closing bracket at the depth of the array. Then, the
+    elements are split into chunks of consecutive elements with roughly the same number of bytes, and each chunk is
+    processed by a separate task of the given executor (e.g. a ForkJoinPool, or an executor of virtual threads).
+
+    The serial walk limits how well the processing scales, so it reads the tags of BitIndexes if they are stored,
+    which is faster than loading buffer[index] for every structural of a large document.
+
+    A task gets its own visitor from the supplier, so that the visitor can hold state confined to a single thread
+    (e.g. a StringDecoder), and its own BitIndexesCursor, which the visitor uses instead of the read position of the
+    shared BitIndexes. For every element, the cursor covers exactly the structurals of the element.
+ */
+public class ArrayElementSplitter {
+
+    public interface ElementVisitor {
+
+        // The elements are numbered from 0 in the order of the array.
+        void visit(int element, BitIndexesCursor cursor);
+    }
+
+    private static final int[] DEPTH_CHANGES = new int[256];
+
+    static {
+        DEPTH_CHANGES['{'] = 1;
+        DEPTH_CHANGES['['] = 1;
+        DEPTH_CHANGES['}'] = -1;
+        DEPTH_CHANGES[']'] = -1;
+    }
+
+    private final String path;
+    private final byte[][] keys;
+
+    public ArrayElementSplitter(String path) {
+        this.path = path;
+        String[] keys = path.isEmpty() ? new String[0] : path.split("\\.", -1);
+        this.keys = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].isEmpty()) {
+                throw new IllegalArgumentException("Invalid array path: " + path + ". Keys cannot be empty.");
+            }
+            this.keys[i] = keys[i].getBytes(UTF_8);
+        }
+    }
+
+    // Visits all elements in the calling thread. Returns the number of elements.
+    public int process(byte[] buffer, BitIndexes bitIndexes, ElementVisitor visitor) {
+        Elements elements = split(buffer, bitIndexes);
+        visit(bitIndexes, elements, 0, elements.count(), visitor);
+        return elements.count();
+    }
+
+    // Visits the elements split into the given number of chunks, and waits until all of them are visited. Returns the
+    // number of elements. If a visitor throws, the exception is rethrown once all chunks are finished.
+    public int process(byte[] buffer, BitIndexes bitIndexes, ExecutorService executor, int chunks,
+                       Supplier<? extends ElementVisitor> visitors) {
+        if (chunks <= 0) {
+            throw new IllegalArgumentException("The number of chunks has to be positive.");
+        }
+        Elements elements = split(buffer, bitIndexes);
+        int[] bounds = chunks(bitIndexes, elements, chunks);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int from = bounds[chunk];
+            int to = bounds[chunk + 1];
+            if (from < to) {
+                futures.add(executor.submit(() -> visitChunk(bitIndexes, elements, from, to, visitors, failed)));
+            }
+        }
+        // All chunks are awaited, even if one of them fails, so that no visitor is running when process returns.
+        // The other chunks stop at the next element once a chunk fails.
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                await(future);
+            } catch (InterruptedException e) {
+                // The remaining chunks can't be awaited anymore, so they are cancelled instead.
+                for (Future<?> chunk : futures) {
+                    chunk.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the elements of a chunk.", e);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else if (failure != e) {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return elements.count();
+    }
+
+    private static void visit(BitIndexes bitIndexes, Elements elements, int from, int to, ElementVisitor visitor) {
+        BitIndexesCursor cursor = bitIndexes.cursor(0, 0);
+        for (int element = from; element < to; element++) {
+            cursor.reset(elements.starts()[element], elements.ends()[element]);
+            visitor.visit(element, cursor);
+        }
+    }
+
+    private static void visitChunk(BitIndexes bitIndexes, Elements elements, int from, int to,
+                                   Supplier<? extends ElementVisitor> visitors, AtomicBoolean failed) {
+        try {
+            ElementVisitor visitor = visitors.get();
+            BitIndexesCursor cursor = bitIndexes.cursor(0, 0);
+            for (int element = from; element < to && !failed.get(); element++) {
+                cursor.reset(elements.starts()[element], elements.ends()[element]);
+                visitor.visit(element, cursor);
+            }
+        } catch (RuntimeException | Error e) {
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    private static void await(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Returns the first element of every chunk, followed by the number of elements. A chunk ends at the first element
+    // that starts at or after its share of the bytes of the array, so chunks can be empty if elements are large.
+    static int[] chunks(BitIndexes bitIndexes, Elements elements, int chunks) {
+        int[] bounds = new int[chunks + 1];
+        int count = elements.count();
+        bounds[chunks] = count;
+        if (count == 0) {
+            return bounds;
+        }
+        int first = bitIndexes.get(elements.starts()[0]);
+        long bytes = bitIndexes.get(elements.ends()[count - 1]) - first;
+        int element = 0;
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            long target = first + bytes * chunk / chunks;
+            while (element < count && bitIndexes.get(elements.starts()[element]) < target) {
+                element++;
+            }
+            bounds[chunk] = element;
+        }
+        return bounds;
+    }
+
+    // Returns the ranges of structurals (the first one, and the comma or the closing bracket that follows the element)
+    // of the elements of the array.
+    Elements split(byte[] buffer, BitIndexes bitIndexes) {
+        Walker walker = new Walker(buffer, bitIndexes);
+        int idx = walker.findArray();
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int count = 0;
+
+        idx++;
+        if (walker.structural(idx) == ']') {
+            return new Elements(starts, ends, 0);
+        }
+        int start = idx;
+        int depth = 0;
+        int size = bitIndexes.size();
+        boolean tags = bitIndexes.hasTags();
+        for (; idx < size; idx++) {
+            byte b = tags ? bitIndexes.getTag(idx) : buffer[bitIndexes.get(idx)];
+            // Brackets are looked up instead of compared, so that walking over large elements doesn't mispredict.
+            depth += DEPTH_CHANGES[b & 0xFF];
+            if (depth < 0 || (depth == 0 && b == ',')) {
+                if (b == '}') {
+                    throw walker.invalid("Expected a comma or a closing bracket", idx);
+                }
+                if (start == idx) {
+                    throw walker.invalid("Expected an element", idx);
+                }
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, 2 * count);
+                    ends = Arrays.copyOf(ends, 2 * count);
+                }
+                starts[count] = start;
+                ends[count] = idx;
+                count++;
+                if (b == ']') {
+                    return new Elements(starts, ends, count);
+                }
+                start = idx + 1;
+            }
+        }
+        throw walker.incomplete();
+    }
+
+    record Elements(int[] starts, int[] ends, int count) {
+    }
+
+    // Walks the structurals of a document from the beginning to find the array.
+    private final class Walker {
+
+        private final byte[] buffer;
+        private final BitIndexes bitIndexes;
+        private final int size;
+        private final boolean tags;
+
+        Walker(byte[] buffer, BitIndexes bitIndexes) {
+            this.buffer = buffer;
+            this.bitIndexes = bitIndexes;
+            this.size = bitIndexes.size();
+            this.tags = bitIndexes.hasTags();
+        }
+
+        // Returns the number of the structural with the opening bracket of the array.
+        int findArray() {
+            int idx = 0;
+            for (int level = 0; level < keys.length; level++) {
+                if (structural(idx) != '{') {
+                    throw notFound();
+                }
+                idx = findValue(idx + 1, keys[level]);
+            }
+            if (structural(idx) != '[') {
+                throw new IllegalArgumentException("Invalid array path: " + path + ". The value is not an array.");
+            }
+            return idx;
+        }
+
+        // Called right after the opening brace of an object. Returns the number of the first structural of the value
+        // of the key.
+        private int findValue(int idx, byte[] key) {
+            if (structural(idx) == '}') {
+                throw notFound();
+            }
+            while (true) {
+                if (structural(idx) != '"') {
+                    throw invalid("Expected a key", idx);
+                }
+                if (structural(idx + 1) != ':') {
+                    throw invalid("Expected a colon", idx + 1);
+                }
+                int quote = bitIndexes.get(idx);
+                int keyEnd = bitIndexes.get(idx + 1) - 1;
+                while (buffer[keyEnd] != '"') {
+                    keyEnd--;
+                }
+                if (Arrays.equals(key, 0, key.length, buffer, quote + 1, keyEnd)) {
+                    return idx + 2;
+                }
+                idx = skip(idx + 2);
+                byte b = structural(idx);
+                if (b == '}') {
+                    throw notFound();
+                }
+                if (b != ',') {
+                    throw invalid("Expected a comma or a closing brace", idx);
+                }
+                idx++;
+            }
+        }
+
+        // Returns the number of the structural following the value, including all nested values if it's an object or
+        // an array.
+        private int skip(int idx) {
+            byte b = structural(idx);
+            if (b != '{' && b != '[') {
+                return idx + 1;
+            }
+            int depth = 1;
+            while (depth > 0) {
+                b = structural(++idx);
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                }
+            }
+            return idx + 1;
+        }
+
+        byte structural(int idx) {
+            if (idx >= size) {
+                throw incomplete();
+            }
+            return tags ? bitIndexes.getTag(idx) : buffer[bitIndexes.get(idx)];
+        }
+
+        IllegalArgumentException incomplete() {
+            return new IllegalArgumentException("Invalid document. The document is incomplete.");
+        }
+
+        IllegalArgumentException invalid(String expected, int idx) {
+            return new IllegalArgumentException("Invalid document. " + expected + " at position " + bitIndexes.get(idx) + ".");
+        }
+
+        private IllegalArgumentException notFound() {
+            return new IllegalArgumentException("Invalid array path: " + path + ". The array is not found.");
+        }
+    }
+}
@@ -1,14 +1,43 @@
 package io.github.piotrrzysko.simdjson;
 
+import java.util.Arrays;
+
+/*
+    Optionally, BitIndexes can also store a tag per index, i.e. the first byte of the structural (e.g. '{', ':', '"',
+    or 't' for true). The tags are written by the indexers that pass the block to write (InlinedIndexStructuralIndexer)
+    while the block is still in the L1 cache, so that stage 2 can read them sequentially with getTag, instead of
+    loading buffer[index] for every structural, which in random-ish access patterns is a cache miss. The other
+    indexers don't write the tags, so their constructors reject BitIndexes storing them (see requireNoTags).
+ */
 public class BitIndexes {
 
     private final int[] indexes;
+    private final byte[] tags;
 
     private int writeIdx;
     private int readIdx;
 
     public BitIndexes(int capacity) {
+        this(capacity, false);
+    }
+
+    // Called by the constructors of the indexers that don't write the tags.
+    static BitIndexes requireNoTags(BitIndexes bitIndexes) {
+        if (bitIndexes.hasTags()) {
+            throw new IllegalArgumentException("The tags are stored, but the indexer doesn't write them.");
+        }
+        return bitIndexes;
+    }
+
+    public BitIndexes(int capacity, boolean withTags) {
         indexes = new int[capacity];
+        tags = withTags ? new byte[capacity] : null;
+    }
+
+    // Used by subclasses that store the indexes elsewhere (see OffHeapBitIndexes).
+    BitIndexes() {
+        indexes = new int[0];
+        tags = null;
     }
 
     public void write(int blockIndex, long bits) {
@@ -40,6 +69,23 @@ public class BitIndexes {
         writeIdx += cnt;
     }
 
+    // The positions of bits are relative to blockOffset in block, which holds the same bytes as the input at
+    // blockIndex - 64 (it's a copy for the padded last block). Without tags, it's the same as write(blockIndex, bits).
+    public void write(int blockIndex, long bits, byte[] block, int blockOffset) {
+        if (tags == null) {
+            write(blockIndex, bits);
+            return;
+        }
+        int start = writeIdx;
+        write(blockIndex, bits);
+        // The tags are written in a separate loop, because the speculative writes of the unrolled loops above would
+        // load up to 16 bytes per block, whereas blocks contain 5-6 structurals on average.
+        int offset = blockOffset - (blockIndex - 64);
+        for (int i = start; i < writeIdx; i++) {
+            tags[i] = block[offset + indexes[i]];
+        }
+    }
+
     private long clearLowestBit(long bits) {
         return bits & (bits - 1);
     }
@@ -53,10 +99,55 @@ public class BitIndexes {
         return indexes[readIdx++];
     }
 
+    // Returns the tag of the index that will be returned by the next call to getAndAdvance.
+    public byte getTag() {
+        assert readIdx < writeIdx;
+        return tags[readIdx];
+    }
+
+    // Like get, but returns the tag.
+    public byte getTag(int idx) {
+        assert idx < writeIdx;
+        return tags[idx];
+    }
+
+    public boolean hasTags() {
+        return tags != null;
+    }
+
+    // Returns the index at the given position without moving the read position. Unlike getAndAdvance, it can be
+    // called by many threads at once (see BitIndexesCursor), once the indexer has finished.
+    public int get(int idx) {
+        assert idx < writeIdx;
+        return indexes[idx];
+    }
+
+    public BitIndexesCursor cursor(int from, int to) {
+        if (from < 0 || from > to || to > size()) {
+            throw new IllegalArgumentException("Invalid range of indexes: [" + from + ", " + to + "). There are " + size() + " indexes.");
+        }
+        return new BitIndexesCursor(this, from, to);
+    }
+
     public int getLast() {
         return indexes[writeIdx - 1];
     }
 
+    public int size() {
+        return writeIdx;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(indexes, writeIdx);
+    }
+
+    public byte[] tagsToArray() {
+        if (tags == null) {
+            throw new IllegalArgumentException("The tags are not stored.");
+        }
+        return Arrays.copyOf(tags, writeIdx);
+    }
+
     public boolean isEnd() {
         return writeIdx == readIdx;
     }
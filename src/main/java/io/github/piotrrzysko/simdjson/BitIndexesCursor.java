@@ -0,0 +1,48 @@
+package io.github.piotrrzysko.simdjson;
+
+/*
+    A read position over a range of indexes of BitIndexes, independent of the read position of BitIndexes itself.
+    Many cursors can read the same BitIndexes from different threads (e.g. one per element of an array, see
+    ArrayElementSplitter), as long as no indexer writes to it at the same time.
+ */
+public final class BitIndexesCursor {
+
+    private final BitIndexes bitIndexes;
+
+    private int readIdx;
+    private int end;
+
+    BitIndexesCursor(BitIndexes bitIndexes, int from, int to) {
+        this.bitIndexes = bitIndexes;
+        this.readIdx = from;
+        this.end = to;
+    }
+
+    void reset(int from, int to) {
+        readIdx = from;
+        end = to;
+    }
+
+    public void advance() {
+        readIdx++;
+    }
+
+    public int getAndAdvance() {
+        assert readIdx < end;
+        return bitIndexes.get(readIdx++);
+    }
+
+    // Returns the index that will be returned by the next call to getAndAdvance.
+    public int peek() {
+        assert readIdx < end;
+        return bitIndexes.get(readIdx);
+    }
+
+    public boolean isEnd() {
+        return readIdx == end;
+    }
+
+    public int remaining() {
+        return end - readIdx;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
+
+/*
+    The string scanning of the block loop of InlinedIndexStructuralIndexer, shared by the components that run the
+    same loop for other purposes (e.g. JsonMinifier or JsonValidator). The characters classification is shared
+    through CharacterClassifier. The indexer variants keep their own copies, because they are compared with each
+    other by the benchmarks.
+
+    The methods are static and the state carried between blocks (prevEscaped and prevInString) is passed in and
+    returned explicitly, so that it stays in local variables of the loop, just like in the indexers. The masks of a
+    block are computed from two 256-bit chunks, i.e. bit i corresponds to byte i of the block. The methods taking masks
+    don't depend on how the masks are computed, so StringStructuralIndexer uses them with masks of chars.
+ */
+final class BlockScanner {
+
+    private static final byte BACKSLASH = (byte) '\\';
+    private static final byte QUOTE = (byte) '"';
+    private static final byte LAST_CONTROL_CHARACTER = (byte) 0x1F;
+    private static final long EVEN_BITS_MASK = 0x5555555555555555L;
+    private static final long ODD_BITS_MASK = ~EVEN_BITS_MASK;
+
+    private BlockScanner() {
+    }
+
+    static long backslash(ByteVector chunk0, ByteVector chunk1) {
+        return chunk0.eq(BACKSLASH).toLong() | (chunk1.eq(BACKSLASH).toLong() << 32);
+    }
+
+    static long quote(ByteVector chunk0, ByteVector chunk1) {
+        return chunk0.eq(QUOTE).toLong() | (chunk1.eq(QUOTE).toLong() << 32);
+    }
+
+    // Control characters, which have to be escaped within strings.
+    static long unescaped(ByteVector chunk0, ByteVector chunk1) {
+        long unescaped0 = chunk0.compare(UNSIGNED_LE, LAST_CONTROL_CHARACTER).toLong();
+        long unescaped1 = chunk1.compare(UNSIGNED_LE, LAST_CONTROL_CHARACTER).toLong();
+        return unescaped0 | (unescaped1 << 32);
+    }
+
+    // Returns the characters escaped by the backslashes of the block. prevEscaped is 1 if the first character of the
+    // block is escaped by the last backslash of the previous block.
+    static long escaped(long backslash, long prevEscaped) {
+        if (backslash == 0) {
+            return prevEscaped;
+        }
+        backslash &= ~prevEscaped;
+        long followsEscape = backslash << 1 | prevEscaped;
+        long oddSequenceStarts = backslash & ODD_BITS_MASK & ~followsEscape;
+
+        long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+        long invertMask = sequencesStartingOnEvenBits << 1;
+        return (EVEN_BITS_MASK ^ invertMask) & followsEscape;
+    }
+
+    // Returns prevEscaped for the next block. It shares all but the last step with escaped, so when both are inlined
+    // into the same loop, C2 computes the common part once.
+    static long nextEscaped(long backslash, long prevEscaped) {
+        if (backslash == 0) {
+            return 0;
+        }
+        backslash &= ~prevEscaped;
+        long followsEscape = backslash << 1 | prevEscaped;
+        long oddSequenceStarts = backslash & ODD_BITS_MASK & ~followsEscape;
+
+        // Here, we check if the unsigned addition oddSequenceStarts + backslash (see escaped) overflows. If that's the
+        // case, the next block starts with an escaped character.
+        // The formula used to detect overflow was taken from 'Hacker's Delight, Second Edition' by Henry S. Warren, Jr.,
+        // Chapter 2-13.
+        return ((oddSequenceStarts >>> 1) + (backslash >>> 1) + ((oddSequenceStarts & backslash) & 1)) >>> 63;
+    }
+
+    // Returns the bits inside strings (including opening quotes, excluding closing ones) for the unescaped quotes of
+    // the block. prevInString is inString >> 63 of the previous block, i.e. all ones if it ended inside a string.
+    static long inString(long quote, long prevInString) {
+        return prefixXor(quote) ^ prevInString;
+    }
+
+    private static long prefixXor(long bitmask) {
+        bitmask ^= bitmask << 1;
+        bitmask ^= bitmask << 2;
+        bitmask ^= bitmask << 4;
+        bitmask ^= bitmask << 8;
+        bitmask ^= bitmask << 16;
+        bitmask ^= bitmask << 32;
+        return bitmask;
+    }
+}
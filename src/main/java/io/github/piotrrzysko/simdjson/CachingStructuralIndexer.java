@@ -0,0 +1,33 @@
+package io.github.piotrrzysko.simdjson;
+
+/*
+    Puts a StructuralIndexCache in front of InlinedIndexStructuralIndexer. The cache can be shared by many threads,
+    whereas an instance of this class, just like the indexers, must be confined to a single thread.
+
+    On a hit the input is hashed and compared with the cached copy, but it is not indexed. On a miss the hashing
+    is pure overhead on top of indexing (see StructuralIndexCacheBenchmark).
+ */
+public class CachingStructuralIndexer {
+
+    private final StructuralIndexCache cache;
+    private final BitIndexes bitIndexes;
+    private final InlinedIndexStructuralIndexer indexer;
+
+    public CachingStructuralIndexer(StructuralIndexCache cache, BitIndexes bitIndexes) {
+        this.cache = cache;
+        this.bitIndexes = bitIndexes;
+        this.indexer = new InlinedIndexStructuralIndexer(bitIndexes);
+    }
+
+    public StructuralIndex index(byte[] buffer, int length) {
+        long hash = VectorizedHash.hash(buffer, 0, length);
+        StructuralIndex cached = cache.get(buffer, length, hash);
+        if (cached != null) {
+            return cached;
+        }
+        indexer.index(buffer, length);
+        StructuralIndex index = new StructuralIndex(bitIndexes.toArray());
+        cache.put(buffer, length, hash, index);
+        return index;
+    }
+}
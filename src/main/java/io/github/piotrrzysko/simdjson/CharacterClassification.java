@@ -0,0 +1,20 @@
+package io.github.piotrrzysko.simdjson;
+
+/*
+    Strategies of finding whitespace and operators (see CharacterClassifier) that can be chosen when creating
+    ClassifyingStructuralIndexer. All of them produce identical masks, they differ only in the vector instructions
+    they are compiled to, so the best one depends on the CPU and the JDK (see ClassificationBenchmark).
+
+    - REARRANGE: the low nibble of each byte is converted to a VectorShuffle, which selects the expected character
+      from a 16-entry table, and the result is compared with the byte. This is the default.
+    - SELECT_FROM: the same lookup, but with ByteVector::selectFrom instead of an explicit VectorShuffle.
+    - TWO_NIBBLE_TABLES: simdjson's approach. Both nibbles select a set of character classes from their own table, and
+      a byte belongs to the classes present in both sets.
+    - COMPARE_CHAIN: one comparison per character, without any table lookups.
+ */
+public enum CharacterClassification {
+    REARRANGE,
+    SELECT_FROM,
+    TWO_NIBBLE_TABLES,
+    COMPARE_CHAIN
+}
@@ -0,0 +1,166 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorShuffle;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.NE;
+
+/*
+    Computes the whitespace and op masks of a 64-byte block, given as two 256-bit chunks, with one of the
+    CharacterClassification strategies. An instance is owned by a single indexer (or another component running the
+    block loop, see BlockScanner). Components that need only the whitespace mask use the static whitespace method.
+
+    Whitespace is ' ', '\t', '\n' and '\r'. Operators are the bytes whose value with the 0x20 bit set is ':', ',', '{'
+    or '}', i.e. also '[', ']', 0x1A and 0x0C. The last two are not valid outside strings anyway, so treating them as
+    operators is harmless.
+
+    The classification field is a non-static final field, which C2 doesn't treat as a constant, so whichever way the
+    strategy is chosen, it's checked for every block. Branches that have never been taken are compiled into uncommon
+    traps, though, so only the strategy in use is compiled into the indexing loop. The strategy is chosen with if
+    statements comparing references, because a switch on an enum also loads the ordinal and the entry of the
+    synthetic switch map array. Each strategy has its own method, because together they would exceed the bytecode
+    size limit of hot methods inlined by C2 (FreqInlineSize), and classify wouldn't be inlined.
+ */
+final class CharacterClassifier {
+
+    private static final byte LOW_NIBBLE_MASK = 0x0f;
+    private static final ByteVector WHITESPACE_TABLE = repeat(
+            new byte[]{' ', 100, 100, 100, 17, 100, 113, 2, 100, '\t', '\n', 112, 100, '\r', 100, 100}
+    );
+    private static final ByteVector OP_TABLE = repeat(
+            new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, ':', '{', ',', '}', 0, 0}
+    );
+
+    // The character classes of TWO_NIBBLE_TABLES. A byte belongs to a class if the class is present in the entry of
+    // the low-nibble table for its low nibble and in the entry of the high-nibble table for its high nibble, so each
+    // class has to be a cartesian product of low and high nibbles.
+    private static final byte SPACE = 1;             // 0x20
+    private static final byte TAB_OR_LINE_BREAK = 2; // 0x09, 0x0A, 0x0D
+    private static final byte COLON = 4;             // 0x1A, 0x3A
+    private static final byte COMMA = 8;             // 0x0C, 0x2C
+    private static final byte BRACKET = 16;          // 0x5B, 0x5D, 0x7B, 0x7D
+    private static final byte WHITESPACE_CLASSES = SPACE | TAB_OR_LINE_BREAK;
+    private static final byte OP_CLASSES = COLON | COMMA | BRACKET;
+    private static final ByteVector LOW_NIBBLE_TABLE = repeat(new byte[]{
+            SPACE, 0, 0, 0, 0, 0, 0, 0,
+            0, TAB_OR_LINE_BREAK, TAB_OR_LINE_BREAK | COLON, BRACKET, COMMA, TAB_OR_LINE_BREAK | BRACKET, 0, 0
+    });
+    private static final ByteVector HIGH_NIBBLE_TABLE = repeat(new byte[]{
+            TAB_OR_LINE_BREAK | COMMA, COLON, SPACE | COMMA, COLON, 0, BRACKET, 0, BRACKET,
+            0, 0, 0, 0, 0, 0, 0, 0
+    });
+
+    private final CharacterClassification classification;
+
+    // The masks computed by the last call to classify. They are returned through fields, because whitespace and op
+    // share the lookup of the low nibbles, which C2 doesn't deduplicate across separate methods.
+    long whitespace;
+    long op;
+
+    CharacterClassifier(CharacterClassification classification) {
+        this.classification = classification;
+    }
+
+    void classify(ByteVector chunk0, ByteVector chunk1) {
+        if (classification == CharacterClassification.REARRANGE) {
+            rearrange(chunk0, chunk1);
+        } else if (classification == CharacterClassification.SELECT_FROM) {
+            selectFrom(chunk0, chunk1);
+        } else if (classification == CharacterClassification.TWO_NIBBLE_TABLES) {
+            twoNibbleTables(chunk0, chunk1);
+        } else {
+            compareChain(chunk0, chunk1);
+        }
+    }
+
+    // The whitespace mask of the REARRANGE strategy.
+    static long whitespace(ByteVector chunk0, ByteVector chunk1) {
+        long whitespace0 = chunk0.eq(WHITESPACE_TABLE.rearrange(chunk0.and(LOW_NIBBLE_MASK).toShuffle())).toLong();
+        long whitespace1 = chunk1.eq(WHITESPACE_TABLE.rearrange(chunk1.and(LOW_NIBBLE_MASK).toShuffle())).toLong();
+        return whitespace0 | (whitespace1 << 32);
+    }
+
+    private void rearrange(ByteVector chunk0, ByteVector chunk1) {
+        VectorShuffle<Byte> chunk0Low = chunk0.and(LOW_NIBBLE_MASK).toShuffle();
+        VectorShuffle<Byte> chunk1Low = chunk1.and(LOW_NIBBLE_MASK).toShuffle();
+
+        long whitespace0 = chunk0.eq(WHITESPACE_TABLE.rearrange(chunk0Low)).toLong();
+        long whitespace1 = chunk1.eq(WHITESPACE_TABLE.rearrange(chunk1Low)).toLong();
+        whitespace = whitespace0 | (whitespace1 << 32);
+
+        long op0 = chunk0.or((byte) 0x20).eq(OP_TABLE.rearrange(chunk0Low)).toLong();
+        long op1 = chunk1.or((byte) 0x20).eq(OP_TABLE.rearrange(chunk1Low)).toLong();
+        op = op0 | (op1 << 32);
+    }
+
+    private void selectFrom(ByteVector chunk0, ByteVector chunk1) {
+        ByteVector chunk0Low = chunk0.and(LOW_NIBBLE_MASK);
+        ByteVector chunk1Low = chunk1.and(LOW_NIBBLE_MASK);
+
+        long whitespace0 = chunk0.eq(chunk0Low.selectFrom(WHITESPACE_TABLE)).toLong();
+        long whitespace1 = chunk1.eq(chunk1Low.selectFrom(WHITESPACE_TABLE)).toLong();
+        whitespace = whitespace0 | (whitespace1 << 32);
+
+        long op0 = chunk0.or((byte) 0x20).eq(chunk0Low.selectFrom(OP_TABLE)).toLong();
+        long op1 = chunk1.or((byte) 0x20).eq(chunk1Low.selectFrom(OP_TABLE)).toLong();
+        op = op0 | (op1 << 32);
+    }
+
+    private void twoNibbleTables(ByteVector chunk0, ByteVector chunk1) {
+        ByteVector classes0 = classes(chunk0);
+        ByteVector classes1 = classes(chunk1);
+
+        long whitespace0 = classes0.and(WHITESPACE_CLASSES).compare(NE, 0).toLong();
+        long whitespace1 = classes1.and(WHITESPACE_CLASSES).compare(NE, 0).toLong();
+        whitespace = whitespace0 | (whitespace1 << 32);
+
+        long op0 = classes0.and(OP_CLASSES).compare(NE, 0).toLong();
+        long op1 = classes1.and(OP_CLASSES).compare(NE, 0).toLong();
+        op = op0 | (op1 << 32);
+    }
+
+    private void compareChain(ByteVector chunk0, ByteVector chunk1) {
+        long whitespace0 = chunk0.eq((byte) ' ')
+                .or(chunk0.eq((byte) '\t'))
+                .or(chunk0.eq((byte) '\n'))
+                .or(chunk0.eq((byte) '\r'))
+                .toLong();
+        long whitespace1 = chunk1.eq((byte) ' ')
+                .or(chunk1.eq((byte) '\t'))
+                .or(chunk1.eq((byte) '\n'))
+                .or(chunk1.eq((byte) '\r'))
+                .toLong();
+        whitespace = whitespace0 | (whitespace1 << 32);
+
+        ByteVector curlified0 = chunk0.or((byte) 0x20);
+        ByteVector curlified1 = chunk1.or((byte) 0x20);
+        long op0 = curlified0.eq((byte) ':')
+                .or(curlified0.eq((byte) ','))
+                .or(curlified0.eq((byte) '{'))
+                .or(curlified0.eq((byte) '}'))
+                .toLong();
+        long op1 = curlified1.eq((byte) ':')
+                .or(curlified1.eq((byte) ','))
+                .or(curlified1.eq((byte) '{'))
+                .or(curlified1.eq((byte) '}'))
+                .toLong();
+        op = op0 | (op1 << 32);
+    }
+
+    private static ByteVector classes(ByteVector chunk) {
+        ByteVector low = LOW_NIBBLE_TABLE.rearrange(chunk.and(LOW_NIBBLE_MASK).toShuffle());
+        ByteVector high = HIGH_NIBBLE_TABLE.rearrange(chunk.lanewise(LSHR, 4).and(LOW_NIBBLE_MASK).toShuffle());
+        return low.and(high);
+    }
+
+    private static ByteVector repeat(byte[] array) {
+        int n = SPECIES_256.vectorByteSize() / 4;
+        byte[] result = new byte[n * array.length];
+        for (int dst = 0; dst < result.length; dst += array.length) {
+            System.arraycopy(array, 0, result, dst, array.length);
+        }
+        return ByteVector.fromArray(SPECIES_256, result, 0);
+    }
+}
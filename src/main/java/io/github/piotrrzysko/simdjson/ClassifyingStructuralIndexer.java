@@ -0,0 +1,169 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import java.util.Arrays;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.ByteVector.SPECIES_512;
+import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
+
+/*
+    This is a modified version of io.github.piotrrzysko.simdjson.InlinedIndexStructuralIndexer, in which the
+    characters classification strategy can be chosen with CharacterClassification (see CharacterClassifier).
+    Optionally, the indexer also counts line feeds to build a LineIndex. Like InlinedIndexStructuralIndexer, it writes
+    the tags if the BitIndexes store them.
+
+    The last, padded block is processed by the last iteration of the loop, instead of a copy of the loop body placed
+    after it like in InlinedIndexStructuralIndexer. With the copy, the index method exceeds the node count up to which
+    C2 inlines (NodeCountInliningCutoff), so CharacterClassifier::classify is not inlined into the copy, and the
+    vectors passed to it are allocated on every call.
+ */
+public class ClassifyingStructuralIndexer implements StructuralIndexer {
+
+    private static final int STEP_SIZE = 64;
+    private static final byte BACKSLASH = (byte) '\\';
+    private static final byte QUOTE = (byte) '"';
+    private static final byte LINE_FEED = (byte) '\n';
+    private static final byte SPACE = 0x20;
+    private static final byte LAST_CONTROL_CHARACTER = (byte) 0x1F;
+    private static final long EVEN_BITS_MASK = 0x5555555555555555L;
+    private static final long ODD_BITS_MASK = ~EVEN_BITS_MASK;
+    private static final byte[] LAST_BLOCK_SPACES = new byte[STEP_SIZE];
+
+    static {
+        Arrays.fill(LAST_BLOCK_SPACES, SPACE);
+    }
+
+    private final BitIndexes bitIndexes;
+    private final CharacterClassifier classifier;
+    private final LineIndex lineIndex;
+    private final byte[] lastBlock = new byte[STEP_SIZE];
+
+    public ClassifyingStructuralIndexer(BitIndexes bitIndexes) {
+        this(bitIndexes, CharacterClassification.REARRANGE);
+    }
+
+    public ClassifyingStructuralIndexer(BitIndexes bitIndexes, CharacterClassification classification) {
+        this(bitIndexes, classification, null);
+    }
+
+    // lineIndex is optional. If it's not null, it's filled while indexing (see LineIndex).
+    public ClassifyingStructuralIndexer(BitIndexes bitIndexes, CharacterClassification classification, LineIndex lineIndex) {
+        this.bitIndexes = bitIndexes;
+        this.classifier = new CharacterClassifier(classification);
+        this.lineIndex = lineIndex;
+    }
+
+    @Override
+    public void index(byte[] buffer, int length) {
+        bitIndexes.reset();
+        if (lineIndex != null) {
+            lineIndex.reset();
+        }
+
+        long prevInString = 0;
+        long prevEscaped = 0;
+        long prevStructurals = 0;
+        long unescapedCharsError = 0;
+        long prevScalar = 0;
+
+        // Using SPECIES_512 here is not a mistake. Each iteration of the below loop processes two 256-bit chunks,
+        // so effectively it processes 512 bits at once.
+        int loopBound = SPECIES_512.loopBound(length);
+        int blockIndex = 0;
+        // The last iteration processes the remainder padded with spaces.
+        for (int offset = 0; offset <= loopBound; offset += STEP_SIZE) {
+            byte[] block = buffer;
+            int blockOffset = offset;
+            if (offset == loopBound) {
+                block = remainder(buffer, length, offset);
+                blockOffset = 0;
+            }
+            ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, block, blockOffset);
+            ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, block, blockOffset + 32);
+
+            // string scanning
+            long backslash0 = chunk0.eq(BACKSLASH).toLong();
+            long backslash1 = chunk1.eq(BACKSLASH).toLong();
+            long backslash = backslash0 | (backslash1 << 32);
+
+            long escaped;
+            if (backslash == 0) {
+                escaped = prevEscaped;
+                prevEscaped = 0;
+            } else {
+                backslash &= ~prevEscaped;
+                long followsEscape = backslash << 1 | prevEscaped;
+                long oddSequenceStarts = backslash & ODD_BITS_MASK & ~followsEscape;
+
+                long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+                // Here, we check if the unsigned addition above caused an overflow. If that's the case, we store 1 in prevEscaped.
+                // The formula used to detect overflow was taken from 'Hacker's Delight, Second Edition' by Henry S. Warren, Jr.,
+                // Chapter 2-13.
+                prevEscaped = ((oddSequenceStarts >>> 1) + (backslash >>> 1) + ((oddSequenceStarts & backslash) & 1)) >>> 63;
+
+                long invertMask = sequencesStartingOnEvenBits << 1;
+                escaped = (EVEN_BITS_MASK ^ invertMask) & followsEscape;
+            }
+
+            long unescaped0 = chunk0.compare(UNSIGNED_LE, LAST_CONTROL_CHARACTER).toLong();
+            long unescaped1 = chunk1.compare(UNSIGNED_LE, LAST_CONTROL_CHARACTER).toLong();
+            long unescaped = unescaped0 | (unescaped1 << 32);
+
+            long quote0 = chunk0.eq(QUOTE).toLong();
+            long quote1 = chunk1.eq(QUOTE).toLong();
+            long quote = (quote0 | (quote1 << 32)) & ~escaped;
+
+            long inString = prefixXor(quote) ^ prevInString;
+            prevInString = inString >> 63;
+
+            // characters classification
+            classifier.classify(chunk0, chunk1);
+            long whitespace = classifier.whitespace;
+            long op = classifier.op;
+
+            if (lineIndex != null) {
+                lineIndex.add(chunk0.eq(LINE_FEED).toLong() | (chunk1.eq(LINE_FEED).toLong() << 32));
+            }
+
+            // finish
+            long scalar = ~(op | whitespace);
+            long nonQuoteScalar = scalar & ~quote;
+            long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+            prevScalar = nonQuoteScalar >>> 63;
+            long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+            long potentialStructuralStart = op | potentialScalarStart;
+            // prevStructurals refer to the previous block, which is never the padded one.
+            bitIndexes.write(blockIndex, prevStructurals, buffer, blockIndex - STEP_SIZE);
+            blockIndex += STEP_SIZE;
+            prevStructurals = potentialStructuralStart & ~(inString ^ quote);
+            unescapedCharsError |= unescaped & inString;
+        }
+
+        bitIndexes.write(blockIndex, prevStructurals, lastBlock, 0);
+        bitIndexes.finish();
+        if (prevInString != 0) {
+            throw new IllegalArgumentException("Unclosed string. A string is opened, but never closed.");
+        }
+        if (unescapedCharsError != 0) {
+            throw new IllegalArgumentException("Unescaped characters. Within strings, there are characters that should be escaped.");
+        }
+    }
+
+    private static long prefixXor(long bitmask) {
+        bitmask ^= bitmask << 1;
+        bitmask ^= bitmask << 2;
+        bitmask ^= bitmask << 4;
+        bitmask ^= bitmask << 8;
+        bitmask ^= bitmask << 16;
+        bitmask ^= bitmask << 32;
+        return bitmask;
+    }
+
+    private byte[] remainder(byte[] buffer, int length, int idx) {
+        System.arraycopy(LAST_BLOCK_SPACES, 0, lastBlock, 0, lastBlock.length);
+        System.arraycopy(buffer, idx, lastBlock, 0, length - idx);
+        return lastBlock;
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.ByteVector.SPECIES_512;
+
+/*
+    Finds field and record boundaries in CSV (RFC 4180) or TSV input and writes their positions to BitIndexes.
+    A boundary is a delimiter or a line feed outside a quoted field, so the byte at the written position tells whether
+    it ends a field or a record. For CRLF line endings, the position of the line feed is written, and the carriage
+    return is left at the end of the last field of the record.
+
+    The block loop follows InlinedIndexStructuralIndexer, but it's simpler in two ways:
+
+    - An escaped quote in RFC 4180 is a doubled quote, which toggles the quoted state twice, so it doesn't need
+      special handling: the prefix XOR of all quotes is already the in-quotes mask. There is no escape computation.
+    - There are only three characters to find, and they are configurable, so they are compared directly instead of
+      being looked up in nibble tables.
+
+    The bits beyond the length of the input are masked out in the last block, so it doesn't matter what the padding
+    is, and any byte (including a space) can be the delimiter.
+
+    Like the JSON indexers, the CSV indexer does not validate the input (e.g. a quote in the middle of an unquoted
+    field is treated as the start of a quoted section). The only reported error is an unclosed quote.
+ */
+public class CsvIndexer {
+
+    private static final int STEP_SIZE = 64;
+    private static final byte LINE_FEED = (byte) '\n';
+
+    private final BitIndexes bitIndexes;
+    private final byte delimiter;
+    private final byte quote;
+    private final byte[] lastBlock = new byte[STEP_SIZE];
+
+    public CsvIndexer(BitIndexes bitIndexes, byte delimiter, byte quote) {
+        if (delimiter == quote || delimiter == LINE_FEED || quote == LINE_FEED) {
+            throw new IllegalArgumentException("The delimiter, the quote and the line feed have to be distinct.");
+        }
+        this.bitIndexes = BitIndexes.requireNoTags(bitIndexes);
+        this.delimiter = delimiter;
+        this.quote = quote;
+    }
+
+    public static CsvIndexer csv(BitIndexes bitIndexes) {
+        return new CsvIndexer(bitIndexes, (byte) ',', (byte) '"');
+    }
+
+    public static CsvIndexer tsv(BitIndexes bitIndexes) {
+        return new CsvIndexer(bitIndexes, (byte) '\t', (byte) '"');
+    }
+
+    public void index(byte[] buffer, int length) {
+        bitIndexes.reset();
+
+        long prevInQuotes = 0;
+
+        // Using SPECIES_512 here is not a mistake. Each iteration of the below loop processes two 256-bit chunks,
+        // so effectively it processes 512 bits at once.
+        int loopBound = SPECIES_512.loopBound(length);
+        for (int offset = 0; offset <= loopBound; offset += STEP_SIZE) {
+            byte[] block = buffer;
+            int blockOffset = offset;
+            long valid = -1L;
+            if (offset == loopBound) {
+                int remaining = length - offset;
+                if (remaining == 0) {
+                    break;
+                }
+                System.arraycopy(buffer, offset, lastBlock, 0, remaining);
+                block = lastBlock;
+                blockOffset = 0;
+                valid = (1L << remaining) - 1;
+            }
+            ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, block, blockOffset);
+            ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, block, blockOffset + 32);
+
+            long quote0 = chunk0.eq(quote).toLong();
+            long quote1 = chunk1.eq(quote).toLong();
+            long quotes = (quote0 | (quote1 << 32)) & valid;
+
+            long inQuotes = prefixXor(quotes) ^ prevInQuotes;
+            prevInQuotes = inQuotes >> 63;
+
+            long delimiter0 = chunk0.eq(delimiter).or(chunk0.eq(LINE_FEED)).toLong();
+            long delimiter1 = chunk1.eq(delimiter).or(chunk1.eq(LINE_FEED)).toLong();
+            long boundaries = (delimiter0 | (delimiter1 << 32)) & ~inQuotes & valid;
+
+            bitIndexes.write(offset + STEP_SIZE, boundaries);
+        }
+        bitIndexes.finish();
+        if (prevInQuotes != 0) {
+            throw new IllegalArgumentException("Unclosed quoted field. A quoted field is opened, but never closed.");
+        }
+    }
+
+    private static long prefixXor(long bitmask) {
+        bitmask ^= bitmask << 1;
+        bitmask ^= bitmask << 2;
+        bitmask ^= bitmask << 4;
+        bitmask ^= bitmask << 8;
+        bitmask ^= bitmask << 16;
+        bitmask ^= bitmask << 32;
+        return bitmask;
+    }
+}
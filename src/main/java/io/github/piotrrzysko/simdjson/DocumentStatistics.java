@@ -0,0 +1,22 @@
+package io.github.piotrrzysko.simdjson;
+
+/*
+    Aggregates computed by DocumentStatisticsCollector. values is the number of all JSON values (including nested
+    containers and the top-level value), keys is the number of object keys (they are not counted as strings), and
+    topLevelArrayLength is -1 if the top-level value is not an array.
+ */
+public record DocumentStatistics(
+        int inputSize,
+        int structurals,
+        int values,
+        int strings,
+        int keys,
+        int containers,
+        int maxDepth,
+        int topLevelArrayLength
+) {
+
+    public double structuralDensity() {
+        return inputSize == 0 ? 0 : (double) structurals / inputSize;
+    }
+}
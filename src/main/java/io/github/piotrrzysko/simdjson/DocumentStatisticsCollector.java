@@ -0,0 +1,171 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import java.util.Arrays;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.ByteVector.SPECIES_512;
+
+/*
+    Summarizes a document without materializing its structural indexes.
+
+    The block loop is the same as in InlinedIndexStructuralIndexer (the string scanning is shared through BlockScanner),
+    but instead of writing structurals to BitIndexes, the masks are reduced with Long::bitCount: opening quotes give
+    strings, colons give keys, opening brackets give containers and scalar starts outside strings give numbers and
+    literals. The depth is tracked per block. Only when a block contains brackets that can raise the maximum depth or
+    reach the top level, they are visited one by one to find the maximum depth and to attribute commas to the top-level
+    array.
+
+    Like the indexers, the collector does not validate the document, so for malformed input the statistics are
+    meaningless (but the same errors are reported: unclosed strings and unescaped characters).
+ */
+public class DocumentStatisticsCollector {
+
+    private static final int STEP_SIZE = 64;
+    private static final byte SPACE = 0x20;
+    private static final byte[] LAST_BLOCK_SPACES = new byte[STEP_SIZE];
+
+    static {
+        Arrays.fill(LAST_BLOCK_SPACES, SPACE);
+    }
+
+    private final byte[] lastBlock = new byte[STEP_SIZE];
+
+    public DocumentStatistics collect(byte[] buffer, int length) {
+        long prevInString = 0;
+        long prevEscaped = 0;
+        long unescapedCharsError = 0;
+        long prevScalar = 0;
+
+        int structurals = 0;
+        int openingQuotes = 0;
+        int keys = 0;
+        int containers = 0;
+        int primitives = 0;
+        int depth = 0;
+        int maxDepth = 0;
+        int topLevelCommas = 0;
+        int firstStructural = -1;
+
+        // Using SPECIES_512 here is not a mistake. Each iteration of the below loop processes two 256-bit chunks,
+        // so effectively it processes 512 bits at once.
+        int loopBound = SPECIES_512.loopBound(length);
+        for (int offset = 0; offset <= loopBound; offset += STEP_SIZE) {
+            byte[] block = buffer;
+            int blockOffset = offset;
+            if (offset == loopBound) {
+                block = remainder(buffer, length, offset);
+                blockOffset = 0;
+            }
+            ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, block, blockOffset);
+            ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, block, blockOffset + 32);
+
+            // string scanning
+            long backslash = BlockScanner.backslash(chunk0, chunk1);
+            long escaped = BlockScanner.escaped(backslash, prevEscaped);
+            prevEscaped = BlockScanner.nextEscaped(backslash, prevEscaped);
+
+            long unescaped = BlockScanner.unescaped(chunk0, chunk1);
+            long quote = BlockScanner.quote(chunk0, chunk1) & ~escaped;
+
+            long inString = BlockScanner.inString(quote, prevInString);
+            prevInString = inString >> 63;
+
+            // characters classification
+            long whitespace = CharacterClassifier.whitespace(chunk0, chunk1);
+
+            // The operators are classified one by one, because each of them is counted separately anyway.
+            ByteVector curlified0 = chunk0.or((byte) 0x20);
+            ByteVector curlified1 = chunk1.or((byte) 0x20);
+            long opens = curlified0.eq((byte) '{').toLong() | (curlified1.eq((byte) '{').toLong() << 32);
+            long closes = curlified0.eq((byte) '}').toLong() | (curlified1.eq((byte) '}').toLong() << 32);
+            long colons = chunk0.eq((byte) ':').toLong() | (chunk1.eq((byte) ':').toLong() << 32);
+            long commas = chunk0.eq((byte) ',').toLong() | (chunk1.eq((byte) ',').toLong() << 32);
+            long op = opens | closes | colons | commas;
+
+            // finish
+            long scalar = ~(op | whitespace);
+            long nonQuoteScalar = scalar & ~quote;
+            long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+            prevScalar = nonQuoteScalar >>> 63;
+            long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+            long potentialStructuralStart = op | potentialScalarStart;
+            long blockStructurals = potentialStructuralStart & ~(inString ^ quote);
+            unescapedCharsError |= unescaped & inString;
+
+            // statistics
+            long outsideStrings = ~inString;
+            opens &= outsideStrings;
+            closes &= outsideStrings;
+            commas &= outsideStrings;
+
+            structurals += Long.bitCount(blockStructurals);
+            openingQuotes += Long.bitCount(quote & inString);
+            keys += Long.bitCount(colons & outsideStrings);
+            primitives += Long.bitCount(potentialScalarStart & ~quote & outsideStrings);
+            if (firstStructural < 0 && blockStructurals != 0) {
+                firstStructural = block[blockOffset + Long.numberOfTrailingZeros(blockStructurals)] & 0xFF;
+            }
+
+            long brackets = opens | closes;
+            int openCount = Long.bitCount(opens);
+            int closeCount = Long.bitCount(closes);
+            containers += openCount;
+            if (brackets == 0) {
+                if (depth == 1) {
+                    topLevelCommas += Long.bitCount(commas);
+                }
+            } else if (depth - closeCount > 1 && (closeCount == 0 || depth + openCount <= maxDepth)) {
+                // The block cannot reach the top level, and it either cannot go deeper than the current maximum, or it
+                // only goes deeper, so the order of brackets doesn't matter.
+                depth += openCount - closeCount;
+                maxDepth = Math.max(maxDepth, depth);
+            } else {
+                long visited = 0;
+                while (brackets != 0) {
+                    long bracket = brackets & -brackets;
+                    if (depth == 1) {
+                        topLevelCommas += Long.bitCount(commas & (bracket - 1) & ~visited);
+                    }
+                    depth += (opens & bracket) != 0 ? 1 : -1;
+                    maxDepth = Math.max(maxDepth, depth);
+                    visited = (bracket << 1) - 1;
+                    brackets ^= bracket;
+                }
+                if (depth == 1) {
+                    topLevelCommas += Long.bitCount(commas & ~visited);
+                }
+            }
+        }
+
+        if (prevInString != 0) {
+            throw new IllegalArgumentException("Unclosed string. A string is opened, but never closed.");
+        }
+        if (unescapedCharsError != 0) {
+            throw new IllegalArgumentException("Unescaped characters. Within strings, there are characters that should be escaped.");
+        }
+
+        int topLevelArrayLength = -1;
+        if (firstStructural == '[') {
+            // An empty array consists of its brackets only.
+            topLevelArrayLength = structurals == 2 ? 0 : topLevelCommas + 1;
+        }
+        return new DocumentStatistics(
+                length,
+                structurals,
+                openingQuotes + primitives + containers - keys,
+                openingQuotes - keys,
+                keys,
+                containers,
+                maxDepth,
+                topLevelArrayLength
+        );
+    }
+
+    private byte[] remainder(byte[] buffer, int length, int idx) {
+        System.arraycopy(LAST_BLOCK_SPACES, 0, lastBlock, 0, lastBlock.length);
+        System.arraycopy(buffer, idx, lastBlock, 0, length - idx);
+        return lastBlock;
+    }
+}
@@ -0,0 +1,285 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+
+/*
+    Keeps the structural index of a large document up to date when small parts of the document are edited.
+
+    The state carried between blocks by the indexers is only three bits: whether the previous block ended inside
+    a string, whether its last backslash escapes the next character, and whether it ended with a scalar. Therefore,
+    the document is divided into segments of about SEGMENT_SIZE bytes, and each segment stores these bits as its
+    carry-in, and the positions of its structurals relative to its start. After an edit, reindex() scans again only
+    from the start of the segment containing the edit, and stops at the first segment after the edit whose carry-in
+    is the same as the carry computed by the scan. From there on, the bytes are the same as before (just shifted),
+    so the structurals are the same as well, and only the starts of the following segments are shifted. The cost of
+    an edit is therefore proportional to the size of the segment (and to the number of segments, because of the
+    shifting), not to the size of the document.
+
+    The carries converge in the next segment, unless the edit changes the parity of quotes (e.g. it inserts an
+    unmatched quote), in which case the rest of the document has to be scanned again.
+
+    Segments are scanned with the block loop of InlinedIndexStructuralIndexer (shared through BlockScanner and
+    CharacterClassifier), so the positions are exactly the same as produced by the indexers. A segment can end in the
+    middle of a block (after an edit, its length is arbitrary), so the carries are taken from the bit corresponding to
+    the last byte of the segment instead of bit 63.
+
+    The same errors as in the indexers are reported. If indexing or reindexing fails, the previous index is kept.
+ */
+public class IncrementalStructuralIndexer {
+
+    static final int SEGMENT_SIZE = 4 * 1024;
+
+    private static final int STEP_SIZE = 64;
+    private static final byte SPACE = 0x20;
+    private static final byte[] LAST_BLOCK_SPACES = new byte[STEP_SIZE];
+
+    // The bits of a carry.
+    private static final int IN_STRING = 1;
+    private static final int ESCAPED = 2;
+    private static final int SCALAR = 4;
+
+    static {
+        Arrays.fill(LAST_BLOCK_SPACES, SPACE);
+    }
+
+    private final CharacterClassifier classifier = new CharacterClassifier(CharacterClassification.REARRANGE);
+    private final byte[] lastBlock = new byte[STEP_SIZE];
+
+    private List<Segment> segments = new ArrayList<>();
+    private int documentLength;
+    private int size;
+
+    // The carry at the end of the segment scanned by the last call to scan.
+    private int carryOut;
+
+    public void index(byte[] buffer, int length) {
+        List<Segment> scanned = new ArrayList<>();
+        int carry = scanRange(buffer, 0, length, 0, scanned);
+        validate(carry, scanned);
+
+        segments = scanned;
+        documentLength = length;
+        size = countStructurals(scanned);
+    }
+
+    // The buffer has to contain the document after the edit, which replaced removedLength bytes starting at offset
+    // with insertedLength bytes.
+    public void reindex(byte[] buffer, int length, int offset, int removedLength, int insertedLength) {
+        int delta = insertedLength - removedLength;
+        if (offset < 0 || removedLength < 0 || insertedLength < 0 || offset + removedLength > documentLength
+                || length != documentLength + delta) {
+            throw new IllegalArgumentException("The edit doesn't match the indexed document.");
+        }
+        if (segments.isEmpty()) {
+            index(buffer, length);
+            return;
+        }
+
+        int first = segmentContaining(offset);
+        int removedEnd = offset + removedLength;
+        // The first segment that starts at or after the end of the edit. Its bytes are the same as before the edit.
+        int next = first;
+        while (next < segments.size() && segments.get(next).start < removedEnd) {
+            next++;
+        }
+        if (next == first && insertedLength == 0) {
+            return;
+        }
+
+        List<Segment> scanned = new ArrayList<>();
+        int scannedEnd = next < segments.size() ? segments.get(next).start + delta : length;
+        int carry = scanRange(buffer, segments.get(first).start, scannedEnd, segments.get(first).carryIn, scanned);
+        while (next < segments.size() && segments.get(next).carryIn != carry) {
+            Segment old = segments.get(next);
+            Segment segment = scan(buffer, old.start + delta, old.length, carry);
+            scanned.add(segment);
+            carry = carryOut;
+            next++;
+        }
+        if (next == segments.size()) {
+            validate(carry, scanned);
+        } else {
+            validate(0, scanned);
+        }
+
+        List<Segment> replaced = segments.subList(first, next);
+        size -= countStructurals(replaced);
+        replaced.clear();
+        segments.addAll(first, scanned);
+        size += countStructurals(scanned);
+        for (int i = first + scanned.size(); i < segments.size(); i++) {
+            segments.get(i).start += delta;
+        }
+        documentLength = length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int idx = 0;
+        for (Segment segment : segments) {
+            for (int i = 0; i < segment.count; i++) {
+                result[idx++] = segment.start + segment.positions[i];
+            }
+        }
+        return result;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    private int segmentContaining(int offset) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).start <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void validate(int carry, List<Segment> scanned) {
+        if ((carry & IN_STRING) != 0) {
+            throw new IllegalArgumentException("Unclosed string. A string is opened, but never closed.");
+        }
+        for (Segment segment : scanned) {
+            if (segment.unescapedCharsError) {
+                throw new IllegalArgumentException("Unescaped characters. Within strings, there are characters that should be escaped.");
+            }
+        }
+    }
+
+    // Splits the range into segments of equal length (rounded up to whole blocks), so that edits don't leave behind
+    // tiny segments.
+    private int scanRange(byte[] buffer, int from, int to, int carry, List<Segment> scanned) {
+        int length = to - from;
+        int segmentCount = (length + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        if (segmentCount == 0) {
+            return carry;
+        }
+        int segmentLength = ((length + segmentCount - 1) / segmentCount + STEP_SIZE - 1) / STEP_SIZE * STEP_SIZE;
+        for (int start = from; start < to; start += segmentLength) {
+            scanned.add(scan(buffer, start, Math.min(segmentLength, to - start), carry));
+            carry = carryOut;
+        }
+        return carry;
+    }
+
+    private Segment scan(byte[] buffer, int start, int length, int carryIn) {
+        Segment segment = new Segment(start, length, carryIn);
+
+        long prevInString = (carryIn & IN_STRING) != 0 ? -1 : 0;
+        long prevEscaped = (carryIn & ESCAPED) != 0 ? 1 : 0;
+        long prevScalar = (carryIn & SCALAR) != 0 ? 1 : 0;
+        long unescapedChars = 0;
+
+        int end = start + length;
+        for (int offset = start; offset < end; offset += STEP_SIZE) {
+            int n = Math.min(STEP_SIZE, end - offset);
+            byte[] block = buffer;
+            int blockOffset = offset;
+            if (n < STEP_SIZE || offset + STEP_SIZE > buffer.length) {
+                System.arraycopy(LAST_BLOCK_SPACES, 0, lastBlock, 0, lastBlock.length);
+                System.arraycopy(buffer, offset, lastBlock, 0, n);
+                block = lastBlock;
+                blockOffset = 0;
+            }
+            ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, block, blockOffset);
+            ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, block, blockOffset + 32);
+
+            // string scanning
+            long backslash = BlockScanner.backslash(chunk0, chunk1);
+            long escaped = BlockScanner.escaped(backslash, prevEscaped);
+            long nextEscaped = BlockScanner.nextEscaped(backslash, prevEscaped);
+
+            long unescaped = BlockScanner.unescaped(chunk0, chunk1);
+            long quote = BlockScanner.quote(chunk0, chunk1) & ~escaped;
+
+            long inString = BlockScanner.inString(quote, prevInString);
+
+            // characters classification
+            classifier.classify(chunk0, chunk1);
+            long whitespace = classifier.whitespace;
+            long op = classifier.op;
+
+            // finish
+            long scalar = ~(op | whitespace);
+            long nonQuoteScalar = scalar & ~quote;
+            long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+            long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+            long potentialStructuralStart = op | potentialScalarStart;
+            long structurals = potentialStructuralStart & ~(inString ^ quote);
+
+            if (n == STEP_SIZE) {
+                prevInString = inString >> 63;
+                prevEscaped = nextEscaped;
+                prevScalar = nonQuoteScalar >>> 63;
+                unescapedChars |= unescaped & inString;
+            } else {
+                // The block is padded with spaces, so the carries are taken from the last byte of the segment, and in
+                // the case of escaping, from the first byte of the padding.
+                long valid = (1L << n) - 1;
+                structurals &= valid;
+                unescapedChars |= unescaped & inString & valid;
+                prevInString = -((inString >>> (n - 1)) & 1);
+                prevEscaped = (escaped >>> n) & 1;
+                prevScalar = (nonQuoteScalar >>> (n - 1)) & 1;
+            }
+            segment.write(offset - start, structurals);
+        }
+
+        carryOut = (prevInString != 0 ? IN_STRING : 0) | (prevEscaped != 0 ? ESCAPED : 0) | (prevScalar != 0 ? SCALAR : 0);
+        segment.unescapedCharsError = unescapedChars != 0;
+        return segment;
+    }
+
+    private static int countStructurals(List<Segment> segments) {
+        int count = 0;
+        for (Segment segment : segments) {
+            count += segment.count;
+        }
+        return count;
+    }
+
+    private static class Segment {
+
+        private final int length;
+        private final int carryIn;
+
+        private int start;
+        private int[] positions = new int[64];
+        private int count;
+        private boolean unescapedCharsError;
+
+        Segment(int start, int length, int carryIn) {
+            this.start = start;
+            this.length = length;
+            this.carryIn = carryIn;
+        }
+
+        void write(int blockOffset, long bits) {
+            int cnt = Long.bitCount(bits);
+            if (count + cnt > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, count + cnt));
+            }
+            while (bits != 0) {
+                positions[count++] = blockOffset + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/*
+    Committed by InstrumentedStructuralIndexer for every index() call. The event is disabled by default, so it has to
+    be enabled explicitly, e.g.:
+
+    -XX:StartFlightRecording:io.github.piotrrzysko.simdjson.Indexing#enabled=true,filename=indexing.jfr
+
+    Stack traces are not recorded, because all events would have almost the same one.
+ */
+@Name("io.github.piotrrzysko.simdjson.Indexing")
+@Label("Structural Indexing")
+@Category({"simdjson", "Stage 1"})
+@Description("A single call to StructuralIndexer::index")
+@Enabled(false)
+@StackTrace(false)
+class IndexingEvent extends Event {
+
+    @Label("Bytes")
+    @DataAmount
+    int bytes;
+
+    @Label("Structurals")
+    int structurals;
+
+    @Label("Blocks With Escapes")
+    @Description("The number of 64-byte blocks that contain at least one backslash")
+    int blocksWithEscapes;
+
+    @Label("Error")
+    @Description("The message of the exception thrown by the indexer, or null if the call succeeded")
+    String error;
+}
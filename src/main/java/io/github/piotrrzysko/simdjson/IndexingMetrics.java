@@ -0,0 +1,58 @@
+package io.github.piotrrzysko.simdjson;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    Cumulative counters updated by InstrumentedStructuralIndexer. A single instance can be shared by indexers running
+    in many threads: LongAdder stripes the updates across cells, so the threads don't contend on one cache line, and
+    a metrics exporter can poll the sums at any time (they are not an atomic snapshot of all counters, though).
+ */
+public class IndexingMetrics {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder structurals = new LongAdder();
+    private final LongAdder blocksWithEscapes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    void record(int bytes, int structurals, int blocksWithEscapes, long nanos, boolean error) {
+        this.calls.increment();
+        this.bytes.add(bytes);
+        this.structurals.add(structurals);
+        this.blocksWithEscapes.add(blocksWithEscapes);
+        this.nanos.add(nanos);
+        if (error) {
+            this.errors.increment();
+        }
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getStructurals() {
+        return structurals.sum();
+    }
+
+    public long getBlocksWithEscapes() {
+        return blocksWithEscapes.sum();
+    }
+
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    public double getStructuralDensity() {
+        long bytes = getBytes();
+        return bytes == 0 ? 0 : (double) getStructurals() / bytes;
+    }
+}
@@ -31,8 +31,11 @@ import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
 
     This disparity is most likely caused by the fact that, according to the -XX:+LogCompilation output, the JIT
     couldn't inline the LoadingInStepStructuralIndexer::step method.
+
+    If the BitIndexes store tags, the indexer writes them too (see BitIndexes). ClassifyingStructuralIndexer is a
+    variant of this indexer with configurable characters classification and an optional LineIndex.
  */
-public class InlinedIndexStructuralIndexer {
+public class InlinedIndexStructuralIndexer implements StructuralIndexer {
 
     private static final int STEP_SIZE = 64;
     private static final byte BACKSLASH = (byte) '\\';
@@ -61,6 +64,7 @@ public class InlinedIndexStructuralIndexer {
         this.bitIndexes = bitIndexes;
     }
 
+    @Override
     public void index(byte[] buffer, int length) {
         bitIndexes.reset();
 
@@ -135,7 +139,7 @@ public class InlinedIndexStructuralIndexer {
             prevScalar = nonQuoteScalar >>> 63;
             long potentialScalarStart = scalar & ~followsNonQuoteScalar;
             long potentialStructuralStart = op | potentialScalarStart;
-            bitIndexes.write(blockIndex, prevStructurals);
+            bitIndexes.write(blockIndex, prevStructurals, buffer, blockIndex - STEP_SIZE);
             blockIndex += STEP_SIZE;
             prevStructurals = potentialStructuralStart & ~(inString ^ quote);
             unescapedCharsError |= unescaped & inString;
@@ -194,12 +198,12 @@ public class InlinedIndexStructuralIndexer {
         long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
         long potentialScalarStart = scalar & ~followsNonQuoteScalar;
         long potentialStructuralStart = op | potentialScalarStart;
-        bitIndexes.write(blockIndex, prevStructurals);
+        bitIndexes.write(blockIndex, prevStructurals, buffer, blockIndex - STEP_SIZE);
         blockIndex += STEP_SIZE;
         prevStructurals = potentialStructuralStart & ~(inString ^ quote);
         unescapedCharsError |= unescaped & inString;
 
-        bitIndexes.write(blockIndex, prevStructurals);
+        bitIndexes.write(blockIndex, prevStructurals, remainder, 0);
         bitIndexes.finish();
         if (prevInString != 0) {
             throw new IllegalArgumentException("Unclosed string. A string is opened, but never closed.");
@@ -29,7 +29,7 @@ import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
     StructuralIndexerBenchmark.inlinedStep                        thrpt    5     4204.302 ±  7.170       ops/s
     StructuralIndexerBenchmark.loadingInStep                      thrpt    5     4105.010 ±  18.583      ops/s
  */
-public class InlinedStepStructuralIndexer {
+public class InlinedStepStructuralIndexer implements StructuralIndexer {
 
     private static final int STEP_SIZE = 64;
     private static final byte BACKSLASH = (byte) '\\';
@@ -61,9 +61,10 @@ public class InlinedStepStructuralIndexer {
     private long prevScalar;
 
     public InlinedStepStructuralIndexer(BitIndexes bitIndexes) {
-        this.bitIndexes = bitIndexes;
+        this.bitIndexes = BitIndexes.requireNoTags(bitIndexes);
     }
 
+    @Override
     public void index(byte[] buffer, int length) {
         reset();
 
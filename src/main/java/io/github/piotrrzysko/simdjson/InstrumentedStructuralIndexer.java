@@ -0,0 +1,84 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.ByteVector.SPECIES_512;
+
+/*
+    Wraps InlinedIndexStructuralIndexer and reports every index() call as an IndexingEvent and to IndexingMetrics.
+
+    The instrumentation lives entirely outside the indexer, so when it's off (i.e. the plain indexer is used), there is
+    no cost at all. This is also why the blocks with escapes are counted here, by a separate pass over the buffer
+    after indexing, rather than in the escape-handling branch of the indexer. The pass is skipped when neither the
+    metrics nor the event need the count.
+
+    When the event is disabled, JFR reduces begin() and shouldCommit() to a check of a static flag, and the event
+    object is eliminated by escape analysis. The metrics can be null, in which case only the event is recorded.
+    The overhead of both is measured by InstrumentationBenchmark.
+ */
+public class InstrumentedStructuralIndexer implements StructuralIndexer {
+
+    private static final byte BACKSLASH = (byte) '\\';
+
+    private final IndexingMetrics metrics;
+    private final BitIndexes bitIndexes;
+    private final InlinedIndexStructuralIndexer indexer;
+
+    public InstrumentedStructuralIndexer(IndexingMetrics metrics, BitIndexes bitIndexes) {
+        this.metrics = metrics;
+        this.bitIndexes = bitIndexes;
+        this.indexer = new InlinedIndexStructuralIndexer(bitIndexes);
+    }
+
+    @Override
+    public void index(byte[] buffer, int length) {
+        IndexingEvent event = new IndexingEvent();
+        event.begin();
+        long start = metrics != null ? System.nanoTime() : 0;
+        String error = null;
+        try {
+            indexer.index(buffer, length);
+        } catch (IllegalArgumentException ex) {
+            error = ex.getMessage();
+            throw ex;
+        } finally {
+            long nanos = metrics != null ? System.nanoTime() - start : 0;
+            event.end();
+            boolean commit = event.shouldCommit();
+            int structurals = bitIndexes.size();
+            int blocksWithEscapes = metrics != null || commit ? countBlocksWithEscapes(buffer, length) : 0;
+            if (metrics != null) {
+                metrics.record(length, structurals, blocksWithEscapes, nanos, error != null);
+            }
+            if (commit) {
+                event.bytes = length;
+                event.structurals = structurals;
+                event.blocksWithEscapes = blocksWithEscapes;
+                event.error = error;
+                event.commit();
+            }
+        }
+    }
+
+    // Returns the number of 64-byte blocks (the same blocks as the indexer's) with at least one backslash, i.e. how
+    // many times the escape-handling branch of the indexer was taken.
+    static int countBlocksWithEscapes(byte[] buffer, int length) {
+        int blocks = 0;
+        int loopBound = SPECIES_512.loopBound(length);
+        int offset = 0;
+        for (; offset < loopBound; offset += 64) {
+            ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, buffer, offset);
+            ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, buffer, offset + 32);
+            if (chunk0.eq(BACKSLASH).or(chunk1.eq(BACKSLASH)).anyTrue()) {
+                blocks++;
+            }
+        }
+        for (; offset < length; offset++) {
+            if (buffer[offset] == BACKSLASH) {
+                return blocks + 1;
+            }
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+
+import java.util.Arrays;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.ByteVector.SPECIES_512;
+
+/*
+    Removes whitespace outside strings in a single pass over the input.
+
+    The string scanning (BlockScanner) and the whitespace classification (CharacterClassifier) are the same as in
+    InlinedIndexStructuralIndexer, but instead of building structurals, the bytes that are not whitespace outside
+    strings are packed with ByteVector::compress and stored straight into the output buffer. Blocks without any
+    removable whitespace (typical for long strings) are copied as they are.
+
+    ByteVector::compress is intrinsified only on CPUs supporting AVX-512 VBMI2 (as of JDK 21). On other CPUs it falls
+    back to the Java implementation, which is much slower, so MinifierBenchmark should be checked on the target
+    hardware before using this class.
+ */
+public class JsonMinifier {
+
+    private static final int STEP_SIZE = 64;
+    private static final byte SPACE = 0x20;
+    private static final byte[] LAST_BLOCK_SPACES = new byte[STEP_SIZE];
+
+    static {
+        Arrays.fill(LAST_BLOCK_SPACES, SPACE);
+    }
+
+    private final byte[] lastBlock = new byte[STEP_SIZE];
+    private final byte[] outputBlock = new byte[STEP_SIZE];
+
+    // Returns the number of bytes written to the output. The output has to be at least as long as the minified input.
+    public int minify(byte[] buffer, int length, byte[] output) {
+        long prevInString = 0;
+        long prevEscaped = 0;
+
+        // Using SPECIES_512 here is not a mistake. Each iteration of the below loop processes two 256-bit chunks,
+        // so effectively it processes 512 bits at once.
+        int loopBound = SPECIES_512.loopBound(length);
+        int offset = 0;
+        int written = 0;
+        for (; offset <= loopBound; offset += STEP_SIZE) {
+            byte[] block = buffer;
+            int blockOffset = offset;
+            if (offset == loopBound) {
+                block = remainder(buffer, length, offset);
+                blockOffset = 0;
+            }
+            ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, block, blockOffset);
+            ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, block, blockOffset + 32);
+
+            // string scanning
+            long backslash = BlockScanner.backslash(chunk0, chunk1);
+            long escaped = BlockScanner.escaped(backslash, prevEscaped);
+            prevEscaped = BlockScanner.nextEscaped(backslash, prevEscaped);
+
+            long quote = BlockScanner.quote(chunk0, chunk1) & ~escaped;
+
+            long inString = BlockScanner.inString(quote, prevInString);
+            prevInString = inString >> 63;
+
+            // characters classification
+            long whitespace = CharacterClassifier.whitespace(chunk0, chunk1);
+
+            // compaction
+            long keep = ~(whitespace & ~inString);
+            if (block == lastBlock) {
+                keep &= (1L << (length - offset)) - 1;
+            }
+            int keep0Count = Long.bitCount(keep & 0xFFFFFFFFL);
+            int keepCount = Long.bitCount(keep);
+            byte[] dst = output;
+            int dstOffset = written;
+            if (written + STEP_SIZE > output.length) {
+                // Vector stores always write whole vectors, so near the end of the output we go through a scratch block.
+                dst = outputBlock;
+                dstOffset = 0;
+            }
+            if (keep == -1L) {
+                chunk0.intoArray(dst, dstOffset);
+                chunk1.intoArray(dst, dstOffset + 32);
+            } else if (keepCount != 0) {
+                chunk0.compress(VectorMask.fromLong(SPECIES_256, keep)).intoArray(dst, dstOffset);
+                chunk1.compress(VectorMask.fromLong(SPECIES_256, keep >>> 32)).intoArray(dst, dstOffset + keep0Count);
+            }
+            if (dst != output) {
+                System.arraycopy(dst, 0, output, written, keepCount);
+            }
+            written += keepCount;
+        }
+
+        if (prevInString != 0) {
+            throw new IllegalArgumentException("Unclosed string. A string is opened, but never closed.");
+        }
+        return written;
+    }
+
+    private byte[] remainder(byte[] buffer, int length, int idx) {
+        System.arraycopy(LAST_BLOCK_SPACES, 0, lastBlock, 0, lastBlock.length);
+        System.arraycopy(buffer, idx, lastBlock, 0, length - idx);
+        return lastBlock;
+    }
+}
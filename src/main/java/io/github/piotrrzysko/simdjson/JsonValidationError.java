@@ -0,0 +1,16 @@
+package io.github.piotrrzysko.simdjson;
+
+public enum JsonValidationError {
+
+    EMPTY_DOCUMENT,
+    UNCLOSED_STRING,
+    UNESCAPED_CHARACTER,
+    INVALID_ESCAPE,
+    INVALID_LITERAL,
+    INVALID_NUMBER,
+    UNEXPECTED_CHARACTER,
+    UNEXPECTED_TOKEN,
+    TRAILING_CONTENT,
+    UNCLOSED_CONTAINER,
+    DEPTH_LIMIT_EXCEEDED
+}
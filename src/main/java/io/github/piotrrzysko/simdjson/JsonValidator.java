@@ -0,0 +1,367 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import java.util.Arrays;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.ByteVector.SPECIES_512;
+
+/*
+    Checks whether the input is a single well-formed JSON value without building anything.
+
+    The block loop is the one from InlinedIndexStructuralIndexer (shared through BlockScanner and CharacterClassifier),
+    but the structurals of each block are consumed right away by a grammar automaton instead of being written to
+    BitIndexes. Besides the grammar (bracket balance, placement of commas and colons), it checks literals and numbers
+    at scalar starts, escape sequences at the escaped positions, and unescaped control characters in strings.
+    Validation stops at the first block containing an error, and the offset of the first invalid byte in that block is
+    reported. Containers are tracked in a fixed-size bitset (1 for an object, 0 for an array), so the maximum depth is
+    bounded and validate never allocates.
+
+    UTF-8 validity of the input is not checked.
+ */
+public class JsonValidator {
+
+    private static final int STEP_SIZE = 64;
+    private static final int MAX_DEPTH = 1024;
+    private static final byte SPACE = 0x20;
+    private static final byte[] LAST_BLOCK_SPACES = new byte[STEP_SIZE];
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    // grammar states
+    private static final int VALUE = 0;
+    private static final int VALUE_OR_CLOSE = 1;
+    private static final int KEY = 2;
+    private static final int KEY_OR_CLOSE = 3;
+    private static final int COLON = 4;
+    private static final int COMMA_OR_CLOSE = 5;
+    private static final int END = 6;
+
+    static {
+        Arrays.fill(LAST_BLOCK_SPACES, SPACE);
+    }
+
+    private final CharacterClassifier classifier = new CharacterClassifier(CharacterClassification.REARRANGE);
+    private final byte[] lastBlock = new byte[STEP_SIZE];
+    private final long[] containers = new long[MAX_DEPTH / 64];
+
+    private int depth;
+    private int state;
+    private JsonValidationError error;
+    private int errorOffset;
+
+    public boolean validate(byte[] buffer, int length) {
+        depth = 0;
+        state = VALUE;
+        error = null;
+        errorOffset = -1;
+
+        long prevInString = 0;
+        long prevEscaped = 0;
+        long prevScalar = 0;
+        int lastOpeningQuote = 0;
+
+        // Using SPECIES_512 here is not a mistake. Each iteration of the below loop processes two 256-bit chunks,
+        // so effectively it processes 512 bits at once.
+        int loopBound = SPECIES_512.loopBound(length);
+        for (int blockIndex = 0; blockIndex <= loopBound; blockIndex += STEP_SIZE) {
+            byte[] block = buffer;
+            int blockOffset = blockIndex;
+            if (blockIndex == loopBound) {
+                block = remainder(buffer, length, blockIndex);
+                blockOffset = 0;
+            }
+            ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, block, blockOffset);
+            ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, block, blockOffset + 32);
+
+            // string scanning
+            long backslash = BlockScanner.backslash(chunk0, chunk1);
+            long escaped = BlockScanner.escaped(backslash, prevEscaped);
+            prevEscaped = BlockScanner.nextEscaped(backslash, prevEscaped);
+
+            long unescaped = BlockScanner.unescaped(chunk0, chunk1);
+            long quote = BlockScanner.quote(chunk0, chunk1) & ~escaped;
+
+            long inString = BlockScanner.inString(quote, prevInString);
+            prevInString = inString >> 63;
+
+            // characters classification
+            classifier.classify(chunk0, chunk1);
+            long whitespace = classifier.whitespace;
+            long op = classifier.op;
+
+            // finish
+            long scalar = ~(op | whitespace);
+            long nonQuoteScalar = scalar & ~quote;
+            long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+            prevScalar = nonQuoteScalar >>> 63;
+            long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+            long potentialStructuralStart = op | potentialScalarStart;
+            long structurals = potentialStructuralStart & ~(inString ^ quote);
+
+            long openingQuotes = quote & inString;
+            if (openingQuotes != 0) {
+                lastOpeningQuote = blockIndex + 63 - Long.numberOfLeadingZeros(openingQuotes);
+            }
+
+            // validation
+            int charErrorBit = Long.numberOfTrailingZeros(unescaped & inString);
+            JsonValidationError charError = charErrorBit == 64 ? null : JsonValidationError.UNESCAPED_CHARACTER;
+            if (backslash != 0 || escaped != 0) {
+                int escapeErrorBit = firstInvalidEscape(buffer, length, blockIndex, escaped & inString);
+                if (escapeErrorBit < charErrorBit) {
+                    charErrorBit = escapeErrorBit;
+                    charError = JsonValidationError.INVALID_ESCAPE;
+                }
+            }
+            if (charErrorBit < 64) {
+                structurals &= (1L << charErrorBit) - 1;
+            }
+            while (structurals != 0) {
+                if (!consume(buffer, length, blockIndex + Long.numberOfTrailingZeros(structurals))) {
+                    return false;
+                }
+                structurals &= structurals - 1;
+            }
+            if (charError != null) {
+                return fail(charError, blockIndex + charErrorBit);
+            }
+        }
+
+        if (prevInString != 0) {
+            return fail(JsonValidationError.UNCLOSED_STRING, lastOpeningQuote);
+        }
+        if (depth != 0) {
+            return fail(JsonValidationError.UNCLOSED_CONTAINER, length);
+        }
+        if (state != END) {
+            return fail(JsonValidationError.EMPTY_DOCUMENT, length);
+        }
+        return true;
+    }
+
+    public JsonValidationError getError() {
+        return error;
+    }
+
+    public int getErrorOffset() {
+        return errorOffset;
+    }
+
+    private boolean consume(byte[] buffer, int length, int idx) {
+        switch (buffer[idx]) {
+            case '{':
+                if (state != VALUE && state != VALUE_OR_CLOSE) {
+                    return unexpected(idx);
+                }
+                if (depth == MAX_DEPTH) {
+                    return fail(JsonValidationError.DEPTH_LIMIT_EXCEEDED, idx);
+                }
+                containers[depth >>> 6] |= 1L << depth;
+                depth++;
+                state = KEY_OR_CLOSE;
+                return true;
+            case '[':
+                if (state != VALUE && state != VALUE_OR_CLOSE) {
+                    return unexpected(idx);
+                }
+                if (depth == MAX_DEPTH) {
+                    return fail(JsonValidationError.DEPTH_LIMIT_EXCEEDED, idx);
+                }
+                containers[depth >>> 6] &= ~(1L << depth);
+                depth++;
+                state = VALUE_OR_CLOSE;
+                return true;
+            case '}':
+                if (state != KEY_OR_CLOSE && (state != COMMA_OR_CLOSE || !inObject())) {
+                    return unexpected(idx);
+                }
+                depth--;
+                afterValue();
+                return true;
+            case ']':
+                if (state != VALUE_OR_CLOSE && (state != COMMA_OR_CLOSE || inObject())) {
+                    return unexpected(idx);
+                }
+                depth--;
+                afterValue();
+                return true;
+            case ':':
+                if (state != COLON) {
+                    return unexpected(idx);
+                }
+                state = VALUE;
+                return true;
+            case ',':
+                if (state != COMMA_OR_CLOSE) {
+                    return unexpected(idx);
+                }
+                state = inObject() ? KEY : VALUE;
+                return true;
+            case '"':
+                if (state == KEY || state == KEY_OR_CLOSE) {
+                    state = COLON;
+                    return true;
+                }
+                if (state != VALUE && state != VALUE_OR_CLOSE) {
+                    return unexpected(idx);
+                }
+                afterValue();
+                return true;
+            default:
+                if (state != VALUE && state != VALUE_OR_CLOSE) {
+                    return unexpected(idx);
+                }
+                if (!validateScalar(buffer, length, idx)) {
+                    return false;
+                }
+                afterValue();
+                return true;
+        }
+    }
+
+    private boolean validateScalar(byte[] buffer, int length, int idx) {
+        switch (buffer[idx]) {
+            case 't':
+                return validateLiteral(buffer, length, idx, TRUE);
+            case 'f':
+                return validateLiteral(buffer, length, idx, FALSE);
+            case 'n':
+                return validateLiteral(buffer, length, idx, NULL);
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return validateNumber(buffer, length, idx);
+            default:
+                return fail(JsonValidationError.UNEXPECTED_CHARACTER, idx);
+        }
+    }
+
+    private boolean validateLiteral(byte[] buffer, int length, int idx, byte[] literal) {
+        if (idx + literal.length > length) {
+            return fail(JsonValidationError.INVALID_LITERAL, idx);
+        }
+        for (int i = 1; i < literal.length; i++) {
+            if (buffer[idx + i] != literal[i]) {
+                return fail(JsonValidationError.INVALID_LITERAL, idx);
+            }
+        }
+        return ScalarTerminators.isScalarEnd(buffer, length, idx + literal.length) || fail(JsonValidationError.INVALID_LITERAL, idx);
+    }
+
+    private boolean validateNumber(byte[] buffer, int length, int idx) {
+        int i = idx;
+        if (buffer[i] == '-') {
+            i++;
+        }
+        if (i < length && buffer[i] == '0') {
+            i++;
+        } else {
+            int digitsStart = i;
+            i = skipDigits(buffer, length, i);
+            if (i == digitsStart) {
+                return fail(JsonValidationError.INVALID_NUMBER, idx);
+            }
+        }
+        if (i < length && buffer[i] == '.') {
+            int digitsStart = ++i;
+            i = skipDigits(buffer, length, i);
+            if (i == digitsStart) {
+                return fail(JsonValidationError.INVALID_NUMBER, idx);
+            }
+        }
+        if (i < length && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            i++;
+            if (i < length && (buffer[i] == '+' || buffer[i] == '-')) {
+                i++;
+            }
+            int digitsStart = i;
+            i = skipDigits(buffer, length, i);
+            if (i == digitsStart) {
+                return fail(JsonValidationError.INVALID_NUMBER, idx);
+            }
+        }
+        return ScalarTerminators.isScalarEnd(buffer, length, i) || fail(JsonValidationError.INVALID_NUMBER, idx);
+    }
+
+    private static int skipDigits(byte[] buffer, int length, int idx) {
+        while (idx < length && buffer[idx] >= '0' && buffer[idx] <= '9') {
+            idx++;
+        }
+        return idx;
+    }
+
+    // Returns the bit of the first invalid escape sequence in the block or 64 if all of them are valid.
+    private static int firstInvalidEscape(byte[] buffer, int length, int blockIndex, long escaped) {
+        while (escaped != 0) {
+            int bit = Long.numberOfTrailingZeros(escaped);
+            int idx = blockIndex + bit;
+            if (idx >= length) {
+                return 64;
+            }
+            switch (buffer[idx]) {
+                case '"':
+                case '\\':
+                case '/':
+                case 'b':
+                case 'f':
+                case 'n':
+                case 'r':
+                case 't':
+                    break;
+                case 'u':
+                    if (idx + 4 >= length
+                            || !isHexDigit(buffer[idx + 1])
+                            || !isHexDigit(buffer[idx + 2])
+                            || !isHexDigit(buffer[idx + 3])
+                            || !isHexDigit(buffer[idx + 4])) {
+                        return bit;
+                    }
+                    break;
+                default:
+                    return bit;
+            }
+            escaped &= escaped - 1;
+        }
+        return 64;
+    }
+
+    private static boolean isHexDigit(byte b) {
+        return (b >= '0' && b <= '9') || (b >= 'a' && b <= 'f') || (b >= 'A' && b <= 'F');
+    }
+
+    private boolean inObject() {
+        int top = depth - 1;
+        return (containers[top >>> 6] & (1L << top)) != 0;
+    }
+
+    private void afterValue() {
+        state = depth == 0 ? END : COMMA_OR_CLOSE;
+    }
+
+    private boolean unexpected(int idx) {
+        return fail(state == END ? JsonValidationError.TRAILING_CONTENT : JsonValidationError.UNEXPECTED_TOKEN, idx);
+    }
+
+    private boolean fail(JsonValidationError error, int idx) {
+        this.error = error;
+        this.errorOffset = idx;
+        return false;
+    }
+
+    private byte[] remainder(byte[] buffer, int length, int idx) {
+        System.arraycopy(LAST_BLOCK_SPACES, 0, lastBlock, 0, lastBlock.length);
+        System.arraycopy(buffer, idx, lastBlock, 0, length - idx);
+        return lastBlock;
+    }
+}
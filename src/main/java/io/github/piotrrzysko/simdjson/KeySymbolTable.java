@@ -0,0 +1,154 @@
+package io.github.piotrrzysko.simdjson;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    A size-bounded symbol table of object keys, so that the keys repeated in every document are decoded into Strings
+    once, instead of every time they occur.
+
+    Keys are found with the structural index: an opening quote followed by a colon structural is a key, and its closing
+    quote is found by going back from the colon over whitespace. The raw bytes of the key (without unescaping; equal
+    raw bytes always decode to the same String) are hashed with VectorizedHash, and looked up in an open-addressing
+    table with linear probing. A slot matches if both the hash and the bytes are equal, so a lookup of a known key
+    doesn't allocate.
+
+    The table is meant to be shared by many threads, and it's read-mostly: lookups don't take any locks, and the slots
+    are read with volatile semantics. New keys are added under a lock, after probing again, so that each key gets a
+    single symbol, and the ids are consecutive. A slot is never modified after it's set, so a reader either sees a
+    complete symbol or an empty slot. Once the table holds maxKeys keys, or if a key is longer than maxKeyLength, keys
+    are decoded without interning.
+ */
+public class KeySymbolTable {
+
+    private final int maxKeys;
+    private final int maxKeyLength;
+    private final int mask;
+    private final AtomicReferenceArray<Symbol> slots;
+    private final String[] keys;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Used only under the lock.
+    private final StringDecoder decoder = new StringDecoder();
+
+    private volatile int size;
+
+    public KeySymbolTable(int maxKeys, int maxKeyLength) {
+        if (maxKeys <= 0 || maxKeys > 1 << 29) {
+            throw new IllegalArgumentException("The maximum number of keys has to be between 1 and " + (1 << 29) + ".");
+        }
+        if (maxKeyLength <= 0) {
+            throw new IllegalArgumentException("The maximum length of a key has to be positive.");
+        }
+        this.maxKeys = maxKeys;
+        this.maxKeyLength = maxKeyLength;
+        // At most half of the slots are used, so that the probe sequences stay short.
+        int capacity = Integer.highestOneBit(2 * maxKeys - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.keys = new String[maxKeys];
+    }
+
+    // Returns the id of the key whose opening quote and the following colon are at the given positions (e.g. taken
+    // from BitIndexes), adding the key to the table if it's not there yet. Returns -1 if the key cannot be interned.
+    public int intern(byte[] buffer, int length, int quote, int colon) {
+        int end = closingQuote(buffer, quote, colon);
+        int from = quote + 1;
+        int keyLength = end - from;
+        if (keyLength > maxKeyLength) {
+            return -1;
+        }
+        long hash = VectorizedHash.hash(buffer, from, keyLength);
+        Symbol symbol = find(buffer, from, end, hash);
+        if (symbol == null) {
+            symbol = add(buffer, length, quote, end, hash);
+        }
+        return symbol == null ? -1 : symbol.id();
+    }
+
+    // Like intern, but returns the interned String, or a String decoded with the given decoder if the key cannot be
+    // interned. Unlike the table, the decoder must be confined to the calling thread.
+    public String internKey(byte[] buffer, int length, int quote, int colon, StringDecoder decoder) {
+        int id = intern(buffer, length, quote, colon);
+        if (id < 0) {
+            return decoder.decodeString(buffer, length, quote);
+        }
+        return keys[id];
+    }
+
+    // Returns the id of the key bytes if they are in the table, or -1 otherwise. It never adds keys.
+    public int lookup(byte[] buffer, int from, int to) {
+        if (to - from > maxKeyLength) {
+            return -1;
+        }
+        Symbol symbol = find(buffer, from, to, VectorizedHash.hash(buffer, from, to - from));
+        return symbol == null ? -1 : symbol.id();
+    }
+
+    // The ids are consecutive, starting at 0.
+    public String getKey(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown key id: " + id + ".");
+        }
+        return keys[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    private Symbol find(byte[] buffer, int from, int to, long hash) {
+        int slot = (int) hash & mask;
+        while (true) {
+            Symbol symbol = slots.get(slot);
+            if (symbol == null) {
+                return null;
+            }
+            if (symbol.hash() == hash && Arrays.equals(symbol.bytes(), 0, symbol.bytes().length, buffer, from, to)) {
+                return symbol;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private Symbol add(byte[] buffer, int length, int quote, int end, long hash) {
+        lock.lock();
+        try {
+            Symbol symbol = find(buffer, quote + 1, end, hash);
+            if (symbol != null || size == maxKeys) {
+                return symbol;
+            }
+            int id = size;
+            symbol = new Symbol(Arrays.copyOfRange(buffer, quote + 1, end), hash, id);
+            keys[id] = decoder.decodeString(buffer, length, quote);
+            int slot = (int) hash & mask;
+            while (slots.get(slot) != null) {
+                slot = (slot + 1) & mask;
+            }
+            // Publishes the symbol, and the key written above, to the readers.
+            slots.set(slot, symbol);
+            size = id + 1;
+            return symbol;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int closingQuote(byte[] buffer, int quote, int colon) {
+        int end = colon - 1;
+        while (end > quote && buffer[end] != '"') {
+            end--;
+        }
+        if (end == quote) {
+            throw new IllegalArgumentException("Invalid key. Expected a string followed by a colon at position " + quote + ".");
+        }
+        return end;
+    }
+
+    private record Symbol(byte[] bytes, long hash, int id) {
+    }
+}
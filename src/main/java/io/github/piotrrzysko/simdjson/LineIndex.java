@@ -0,0 +1,77 @@
+package io.github.piotrrzysko.simdjson;
+
+/*
+    An optional side output of ClassifyingStructuralIndexer that translates byte offsets (e.g. from BitIndexes or
+    JsonValidator::getErrorOffset) into line and column numbers without rescanning the input from the start.
+
+    While indexing, the indexer computes a mask of line feeds for every block and passes it here. The running number
+    of line feeds is stored once per blocksPerEntry blocks, so the index takes 4 bytes per 64 * blocksPerEntry bytes
+    of input (e.g. 12 MB for 3 GB of input with blocksPerEntry = 16). To locate an offset, the line feeds between the
+    beginning of its entry and the offset are counted, and the column is found by scanning back to the previous line
+    feed. Both scans are bounded by the entry size, except for the column of a line longer than the entry.
+
+    Lines and columns start at 1. Columns are counted in bytes, and '\r' is not a line separator, so that CRLF
+    inputs give the same lines as LF inputs.
+ */
+public class LineIndex {
+
+    private static final int STEP_SIZE = 64;
+    private static final byte LINE_FEED = (byte) '\n';
+
+    private final int entryShift;
+    private final int entryMask;
+    private final int[] entries;
+
+    private int lineFeeds;
+    private int blocks;
+
+    public LineIndex(int capacity, int blocksPerEntry) {
+        if (blocksPerEntry <= 0 || Integer.bitCount(blocksPerEntry) != 1) {
+            throw new IllegalArgumentException("The number of blocks per entry has to be a power of two.");
+        }
+        this.entryShift = Integer.numberOfTrailingZeros(blocksPerEntry);
+        this.entryMask = blocksPerEntry - 1;
+        // The indexer always processes one block more than the number of full blocks in the input.
+        int maxBlocks = capacity / STEP_SIZE + 1;
+        this.entries = new int[(maxBlocks >> entryShift) + 1];
+    }
+
+    void reset() {
+        lineFeeds = 0;
+        blocks = 0;
+    }
+
+    // Called for each consecutive block, including the last (padded) one.
+    void add(long lineFeedMask) {
+        if ((blocks & entryMask) == 0) {
+            entries[blocks >> entryShift] = lineFeeds;
+        }
+        lineFeeds += Long.bitCount(lineFeedMask);
+        blocks++;
+    }
+
+    public int getLineCount() {
+        return lineFeeds + 1;
+    }
+
+    public Location locate(byte[] buffer, int offset) {
+        if (offset < 0 || offset >= (long) blocks * STEP_SIZE || offset >= buffer.length) {
+            throw new IllegalArgumentException("The offset is outside of the indexed input.");
+        }
+        int entryStart = (offset >> 6 >> entryShift) << entryShift << 6;
+        int line = entries[offset >> 6 >> entryShift] + 1;
+        for (int i = entryStart; i < offset; i++) {
+            if (buffer[i] == LINE_FEED) {
+                line++;
+            }
+        }
+        int lineStart = offset;
+        while (lineStart > 0 && buffer[lineStart - 1] != LINE_FEED) {
+            lineStart--;
+        }
+        return new Location(line, offset - lineStart + 1);
+    }
+
+    public record Location(int line, int column) {
+    }
+}
@@ -31,7 +31,7 @@ import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
     StructuralIndexerBenchmark.loadingInStep                      thrpt    5     4105.010 ±  18.583      ops/s
     StructuralIndexerBenchmark.original                           thrpt    5     2906.714 ±  36.484      ops/s
  */
-public class LoadingInStepStructuralIndexer {
+public class LoadingInStepStructuralIndexer implements StructuralIndexer {
 
     private static final int STEP_SIZE = 64;
     private static final byte BACKSLASH = (byte) '\\';
@@ -63,9 +63,10 @@ public class LoadingInStepStructuralIndexer {
     private long prevScalar;
 
     public LoadingInStepStructuralIndexer(BitIndexes bitIndexes) {
-        this.bitIndexes = bitIndexes;
+        this.bitIndexes = BitIndexes.requireNoTags(bitIndexes);
     }
 
+    @Override
     public void index(byte[] buffer, int length) {
         reset();
 
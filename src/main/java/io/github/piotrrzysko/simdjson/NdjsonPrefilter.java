@@ -0,0 +1,184 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+
+/*
+    Checks whether an NDJSON record contains any of the given literal byte patterns, so that records which are going
+    to be discarded anyway don't have to be indexed.
+
+    Candidates are found 64 bytes at a time by comparing the block shifted by the position of the first anchor byte of
+    a pattern with that byte, and the block shifted by the position of the last anchor byte with that byte (see
+    'SIMD-friendly algorithms for substring searching' by Wojciech Muła). Only positions matching both are verified
+    byte by byte. Anchors are the first and the last byte of a pattern which is not JSON punctuation, because
+    patterns like "level":"ERROR" start and end with quotes, and pairs of quotes are everywhere in JSON.
+
+    In the OUTSIDE_STRINGS and KEY modes, the quote and inString masks are computed by BlockScanner, like in the
+    indexers, and candidates inside strings are dropped (a pattern can still start at an opening quote). In the KEY
+    mode, a candidate has to start at an opening quote of a string followed by a colon. Since most records are expected
+    to be rejected, these modes first check if a pattern occurs anywhere in the record, and only then pay for the string
+    scanning.
+ */
+public class NdjsonPrefilter {
+
+    public enum MatchMode {
+        ANYWHERE,
+        OUTSIDE_STRINGS,
+        KEY
+    }
+
+    private static final int STEP_SIZE = 64;
+    private static final byte BACKSLASH = (byte) '\\';
+    private static final byte QUOTE = (byte) '"';
+
+    private final MatchMode mode;
+    private final byte[][] patterns;
+    private final int[] firstAnchors;
+    private final int[] lastAnchors;
+    private final int maxPatternLength;
+    private final byte[] lastBlock;
+
+    public NdjsonPrefilter(MatchMode mode, String... patterns) {
+        this(mode, Arrays.stream(patterns).map(pattern -> pattern.getBytes(UTF_8)).toArray(byte[][]::new));
+    }
+
+    public NdjsonPrefilter(MatchMode mode, byte[]... patterns) {
+        if (patterns.length == 0) {
+            throw new IllegalArgumentException("At least one pattern is required.");
+        }
+        int maxPatternLength = 0;
+        for (byte[] pattern : patterns) {
+            if (pattern.length == 0) {
+                throw new IllegalArgumentException("Patterns cannot be empty.");
+            }
+            maxPatternLength = Math.max(maxPatternLength, pattern.length);
+        }
+        this.mode = mode;
+        this.patterns = patterns.clone();
+        this.firstAnchors = new int[patterns.length];
+        this.lastAnchors = new int[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            byte[] pattern = patterns[i];
+            int first = 0;
+            while (first < pattern.length && isPunctuation(pattern[first])) {
+                first++;
+            }
+            int last = pattern.length - 1;
+            while (last > first && isPunctuation(pattern[last])) {
+                last--;
+            }
+            if (first == pattern.length) {
+                first = 0;
+                last = pattern.length - 1;
+            }
+            firstAnchors[i] = first;
+            lastAnchors[i] = last;
+        }
+        this.maxPatternLength = maxPatternLength;
+        // Room for the loads shifted by the pattern length - 1.
+        this.lastBlock = new byte[STEP_SIZE + maxPatternLength - 1];
+    }
+
+    // Returns true if the record buffer[offset, offset + length) contains at least one of the patterns.
+    public boolean test(byte[] buffer, int offset, int length) {
+        if (mode == MatchMode.ANYWHERE) {
+            return find(buffer, offset, length, false);
+        }
+        return find(buffer, offset, length, false) && find(buffer, offset, length, true);
+    }
+
+    private boolean find(byte[] buffer, int offset, int length, boolean stringAware) {
+        int end = offset + length;
+        long prevInString = 0;
+        long prevEscaped = 0;
+
+        for (int blockStart = offset; blockStart < end; blockStart += STEP_SIZE) {
+            byte[] block = buffer;
+            int blockOffset = blockStart;
+            if (blockStart + STEP_SIZE + maxPatternLength - 1 > buffer.length) {
+                block = remainder(buffer, blockStart, end);
+                blockOffset = 0;
+            }
+
+            long allowed = -1L;
+            if (stringAware) {
+                ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, block, blockOffset);
+                ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, block, blockOffset + 32);
+
+                // string scanning
+                long backslash = BlockScanner.backslash(chunk0, chunk1);
+                long escaped = BlockScanner.escaped(backslash, prevEscaped);
+                prevEscaped = BlockScanner.nextEscaped(backslash, prevEscaped);
+
+                long quote = BlockScanner.quote(chunk0, chunk1) & ~escaped;
+
+                long inString = BlockScanner.inString(quote, prevInString);
+                prevInString = inString >> 63;
+
+                allowed = mode == MatchMode.KEY ? quote & inString : ~(inString ^ quote);
+            }
+            if (end - blockStart < STEP_SIZE) {
+                allowed &= (1L << (end - blockStart)) - 1;
+            }
+            if (allowed == 0) {
+                continue;
+            }
+
+            for (int i = 0; i < patterns.length; i++) {
+                byte[] pattern = patterns[i];
+                int first = firstAnchors[i];
+                int last = lastAnchors[i];
+                long candidates = allowed
+                        & eq(block, blockOffset + first, pattern[first])
+                        & eq(block, blockOffset + last, pattern[last]);
+                while (candidates != 0) {
+                    int idx = blockStart + Long.numberOfTrailingZeros(candidates);
+                    if (matches(buffer, idx, end, pattern) && (!stringAware || mode != MatchMode.KEY || isKey(buffer, idx, end))) {
+                        return true;
+                    }
+                    candidates &= candidates - 1;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long eq(byte[] block, int offset, byte b) {
+        long eq0 = ByteVector.fromArray(SPECIES_256, block, offset).eq(b).toLong();
+        long eq1 = ByteVector.fromArray(SPECIES_256, block, offset + 32).eq(b).toLong();
+        return eq0 | (eq1 << 32);
+    }
+
+    private static boolean isPunctuation(byte b) {
+        return b == QUOTE || b == ':' || b == ',' || b == '{' || b == '}' || b == '[' || b == ']' || b == ' ';
+    }
+
+    private static boolean matches(byte[] buffer, int idx, int end, byte[] pattern) {
+        return idx + pattern.length <= end && Arrays.equals(buffer, idx, idx + pattern.length, pattern, 0, pattern.length);
+    }
+
+    // Checks if the string opened at idx is followed by a colon.
+    private static boolean isKey(byte[] buffer, int idx, int end) {
+        int i = idx + 1;
+        while (i < end && buffer[i] != QUOTE) {
+            i += buffer[i] == BACKSLASH ? 2 : 1;
+        }
+        for (i++; i < end; i++) {
+            byte b = buffer[i];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return b == ':';
+            }
+        }
+        return false;
+    }
+
+    private byte[] remainder(byte[] buffer, int blockStart, int end) {
+        Arrays.fill(lastBlock, (byte) 0);
+        System.arraycopy(buffer, blockStart, lastBlock, 0, Math.min(end - blockStart, lastBlock.length));
+        return lastBlock;
+    }
+}
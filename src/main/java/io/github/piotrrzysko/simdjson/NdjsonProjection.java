@@ -0,0 +1,397 @@
+package io.github.piotrrzysko.simdjson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Projects the given fields of NDJSON records into columns (see ProjectedColumn), without creating any objects per
+    record.
+
+    A field is given by a path of keys separated by dots (e.g. user.id for {"user": {"id": 1}}) and the type of its
+    column. The input is processed in windows of whole records. A window is indexed with InlinedIndexStructuralIndexer
+    at once (a raw line feed cannot occur inside a JSON string, so every line feed ends a record), and then its
+    structurals are walked record by record. The keys of each object are looked up in a trie built from the paths,
+    without unescaping them (the closing quote of a key is found by going back from the colon that follows it).
+    Values of the fields are parsed in place with NumberParser and StringDecoder and appended to the columns. Objects
+    and arrays that don't lead to any field are skipped by counting brackets.
+
+    A field that is missing or null in a record is null in the column. If a key occurs more than once in an object,
+    its first occurrence is used. Values of a type other than the type of the column are rejected.
+
+    In the parallel mode, the input is split into chunks at line feeds, each chunk is projected by a separate task
+    into its own columns, and then the columns are concatenated in the order of the chunks. If a chunk fails, the
+    other chunks stop at their next window, and the exception is rethrown once all of them are finished.
+ */
+public class NdjsonProjection {
+
+    public enum ColumnType {
+        LONG,
+        DOUBLE,
+        STRING
+    }
+
+    public record Field(String path, ColumnType type) {
+    }
+
+    private static final int WINDOW_SIZE = 64 * 1024;
+    private static final byte LINE_FEED = (byte) '\n';
+    private static final int MAX_FIELDS = 64;
+
+    private final Field[] fields;
+    private final Node root = new Node();
+
+    public NdjsonProjection(Field... fields) {
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("At least one field is required.");
+        }
+        if (fields.length > MAX_FIELDS) {
+            throw new IllegalArgumentException("At most " + MAX_FIELDS + " fields can be projected.");
+        }
+        this.fields = fields.clone();
+        for (int i = 0; i < fields.length; i++) {
+            root.add(fields[i].path().split("\\.", -1), 0, i);
+        }
+    }
+
+    // Returns a column per field, in the order of the fields.
+    public ProjectedColumn[] project(byte[] buffer, int length) {
+        return new Worker().project(buffer, 0, length);
+    }
+
+    public ProjectedColumn[] project(byte[] buffer, int length, ExecutorService executor, int chunks) {
+        if (chunks <= 0) {
+            throw new IllegalArgumentException("The number of chunks has to be positive.");
+        }
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<ProjectedColumn[]>> futures = new ArrayList<>(chunks);
+        int start = 0;
+        for (int chunk = 1; chunk <= chunks && start < length; chunk++) {
+            int end = chunk == chunks ? length : recordEnd(buffer, length, (int) ((long) length * chunk / chunks));
+            int chunkStart = start;
+            futures.add(executor.submit(() -> projectChunk(buffer, chunkStart, end, failed)));
+            start = end;
+        }
+
+        // All chunks are awaited, even if one of them fails, so that no worker is running when project returns.
+        ProjectedColumn[] columns = newColumns();
+        RuntimeException failure = null;
+        for (Future<ProjectedColumn[]> future : futures) {
+            try {
+                ProjectedColumn[] chunkColumns = await(future);
+                if (failure == null) {
+                    for (int i = 0; i < columns.length; i++) {
+                        columns[i].appendAll(chunkColumns[i]);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // The remaining chunks can't be awaited anymore, so they are cancelled instead.
+                for (Future<ProjectedColumn[]> chunk : futures) {
+                    chunk.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the projection of a chunk.", e);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else if (failure != e) {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return columns;
+    }
+
+    private ProjectedColumn[] projectChunk(byte[] buffer, int from, int to, AtomicBoolean failed) {
+        try {
+            return new Worker(failed).project(buffer, from, to);
+        } catch (RuntimeException | Error e) {
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    private ProjectedColumn[] newColumns() {
+        ProjectedColumn[] columns = new ProjectedColumn[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            columns[i] = new ProjectedColumn(fields[i].path(), fields[i].type());
+        }
+        return columns;
+    }
+
+    private static ProjectedColumn[] await(Future<ProjectedColumn[]> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Returns the position following the first line feed at or after the position (or the length if there is none).
+    private static int recordEnd(byte[] buffer, int length, int position) {
+        while (position < length && buffer[position] != LINE_FEED) {
+            position++;
+        }
+        return Math.min(position + 1, length);
+    }
+
+    // A level of the trie of paths. A node is either a field (a leaf) or an object with the keys of its children.
+    private static final class Node {
+
+        private byte[][] keys = new byte[0][];
+        private Node[] children = new Node[0];
+        private int field = -1;
+
+        void add(String[] path, int level, int field) {
+            if (this.field >= 0) {
+                throw new IllegalArgumentException("Invalid field path: " + String.join(".", path) + ". Its prefix is also a field.");
+            }
+            if (level == path.length) {
+                if (keys.length > 0) {
+                    throw new IllegalArgumentException("Invalid field path: " + String.join(".", path) + ". It is a prefix of another field.");
+                }
+                this.field = field;
+                return;
+            }
+            byte[] key = path[level].getBytes(UTF_8);
+            if (key.length == 0) {
+                throw new IllegalArgumentException("Invalid field path: " + String.join(".", path) + ". Keys cannot be empty.");
+            }
+            Node child = find(key, 0, key.length);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            child.add(path, level + 1, field);
+        }
+
+        Node find(byte[] buffer, int from, int to) {
+            for (int i = 0; i < keys.length; i++) {
+                if (Arrays.equals(keys[i], 0, keys[i].length, buffer, from, to)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    // Projects a range of records into its own columns. Must be confined to a single thread.
+    private final class Worker {
+
+        private final ProjectedColumn[] columns = newColumns();
+        private final StringDecoder decoder = new StringDecoder();
+        private final AtomicBoolean failed;
+
+        private byte[] window = new byte[0];
+        private BitIndexes bitIndexes;
+        private InlinedIndexStructuralIndexer indexer;
+        private int windowStart;
+        private int windowLength;
+        // The bit i is set if the field i has already been appended to its column for the current record.
+        private long seen;
+
+        Worker() {
+            this(new AtomicBoolean());
+        }
+
+        // failed is set by the workers of the other chunks, so that this one stops at its next window.
+        Worker(AtomicBoolean failed) {
+            this.failed = failed;
+        }
+
+        ProjectedColumn[] project(byte[] buffer, int from, int to) {
+            int start = from;
+            while (start < to && !failed.get()) {
+                int end = to - start <= WINDOW_SIZE ? to : windowEnd(buffer, start, start + WINDOW_SIZE, to);
+                load(buffer, start, end);
+                while (!bitIndexes.isEnd()) {
+                    seen = 0;
+                    int idx = bitIndexes.getAndAdvance();
+                    if (window[idx] != '{') {
+                        throw new IllegalArgumentException("Invalid record. Expected an object at position " + (windowStart + idx) + ".");
+                    }
+                    projectObject(root);
+                    for (int i = 0; i < columns.length; i++) {
+                        if ((seen & (1L << i)) == 0) {
+                            columns[i].appendNull();
+                        }
+                    }
+                }
+                start = end;
+            }
+            return columns;
+        }
+
+        // Returns the position following the last line feed before the limit, or following the first line feed after
+        // it if a record is longer than the window.
+        private static int windowEnd(byte[] buffer, int start, int limit, int to) {
+            for (int i = limit - 1; i >= start; i--) {
+                if (buffer[i] == LINE_FEED) {
+                    return i + 1;
+                }
+            }
+            int end = limit;
+            while (end < to && buffer[end] != LINE_FEED) {
+                end++;
+            }
+            return Math.min(end + 1, to);
+        }
+
+        private void load(byte[] buffer, int start, int end) {
+            int length = end - start;
+            if (length > window.length) {
+                window = new byte[Math.max(length, WINDOW_SIZE)];
+                bitIndexes = new BitIndexes(window.length + 64);
+                indexer = new InlinedIndexStructuralIndexer(bitIndexes);
+            }
+            System.arraycopy(buffer, start, window, 0, length);
+            windowStart = start;
+            windowLength = length;
+            indexer.index(window, length);
+        }
+
+        // Called right after the opening brace of an object whose keys are looked up in the node.
+        private void projectObject(Node node) {
+            int idx = next();
+            if (window[idx] == '}') {
+                return;
+            }
+            while (true) {
+                if (window[idx] != '"') {
+                    throw invalid("Expected a key", idx);
+                }
+                int colon = next();
+                if (window[colon] != ':') {
+                    throw invalid("Expected a colon", colon);
+                }
+                int keyEnd = colon - 1;
+                while (window[keyEnd] != '"') {
+                    keyEnd--;
+                }
+                Node child = node.find(window, idx + 1, keyEnd);
+
+                int value = next();
+                if (child == null) {
+                    skip(value);
+                } else if (child.field >= 0) {
+                    append(child.field, value);
+                } else if (window[value] == '{') {
+                    projectObject(child);
+                } else {
+                    skip(value);
+                }
+
+                idx = next();
+                if (window[idx] == '}') {
+                    return;
+                }
+                if (window[idx] != ',') {
+                    throw invalid("Expected a comma or a closing brace", idx);
+                }
+                idx = next();
+            }
+        }
+
+        private void append(int field, int idx) {
+            long bit = 1L << field;
+            if ((seen & bit) != 0) {
+                skip(idx);
+                return;
+            }
+            seen |= bit;
+            ProjectedColumn column = columns[field];
+            byte b = window[idx];
+            if (b == 'n') {
+                column.appendNull();
+                return;
+            }
+            switch (column.getType()) {
+                case LONG -> {
+                    checkNumber(field, idx);
+                    try {
+                        column.appendLong(NumberParser.parseLong(window, windowLength, idx));
+                    } catch (IllegalArgumentException e) {
+                        throw invalidNumber(idx, e);
+                    }
+                }
+                case DOUBLE -> {
+                    checkNumber(field, idx);
+                    try {
+                        column.appendDouble(NumberParser.parseDouble(window, windowLength, idx));
+                    } catch (IllegalArgumentException e) {
+                        throw invalidNumber(idx, e);
+                    }
+                }
+                case STRING -> {
+                    if (b != '"') {
+                        throw typeMismatch(field, idx);
+                    }
+                    int decodedLength = decoder.decode(window, windowLength, idx);
+                    column.appendString(decoder.getDecoded(), decodedLength);
+                }
+            }
+        }
+
+        private void checkNumber(int field, int idx) {
+            byte b = window[idx];
+            if (b != '-' && (b < '0' || b > '9')) {
+                throw typeMismatch(field, idx);
+            }
+        }
+
+        // Skips the value starting at the structural, including all nested values if it's an object or an array.
+        private void skip(int idx) {
+            byte b = window[idx];
+            if (b != '{' && b != '[') {
+                return;
+            }
+            int depth = 1;
+            while (depth > 0) {
+                b = window[next()];
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                }
+            }
+        }
+
+        private int next() {
+            if (bitIndexes.isEnd()) {
+                throw new IllegalArgumentException("Invalid record. The record ending at position " + (windowStart + windowLength) + " is incomplete.");
+            }
+            return bitIndexes.getAndAdvance();
+        }
+
+        private IllegalArgumentException invalid(String expected, int idx) {
+            return new IllegalArgumentException("Invalid record. " + expected + " at position " + (windowStart + idx) + ".");
+        }
+
+        // The positions reported by NumberParser are relative to the window, so the reason is kept, but the position is
+        // translated to the position in the buffer.
+        private IllegalArgumentException invalidNumber(int idx, IllegalArgumentException cause) {
+            String reason = cause.getMessage().replaceFirst("at position " + idx + "\\b", "at position " + (windowStart + idx));
+            return new IllegalArgumentException(reason, cause);
+        }
+
+        private IllegalArgumentException typeMismatch(int field, int idx) {
+            return new IllegalArgumentException("Type mismatch. Expected " + fields[field].type() + " for "
+                    + fields[field].path() + " at position " + (windowStart + idx) + ".");
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package io.github.piotrrzysko.simdjson;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.nio.ByteOrder;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/*
+    Parses JSON numbers directly from the input bytes, starting at positions taken from BitIndexes.
+
+    Digits are consumed eight at a time: eight bytes are loaded as a little-endian long, checked to be all digits,
+    and converted with three multiplications (SWAR, see 'Faster Number Parsing Without Backtracking' by Daniel Lemire).
+    Doubles whose decimal significand fits in 53 bits and whose decimal exponent is in [-22, 22] are converted exactly
+    with a single multiplication or division (Clinger's fast path), because both operands are exactly representable.
+    Other doubles with up to 19 significant digits are converted with the Eisel-Lemire algorithm, which multiplies the
+    significand by a 128-bit approximation of the power of five (see 'Number Parsing at a Gigabyte per Second' by
+    Daniel Lemire). Only numbers with more significant digits, and the extremely rare cases in which the approximation
+    is not precise enough to round correctly, fall back to Double::parseDouble.
+ */
+public final class NumberParser {
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long MAX_FAST_PATH_SIGNIFICAND = 1L << 53;
+    private static final int MAX_FAST_PATH_EXPONENT = 22;
+    private static final int MAX_SIGNIFICANT_DIGITS = 19;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int SMALLEST_POWER_OF_FIVE = -342;
+    private static final int LARGEST_POWER_OF_FIVE = 308;
+    private static final long[] POWERS_OF_FIVE = powersOfFive();
+    private static final int MANTISSA_EXPLICIT_BITS = 52;
+    private static final int MINIMUM_EXPONENT = -1023;
+    private static final int INFINITE_POWER = 0x7FF;
+
+    private NumberParser() {
+    }
+
+    // Parses all numbers among the remaining structurals of bitIndexes. Returns the number of parsed values.
+    public static int parseDoubles(BitIndexes bitIndexes, byte[] buffer, int length, double[] output) {
+        int count = 0;
+        while (!bitIndexes.isEnd()) {
+            int idx = bitIndexes.getAndAdvance();
+            byte b = buffer[idx];
+            if (b == '-' || (b >= '0' && b <= '9')) {
+                output[count++] = parseDouble(buffer, length, idx);
+            }
+        }
+        return count;
+    }
+
+    public static long parseLong(byte[] buffer, int length, int offset) {
+        int idx = offset;
+        boolean negative = buffer[idx] == '-';
+        if (negative) {
+            idx++;
+        }
+        int digitsStart = idx;
+        long value = 0;
+        if (idx < length && buffer[idx] == '0') {
+            idx++;
+        } else {
+            while (idx + 8 <= length) {
+                long chunk = (long) LONG_VIEW.get(buffer, idx);
+                if (!isEightDigits(chunk)) {
+                    break;
+                }
+                value = value * 100_000_000 + parseEightDigits(chunk);
+                idx += 8;
+            }
+            while (idx < length && isDigit(buffer[idx])) {
+                value = value * 10 + (buffer[idx] - '0');
+                idx++;
+            }
+        }
+        int digitCount = idx - digitsStart;
+        if (digitCount == 0 || !ScalarTerminators.isScalarEnd(buffer, length, idx)) {
+            throw new IllegalArgumentException("Invalid number. Expected an integer at position " + offset + ".");
+        }
+        // At most 19 digits always fit in an unsigned long.
+        if (digitCount > MAX_SIGNIFICANT_DIGITS || Long.compareUnsigned(value, negative ? Long.MIN_VALUE : Long.MAX_VALUE) > 0) {
+            throw new IllegalArgumentException("Number out of range. The integer at position " + offset + " does not fit in a long.");
+        }
+        return negative ? -value : value;
+    }
+
+    public static double parseDouble(byte[] buffer, int length, int offset) {
+        int idx = offset;
+        boolean negative = buffer[idx] == '-';
+        if (negative) {
+            idx++;
+        }
+
+        // integer part
+        int integerStart = idx;
+        long significand = 0;
+        if (idx < length && buffer[idx] == '0') {
+            idx++;
+        } else {
+            while (idx + 8 <= length) {
+                long chunk = (long) LONG_VIEW.get(buffer, idx);
+                if (!isEightDigits(chunk)) {
+                    break;
+                }
+                significand = significand * 100_000_000 + parseEightDigits(chunk);
+                idx += 8;
+            }
+            while (idx < length && isDigit(buffer[idx])) {
+                significand = significand * 10 + (buffer[idx] - '0');
+                idx++;
+            }
+        }
+        int digitCount = idx - integerStart;
+        if (digitCount == 0) {
+            throw invalidNumber(offset);
+        }
+
+        // fractional part
+        long exponent = 0;
+        if (idx < length && buffer[idx] == '.') {
+            idx++;
+            int fractionStart = idx;
+            while (idx + 8 <= length) {
+                long chunk = (long) LONG_VIEW.get(buffer, idx);
+                if (!isEightDigits(chunk)) {
+                    break;
+                }
+                significand = significand * 100_000_000 + parseEightDigits(chunk);
+                idx += 8;
+            }
+            while (idx < length && isDigit(buffer[idx])) {
+                significand = significand * 10 + (buffer[idx] - '0');
+                idx++;
+            }
+            if (idx == fractionStart) {
+                throw invalidNumber(offset);
+            }
+            exponent = fractionStart - idx;
+            digitCount += idx - fractionStart;
+        }
+
+        // exponent
+        if (idx < length && (buffer[idx] == 'e' || buffer[idx] == 'E')) {
+            idx++;
+            boolean negativeExponent = false;
+            if (idx < length && (buffer[idx] == '+' || buffer[idx] == '-')) {
+                negativeExponent = buffer[idx] == '-';
+                idx++;
+            }
+            int exponentStart = idx;
+            long explicitExponent = 0;
+            while (idx < length && isDigit(buffer[idx])) {
+                // Anything above this limit is either zero or infinity anyway.
+                if (explicitExponent < 100_000) {
+                    explicitExponent = explicitExponent * 10 + (buffer[idx] - '0');
+                }
+                idx++;
+            }
+            if (idx == exponentStart) {
+                throw invalidNumber(offset);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (!ScalarTerminators.isScalarEnd(buffer, length, idx)) {
+            throw invalidNumber(offset);
+        }
+
+        if (digitCount > MAX_SIGNIFICANT_DIGITS && significantDigits(buffer, integerStart, idx) > MAX_SIGNIFICANT_DIGITS) {
+            // The significand has overflowed.
+            return slowPath(buffer, offset, idx);
+        }
+        // The significand is unsigned, it can have up to 19 digits.
+        if (Long.compareUnsigned(significand, MAX_FAST_PATH_SIGNIFICAND) <= 0
+                && exponent >= -MAX_FAST_PATH_EXPONENT && exponent <= MAX_FAST_PATH_EXPONENT) {
+            double value = (double) significand;
+            if (exponent < 0) {
+                value /= POWERS_OF_TEN[(int) -exponent];
+            } else {
+                value *= POWERS_OF_TEN[(int) exponent];
+            }
+            return negative ? -value : value;
+        }
+        double value = eiselLemire(significand, exponent, negative);
+        if (Double.isNaN(value)) {
+            return slowPath(buffer, offset, idx);
+        }
+        return value;
+    }
+
+    // Returns NaN if the result cannot be rounded correctly using a 128-bit approximation of the power of five.
+    // This is a port of compute_float from https://github.com/fastfloat/fast_float.
+    private static double eiselLemire(long significand, long exponent, boolean negative) {
+        if (significand == 0 || exponent < SMALLEST_POWER_OF_FIVE) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (exponent > LARGEST_POWER_OF_FIVE) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        int q = (int) exponent;
+        int lz = Long.numberOfLeadingZeros(significand);
+        long w = significand << lz;
+
+        int index = 2 * (q - SMALLEST_POWER_OF_FIVE);
+        long high = Math.unsignedMultiplyHigh(w, POWERS_OF_FIVE[index]);
+        long low = w * POWERS_OF_FIVE[index];
+        long precisionMask = -1L >>> (MANTISSA_EXPLICIT_BITS + 3);
+        if ((high & precisionMask) == precisionMask) {
+            long secondHigh = Math.unsignedMultiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+            low += secondHigh;
+            if (Long.compareUnsigned(secondHigh, low) > 0) {
+                high++;
+            }
+        }
+        if (low == -1L && (q < -27 || q > 55)) {
+            return Double.NaN;
+        }
+
+        int upperBit = (int) (high >>> 63);
+        int shift = upperBit + 64 - MANTISSA_EXPLICIT_BITS - 3;
+        long mantissa = high >>> shift;
+        int power2 = (((152170 + 65536) * q) >> 16) + 63 + upperBit - lz - MINIMUM_EXPONENT;
+        if (power2 <= 0) {
+            // subnormal
+            if (-power2 + 1 >= 64) {
+                return negative ? -0.0 : 0.0;
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = mantissa < (1L << MANTISSA_EXPLICIT_BITS) ? 0 : 1;
+            return toDouble(mantissa, power2, negative);
+        }
+        // Exactly halfway between two doubles. We have to round to even.
+        if (Long.compareUnsigned(low, 1) <= 0 && q >= -4 && q <= 23 && (mantissa & 3) == 1 && (mantissa << shift) == high) {
+            mantissa &= ~1L;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << MANTISSA_EXPLICIT_BITS)) {
+            mantissa = 1L << MANTISSA_EXPLICIT_BITS;
+            power2++;
+        }
+        mantissa &= ~(1L << MANTISSA_EXPLICIT_BITS);
+        if (power2 >= INFINITE_POWER) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return toDouble(mantissa, power2, negative);
+    }
+
+    private static double toDouble(long mantissa, int power2, boolean negative) {
+        long bits = mantissa | ((long) power2 << MANTISSA_EXPLICIT_BITS);
+        if (negative) {
+            bits |= Long.MIN_VALUE;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    // For each exponent, the 128 most significant bits of the power of five. Negative powers are rounded up.
+    private static long[] powersOfFive() {
+        long[] table = new long[2 * (LARGEST_POWER_OF_FIVE - SMALLEST_POWER_OF_FIVE + 1)];
+        BigInteger five = BigInteger.valueOf(5);
+        for (int q = SMALLEST_POWER_OF_FIVE; q <= LARGEST_POWER_OF_FIVE; q++) {
+            BigInteger power = five.pow(Math.abs(q));
+            BigInteger truncated;
+            if (q >= 0) {
+                int bits = power.bitLength();
+                truncated = bits <= 128 ? power.shiftLeft(128 - bits) : power.shiftRight(bits - 128);
+            } else {
+                int z = power.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                truncated = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+                if (truncated.bitLength() > 128) {
+                    truncated = truncated.shiftRight(truncated.bitLength() - 128);
+                }
+            }
+            int index = 2 * (q - SMALLEST_POWER_OF_FIVE);
+            table[index] = truncated.shiftRight(64).longValue();
+            table[index + 1] = truncated.longValue();
+        }
+        return table;
+    }
+
+    private static double slowPath(byte[] buffer, int offset, int end) {
+        return Double.parseDouble(new String(buffer, offset, end - offset, ISO_8859_1));
+    }
+
+    private static int significantDigits(byte[] buffer, int start, int end) {
+        int idx = start;
+        while (idx < end && (buffer[idx] == '0' || buffer[idx] == '.')) {
+            idx++;
+        }
+        int count = 0;
+        while (idx < end && buffer[idx] != 'e' && buffer[idx] != 'E') {
+            if (buffer[idx] != '.') {
+                count++;
+            }
+            idx++;
+        }
+        return count;
+    }
+
+    private static boolean isEightDigits(long chunk) {
+        return ((chunk & 0xF0F0F0F0F0F0F0F0L) | (((chunk + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4)) == 0x3333333333333333L;
+    }
+
+    private static long parseEightDigits(long chunk) {
+        chunk = (chunk & 0x0F0F0F0F0F0F0F0FL) * 2561 >>> 8;
+        chunk = (chunk & 0x00FF00FF00FF00FFL) * 6553601 >>> 16;
+        return (chunk & 0x0000FFFF0000FFFFL) * 42949672960001L >>> 32;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static IllegalArgumentException invalidNumber(int offset) {
+        return new IllegalArgumentException("Invalid number. Malformed number at position " + offset + ".");
+    }
+}
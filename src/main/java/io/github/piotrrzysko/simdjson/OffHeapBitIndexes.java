@@ -0,0 +1,200 @@
+package io.github.piotrrzysko.simdjson;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/*
+    BitIndexes stored outside the Java heap, in a direct buffer.
+
+    The positions are not scanned by the GC and don't count towards the heap size, which matters when hundreds of
+    pooled instances with 128K+ entries each are kept alive. allocate carves many instances out of a single direct
+    buffer, so that they are allocated (and freed, once all of them are unreachable) at once.
+
+    The write/read contract is the same as for BitIndexes: a single writer (the indexer) and a single reader. In
+    addition, publish returns a read-only view of the written positions, which can be handed off to another thread
+    without copying. The view shares memory with this instance, so it's valid only until the next reset, and it has to
+    be handed off through something that establishes a happens-before relation (e.g. a concurrent queue).
+
+    A put per position is bounds-checked separately and is several times slower than a store to an int[]. Therefore,
+    positions are first decoded into a small on-heap staging array and copied to the direct buffer in bulk when it
+    fills up, or before they are read.
+
+    The tags are not supported: hasTags returns false, the indexers that pass the block to write store only the
+    positions, and getTag, getTag(idx) and tagsToArray throw UnsupportedOperationException. Use BitIndexes with tags
+    if stage 2 needs them.
+ */
+public class OffHeapBitIndexes extends BitIndexes {
+
+    private static final int STAGING_SIZE = 1024;
+
+    private final IntBuffer indexes;
+    // The staging array has room for a whole block above STAGING_SIZE, so that write doesn't check its bounds.
+    private final int[] staging = new int[STAGING_SIZE + 64];
+
+    private int flushedIdx;
+    private int stagingIdx;
+    private int readIdx;
+
+    public OffHeapBitIndexes(int capacity) {
+        this(ByteBuffer.allocateDirect(checkedByteSize(1, capacity)).order(ByteOrder.nativeOrder()).asIntBuffer());
+    }
+
+    private OffHeapBitIndexes(IntBuffer indexes) {
+        this.indexes = indexes;
+    }
+
+    public static OffHeapBitIndexes[] allocate(int count, int capacity) {
+        IntBuffer buffer = ByteBuffer.allocateDirect(checkedByteSize(count, capacity))
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        OffHeapBitIndexes[] result = new OffHeapBitIndexes[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = new OffHeapBitIndexes(buffer.slice(i * capacity, capacity));
+        }
+        return result;
+    }
+
+    private static int checkedByteSize(int count, int capacity) {
+        long size = (long) count * capacity * Integer.BYTES;
+        if (count < 0 || capacity < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A direct buffer cannot hold " + count + " x " + capacity + " indexes.");
+        }
+        return (int) size;
+    }
+
+    @Override
+    public void write(int blockIndex, long bits) {
+        if (bits == 0) {
+            return;
+        }
+
+        int idx = blockIndex - 64;
+        int cnt = Long.bitCount(bits);
+        for (int i = 0; i < 8; i++) {
+            staging[i + stagingIdx] = idx + Long.numberOfTrailingZeros(bits);
+            bits = bits & (bits - 1);
+        }
+
+        if (cnt > 8) {
+            for (int i = 8; i < 16; i++) {
+                staging[i + stagingIdx] = idx + Long.numberOfTrailingZeros(bits);
+                bits = bits & (bits - 1);
+            }
+            if (cnt > 16) {
+                int i = 16;
+                do {
+                    staging[i + stagingIdx] = idx + Long.numberOfTrailingZeros(bits);
+                    bits = bits & (bits - 1);
+                    i++;
+                } while (i < cnt);
+            }
+        }
+        stagingIdx += cnt;
+        if (stagingIdx >= STAGING_SIZE) {
+            flush();
+        }
+    }
+
+    // The tags are not stored, so the block is not needed.
+    @Override
+    public void write(int blockIndex, long bits, byte[] block, int blockOffset) {
+        write(blockIndex, bits);
+    }
+
+    private void flush() {
+        indexes.put(flushedIdx, staging, 0, stagingIdx);
+        flushedIdx += stagingIdx;
+        stagingIdx = 0;
+    }
+
+    @Override
+    public void advance() {
+        readIdx++;
+    }
+
+    @Override
+    public int getAndAdvance() {
+        if (stagingIdx != 0) {
+            flush();
+        }
+        assert readIdx <= flushedIdx;
+        return indexes.get(readIdx++);
+    }
+
+    // The staging array is flushed by finish, so that concurrent readers don't modify the buffer.
+    @Override
+    public int get(int idx) {
+        assert idx < flushedIdx;
+        return indexes.get(idx);
+    }
+
+    @Override
+    public byte getTag() {
+        throw tagsNotSupported();
+    }
+
+    @Override
+    public byte getTag(int idx) {
+        throw tagsNotSupported();
+    }
+
+    @Override
+    public byte[] tagsToArray() {
+        throw tagsNotSupported();
+    }
+
+    private static UnsupportedOperationException tagsNotSupported() {
+        return new UnsupportedOperationException("OffHeapBitIndexes don't store the tags.");
+    }
+
+    @Override
+    public int getLast() {
+        if (stagingIdx != 0) {
+            flush();
+        }
+        return indexes.get(flushedIdx - 1);
+    }
+
+    @Override
+    public int size() {
+        return flushedIdx + stagingIdx;
+    }
+
+    @Override
+    public int[] toArray() {
+        if (stagingIdx != 0) {
+            flush();
+        }
+        int[] result = new int[flushedIdx];
+        indexes.get(0, result);
+        return result;
+    }
+
+    @Override
+    public boolean isEnd() {
+        return size() == readIdx;
+    }
+
+    @Override
+    public void finish() {
+        if (stagingIdx != 0) {
+            flush();
+        }
+        indexes.put(flushedIdx, 0);
+    }
+
+    @Override
+    public void reset() {
+        flushedIdx = 0;
+        stagingIdx = 0;
+        readIdx = 0;
+    }
+
+    public IntBuffer publish() {
+        if (stagingIdx != 0) {
+            flush();
+        }
+        return indexes.slice(0, flushedIdx).asReadOnlyBuffer();
+    }
+}
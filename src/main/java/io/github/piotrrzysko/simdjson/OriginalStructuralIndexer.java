@@ -23,7 +23,7 @@ import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
 
     Based on the async-profiler output (results/original-alloc.html) most of the allocations are caused by ByteVector::fromArray.
  */
-public class OriginalStructuralIndexer {
+public class OriginalStructuralIndexer implements StructuralIndexer {
 
     private static final int STEP_SIZE = 64;
     private static final byte BACKSLASH = (byte) '\\';
@@ -55,9 +55,10 @@ public class OriginalStructuralIndexer {
     private long prevScalar;
 
     public OriginalStructuralIndexer(BitIndexes bitIndexes) {
-        this.bitIndexes = bitIndexes;
+        this.bitIndexes = BitIndexes.requireNoTags(bitIndexes);
     }
 
+    @Override
     public void index(byte[] buffer, int length) {
         reset();
 
@@ -0,0 +1,166 @@
+package io.github.piotrrzysko.simdjson;
+
+import io.github.piotrrzysko.simdjson.NdjsonProjection.ColumnType;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    A column of values of a single field projected from NDJSON records by NdjsonProjection. Depending on the type,
+    the values are stored in a long[], a double[], or, for strings, as UTF-8 bytes with an offset per row (the string of
+    row i consists of the bytes from getOffsets()[i] to getOffsets()[i + 1]). Rows in which the field is missing or
+    null are marked in the null bitmap (bit i % 64 of getNulls()[i / 64]), and their values are 0 or empty strings.
+
+    The arrays grow by doubling and are returned without copying, so they may be longer than the number of rows.
+ */
+public final class ProjectedColumn {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String path;
+    private final ColumnType type;
+
+    private long[] longs;
+    private double[] doubles;
+    private int[] offsets;
+    private byte[] bytes;
+    private long[] nulls;
+    private int size;
+
+    ProjectedColumn(String path, ColumnType type) {
+        this.path = path;
+        this.type = type;
+        switch (type) {
+            case LONG -> longs = new long[INITIAL_CAPACITY];
+            case DOUBLE -> doubles = new double[INITIAL_CAPACITY];
+            case STRING -> {
+                offsets = new int[INITIAL_CAPACITY + 1];
+                bytes = new byte[16 * INITIAL_CAPACITY];
+            }
+        }
+        nulls = new long[INITIAL_CAPACITY / 64];
+    }
+
+    void appendLong(long value) {
+        ensureCapacity(size + 1);
+        longs[size++] = value;
+    }
+
+    void appendDouble(double value) {
+        ensureCapacity(size + 1);
+        doubles[size++] = value;
+    }
+
+    void appendString(byte[] src, int length) {
+        ensureCapacity(size + 1);
+        int end = offsets[size] + length;
+        ensureBytesCapacity(end);
+        System.arraycopy(src, 0, bytes, offsets[size], length);
+        offsets[++size] = end;
+    }
+
+    void appendNull() {
+        ensureCapacity(size + 1);
+        nulls[size >>> 6] |= 1L << size;
+        if (type == ColumnType.STRING) {
+            offsets[size + 1] = offsets[size];
+        }
+        size++;
+    }
+
+    // Appends all rows of the other column, which has to be of the same type.
+    void appendAll(ProjectedColumn other) {
+        ensureCapacity(size + other.size);
+        switch (type) {
+            case LONG -> System.arraycopy(other.longs, 0, longs, size, other.size);
+            case DOUBLE -> System.arraycopy(other.doubles, 0, doubles, size, other.size);
+            case STRING -> {
+                int base = offsets[size];
+                int otherBytes = other.offsets[other.size];
+                ensureBytesCapacity(base + otherBytes);
+                System.arraycopy(other.bytes, 0, bytes, base, otherBytes);
+                for (int i = 1; i <= other.size; i++) {
+                    offsets[size + i] = base + other.offsets[i];
+                }
+            }
+        }
+        for (int word = 0; word < (other.size + 63) >>> 6; word++) {
+            long bits = other.nulls[word];
+            while (bits != 0) {
+                int row = size + (word << 6) + Long.numberOfTrailingZeros(bits);
+                nulls[row >>> 6] |= 1L << row;
+                bits &= bits - 1;
+            }
+        }
+        size += other.size;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isNull(int row) {
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public long getLong(int row) {
+        return longs[row];
+    }
+
+    public double getDouble(int row) {
+        return doubles[row];
+    }
+
+    public String getString(int row) {
+        return new String(bytes, offsets[row], offsets[row + 1] - offsets[row], UTF_8);
+    }
+
+    public long[] getLongs() {
+        return longs;
+    }
+
+    public double[] getDoubles() {
+        return doubles;
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public long[] getNulls() {
+        return nulls;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= nulls.length << 6) {
+            return;
+        }
+        int capacity = Math.max(rows, 2 * (nulls.length << 6));
+        nulls = Arrays.copyOf(nulls, (capacity + 63) >>> 6);
+        capacity = nulls.length << 6;
+        switch (type) {
+            case LONG -> longs = Arrays.copyOf(longs, capacity);
+            case DOUBLE -> doubles = Arrays.copyOf(doubles, capacity);
+            case STRING -> offsets = Arrays.copyOf(offsets, capacity + 1);
+        }
+    }
+
+    private void ensureBytesCapacity(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, 2 * bytes.length));
+        }
+    }
+}
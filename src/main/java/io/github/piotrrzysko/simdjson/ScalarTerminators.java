@@ -0,0 +1,27 @@
+package io.github.piotrrzysko.simdjson;
+
+/*
+    The bytes that can follow a number or a literal (true, false or null): whitespace, a comma, a colon and the
+    closing brackets. Shared by NumberParser and JsonValidator, which check that a scalar ends where it should without
+    consulting the structural indexes. A lookup in a table is a single load, whereas a chain of comparisons is a
+    sequence of branches, one per terminator.
+ */
+final class ScalarTerminators {
+
+    private static final boolean[] TERMINATORS = new boolean[256];
+
+    static {
+        for (char c : new char[]{' ', '\t', '\n', '\r', ',', ':', ']', '}'}) {
+            TERMINATORS[c] = true;
+        }
+    }
+
+    private ScalarTerminators() {
+    }
+
+    // Returns true if a scalar ending before idx is properly terminated, i.e. idx is the end of the input or the byte
+    // at idx is a terminator.
+    static boolean isScalarEnd(byte[] buffer, int length, int idx) {
+        return idx == length || TERMINATORS[buffer[idx] & 0xFF];
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import java.util.Arrays;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.ByteVector.SPECIES_512;
+
+/*
+    Indexes a document split into a sequence of non-contiguous fragments (e.g. a chain of pooled network buffers)
+    without concatenating them. The positions written to BitIndexes are global, i.e. they are offsets in the
+    concatenation of the fragments.
+
+    The step method and the carried state are the same as in InlinedStepStructuralIndexer (the string scanning and the
+    characters classification are shared through BlockScanner and CharacterClassifier). The blocks that lie entirely
+    within a fragment are loaded directly from it. The bytes at the end of a fragment that don't make up a whole block
+    are copied to a scratch block, which is completed with the bytes from the beginning of the next fragment(s) and
+    processed as any other block. So at most 63 bytes per fragment are copied.
+
+    The fragments have to be byte[] slices. MemorySegment (java.lang.foreign) is still a preview API in JDK 21.
+ */
+public class ScatteredStructuralIndexer implements StructuralIndexer {
+
+    private static final int STEP_SIZE = 64;
+    private static final byte SPACE = 0x20;
+
+    private final BitIndexes bitIndexes;
+    private final CharacterClassifier classifier = new CharacterClassifier(CharacterClassification.REARRANGE);
+    private final byte[] scratchBlock = new byte[STEP_SIZE];
+
+    private long prevInString;
+    private long prevEscaped;
+    private long prevStructurals;
+    private long unescapedCharsError;
+    private long prevScalar;
+    private int blockIndex;
+    private int pending;
+
+    public ScatteredStructuralIndexer(BitIndexes bitIndexes) {
+        this.bitIndexes = BitIndexes.requireNoTags(bitIndexes);
+    }
+
+    @Override
+    public void index(byte[] buffer, int length) {
+        reset();
+        append(buffer, 0, length);
+        finish();
+    }
+
+    public void index(byte[][] buffers, int[] offsets, int[] lengths, int count) {
+        reset();
+        for (int i = 0; i < count; i++) {
+            append(buffers[i], offsets[i], lengths[i]);
+        }
+        finish();
+    }
+
+    private void append(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        if (pending > 0) {
+            int n = Math.min(STEP_SIZE - pending, length);
+            System.arraycopy(buffer, offset, scratchBlock, pending, n);
+            pending += n;
+            offset += n;
+            if (pending < STEP_SIZE) {
+                return;
+            }
+            step(scratchBlock, 0, blockIndex);
+            blockIndex += STEP_SIZE;
+            pending = 0;
+        }
+
+        // Using SPECIES_512 here is not a mistake. Each iteration of the below loop processes two 256-bit chunks,
+        // so effectively it processes 512 bits at once.
+        int loopBound = offset + SPECIES_512.loopBound(end - offset);
+        for (; offset < loopBound; offset += STEP_SIZE) {
+            step(buffer, offset, blockIndex);
+            blockIndex += STEP_SIZE;
+        }
+
+        pending = end - offset;
+        System.arraycopy(buffer, offset, scratchBlock, 0, pending);
+    }
+
+    private void step(byte[] buffer, int offset, int blockIndex) {
+        ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, buffer, offset);
+        ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, buffer, offset + 32);
+
+        // string scanning
+        long backslash = BlockScanner.backslash(chunk0, chunk1);
+        long escaped = BlockScanner.escaped(backslash, prevEscaped);
+        prevEscaped = BlockScanner.nextEscaped(backslash, prevEscaped);
+
+        long unescaped = BlockScanner.unescaped(chunk0, chunk1);
+        long quote = BlockScanner.quote(chunk0, chunk1) & ~escaped;
+
+        long inString = BlockScanner.inString(quote, prevInString);
+        prevInString = inString >> 63;
+
+        // characters classification
+        classifier.classify(chunk0, chunk1);
+        long whitespace = classifier.whitespace;
+        long op = classifier.op;
+
+        // finish
+        long scalar = ~(op | whitespace);
+        long nonQuoteScalar = scalar & ~quote;
+        long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+        prevScalar = nonQuoteScalar >>> 63;
+        long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+        long potentialStructuralStart = op | potentialScalarStart;
+        bitIndexes.write(blockIndex, prevStructurals);
+        prevStructurals = potentialStructuralStart & ~(inString ^ quote);
+        unescapedCharsError |= unescaped & inString;
+    }
+
+    private void reset() {
+        bitIndexes.reset();
+        prevInString = 0;
+        prevEscaped = 0;
+        prevStructurals = 0;
+        unescapedCharsError = 0;
+        prevScalar = 0;
+        blockIndex = 0;
+        pending = 0;
+    }
+
+    private void finish() {
+        // The last block is always processed (even if it's empty), just like the remainder in the other indexers.
+        Arrays.fill(scratchBlock, pending, STEP_SIZE, SPACE);
+        step(scratchBlock, 0, blockIndex);
+        blockIndex += STEP_SIZE;
+
+        bitIndexes.write(blockIndex, prevStructurals);
+        bitIndexes.finish();
+        if (prevInString != 0) {
+            throw new IllegalArgumentException("Unclosed string. A string is opened, but never closed.");
+        }
+        if (unescapedCharsError != 0) {
+            throw new IllegalArgumentException("Unescaped characters. Within strings, there are characters that should be escaped.");
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+
+/*
+    Unescapes JSON strings starting at positions of opening quotes taken from BitIndexes.
+
+    The string is processed 32 bytes at a time: each chunk is stored into the output buffer as it is, and then the
+    positions of the closing quote and the first backslash are found with vector compares. If the quote comes first,
+    the string is complete. If the backslash comes first, only the bytes preceding it are kept, the escape sequence is
+    decoded and the loop continues right after it. Hence, strings without escapes are copied with plain vector stores.
+    (This is the approach of parse_string from https://github.com/simdjson/simdjson.)
+
+    decodeString additionally checks if the string is ASCII-only and escape-free. Such strings are turned into
+    Latin-1 (compact) Strings straight from the input, without going through the output buffer and UTF-8 decoding.
+ */
+public class StringDecoder {
+
+    private static final int STEP_SIZE = 32;
+    private static final byte BACKSLASH = (byte) '\\';
+    private static final byte QUOTE = (byte) '"';
+    private static final byte[] ESCAPES = new byte[256];
+    private static final int[] HEX_DIGITS = new int[256];
+
+    static {
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['/'] = '/';
+        ESCAPES['b'] = '\b';
+        ESCAPES['f'] = '\f';
+        ESCAPES['n'] = '\n';
+        ESCAPES['r'] = '\r';
+        ESCAPES['t'] = '\t';
+
+        Arrays.fill(HEX_DIGITS, -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_DIGITS['0' + i] = i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_DIGITS['a' + i] = 10 + i;
+            HEX_DIGITS['A' + i] = 10 + i;
+        }
+    }
+
+    private final byte[] lastChunk = new byte[STEP_SIZE];
+    private byte[] decoded;
+
+    public StringDecoder() {
+        this(1024);
+    }
+
+    public StringDecoder(int capacity) {
+        this.decoded = new byte[Math.max(capacity, STEP_SIZE)];
+    }
+
+    // Decodes all strings (both keys and values) among the remaining structurals of bitIndexes. Returns the number of
+    // decoded strings.
+    public int decodeStrings(BitIndexes bitIndexes, byte[] buffer, int length, String[] output) {
+        int count = 0;
+        while (!bitIndexes.isEnd()) {
+            int idx = bitIndexes.getAndAdvance();
+            if (buffer[idx] == QUOTE) {
+                output[count++] = decodeString(buffer, length, idx);
+            }
+        }
+        return count;
+    }
+
+    // The offset is the position of the opening quote.
+    public String decodeString(byte[] buffer, int length, int offset) {
+        int start = offset + 1;
+        int src = start;
+        boolean ascii = true;
+        while (true) {
+            ByteVector chunk = load(buffer, length, src);
+            long quote = chunk.eq(QUOTE).toLong();
+            long backslash = chunk.eq(BACKSLASH).toLong();
+            long nonAscii = chunk.lt((byte) 0).toLong();
+            if (((backslash - 1) & quote) != 0) {
+                int end = src + Long.numberOfTrailingZeros(quote);
+                if (ascii && (nonAscii & (quote ^ (quote - 1))) == 0) {
+                    return new String(buffer, start, end - start, ISO_8859_1);
+                }
+                return new String(buffer, start, end - start, UTF_8);
+            }
+            if (backslash != 0) {
+                break;
+            }
+            ascii &= nonAscii == 0;
+            src = advance(src, length, offset);
+        }
+        int decodedLength = decode(buffer, length, offset);
+        return new String(decoded, 0, decodedLength, UTF_8);
+    }
+
+    // Unescapes the string into the internal buffer (see getDecoded) and returns the number of decoded bytes. The
+    // offset is the position of the opening quote.
+    public int decode(byte[] buffer, int length, int offset) {
+        int src = offset + 1;
+        int dst = 0;
+        while (true) {
+            // An escape sequence found in this chunk can produce up to 4 bytes.
+            ensureCapacity(dst + STEP_SIZE + 4);
+            ByteVector chunk = load(buffer, length, src);
+            chunk.intoArray(decoded, dst);
+            long quote = chunk.eq(QUOTE).toLong();
+            long backslash = chunk.eq(BACKSLASH).toLong();
+            if (((backslash - 1) & quote) != 0) {
+                return dst + Long.numberOfTrailingZeros(quote);
+            }
+            if (((quote - 1) & backslash) != 0) {
+                int shift = Long.numberOfTrailingZeros(backslash);
+                src += shift;
+                dst += shift;
+                if (src + 1 >= length) {
+                    throw unclosedString();
+                }
+                byte escape = buffer[src + 1];
+                if (escape == 'u') {
+                    int written = unescapeUnicode(buffer, length, src, dst);
+                    src += written >>> 8;
+                    dst += written & 0xFF;
+                } else {
+                    byte unescaped = ESCAPES[escape & 0xFF];
+                    if (unescaped == 0) {
+                        throw new IllegalArgumentException("Invalid escape sequence. Unknown escape character at position " + (src + 1) + ".");
+                    }
+                    decoded[dst] = unescaped;
+                    src += 2;
+                    dst += 1;
+                }
+            } else {
+                src = advance(src, length, offset);
+                dst += STEP_SIZE;
+            }
+        }
+    }
+
+    public byte[] getDecoded() {
+        return decoded;
+    }
+
+    // Returns the number of consumed input bytes in the upper bits, and the number of written bytes in the lowest byte.
+    private int unescapeUnicode(byte[] buffer, int length, int src, int dst) {
+        int codePoint = hex4(buffer, length, src + 2);
+        int consumed = 6;
+        if (codePoint >= 0xD800 && codePoint < 0xDC00) {
+            if (src + 7 >= length || buffer[src + 6] != BACKSLASH || buffer[src + 7] != 'u') {
+                throw invalidSurrogate(src);
+            }
+            int low = hex4(buffer, length, src + 8);
+            if (low < 0xDC00 || low > 0xDFFF) {
+                throw invalidSurrogate(src);
+            }
+            codePoint = Character.toCodePoint((char) codePoint, (char) low);
+            consumed = 12;
+        } else if (codePoint >= 0xDC00 && codePoint <= 0xDFFF) {
+            throw invalidSurrogate(src);
+        }
+        return (consumed << 8) | writeUtf8(codePoint, dst);
+    }
+
+    private int hex4(byte[] buffer, int length, int idx) {
+        if (idx + 4 > length) {
+            throw unclosedString();
+        }
+        int value = (HEX_DIGITS[buffer[idx] & 0xFF] << 12)
+                | (HEX_DIGITS[buffer[idx + 1] & 0xFF] << 8)
+                | (HEX_DIGITS[buffer[idx + 2] & 0xFF] << 4)
+                | HEX_DIGITS[buffer[idx + 3] & 0xFF];
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid escape sequence. Expected four hex digits at position " + idx + ".");
+        }
+        return value;
+    }
+
+    private int writeUtf8(int codePoint, int dst) {
+        if (codePoint < 0x80) {
+            decoded[dst] = (byte) codePoint;
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            decoded[dst] = (byte) (0xC0 | (codePoint >>> 6));
+            decoded[dst + 1] = (byte) (0x80 | (codePoint & 0x3F));
+            return 2;
+        }
+        if (codePoint < 0x10000) {
+            decoded[dst] = (byte) (0xE0 | (codePoint >>> 12));
+            decoded[dst + 1] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+            decoded[dst + 2] = (byte) (0x80 | (codePoint & 0x3F));
+            return 3;
+        }
+        decoded[dst] = (byte) (0xF0 | (codePoint >>> 18));
+        decoded[dst + 1] = (byte) (0x80 | ((codePoint >>> 12) & 0x3F));
+        decoded[dst + 2] = (byte) (0x80 | ((codePoint >>> 6) & 0x3F));
+        decoded[dst + 3] = (byte) (0x80 | (codePoint & 0x3F));
+        return 4;
+    }
+
+    private ByteVector load(byte[] buffer, int length, int src) {
+        if (src + STEP_SIZE <= length) {
+            return ByteVector.fromArray(SPECIES_256, buffer, src);
+        }
+        // The padding must not contain quotes, so that the end of the input is not taken for the end of the string.
+        Arrays.fill(lastChunk, (byte) 0);
+        if (src < length) {
+            System.arraycopy(buffer, src, lastChunk, 0, length - src);
+        }
+        return ByteVector.fromArray(SPECIES_256, lastChunk, 0);
+    }
+
+    private static int advance(int src, int length, int offset) {
+        if (src + STEP_SIZE >= length) {
+            throw new IllegalArgumentException("Unclosed string. The string opened at position " + offset + " is never closed.");
+        }
+        return src + STEP_SIZE;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > decoded.length) {
+            decoded = Arrays.copyOf(decoded, Math.max(capacity, 2 * decoded.length));
+        }
+    }
+
+    private static IllegalArgumentException unclosedString() {
+        return new IllegalArgumentException("Unclosed string. A string is opened, but never closed.");
+    }
+
+    private static IllegalArgumentException invalidSurrogate(int idx) {
+        return new IllegalArgumentException("Invalid escape sequence. Unpaired surrogate at position " + idx + ".");
+    }
+}
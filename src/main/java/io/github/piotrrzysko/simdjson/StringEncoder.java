@@ -0,0 +1,122 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
+
+/*
+    Escapes UTF-8 strings for the output, i.e. the reverse of StringDecoder.
+
+    The string is processed 32 bytes at a time: each chunk is stored into the output buffer as it is, and then the
+    bytes that have to be escaped (quotes, backslashes and control characters) are found with the same vector compares
+    that the structural indexers use. If there are none, the whole chunk is kept. Otherwise, only the bytes preceding
+    the first of them are kept, the escape sequence is written and the loop continues right after the escaped byte.
+    Hence, runs of bytes that don't need escaping, including multibyte UTF-8 characters, are copied with plain vector
+    stores.
+
+    Quotes, backslashes, \b, \f, \n, \r and \t are escaped with a backslash, and the remaining control characters as
+    \\u00XX. Nothing else is escaped (the input is expected to be valid UTF-8).
+ */
+public class StringEncoder {
+
+    private static final int STEP_SIZE = 32;
+    // The longest escape sequence is \\u00XX.
+    private static final int MAX_ESCAPE_LENGTH = 6;
+    private static final byte BACKSLASH = (byte) '\\';
+    private static final byte QUOTE = (byte) '"';
+    private static final byte LAST_CONTROL_CHARACTER = (byte) 0x1F;
+    private static final byte[] ESCAPES = new byte[256];
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(US_ASCII);
+
+    static {
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+    }
+
+    // The padding must not contain bytes that have to be escaped.
+    private final byte[] lastChunk = new byte[STEP_SIZE];
+    private byte[] encoded;
+
+    public StringEncoder() {
+        this(1024);
+    }
+
+    public StringEncoder(int capacity) {
+        this.encoded = new byte[Math.max(capacity, STEP_SIZE + MAX_ESCAPE_LENGTH + 1)];
+    }
+
+    // Writes the bytes from the given range, escaped and surrounded by quotes, into the internal buffer (see
+    // getEncoded), and returns the number of written bytes.
+    public int encode(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        int src = offset;
+        encoded[0] = QUOTE;
+        int dst = 1;
+        while (src < end) {
+            // The chunk can be followed by an escape sequence and the closing quote.
+            ensureCapacity(dst + STEP_SIZE + MAX_ESCAPE_LENGTH + 1);
+            ByteVector chunk = load(buffer, src, end);
+            chunk.intoArray(encoded, dst);
+            long escaped = chunk.eq(QUOTE)
+                    .or(chunk.eq(BACKSLASH))
+                    .or(chunk.compare(UNSIGNED_LE, LAST_CONTROL_CHARACTER))
+                    .toLong();
+            if (escaped == 0) {
+                int step = Math.min(STEP_SIZE, end - src);
+                src += step;
+                dst += step;
+            } else {
+                int shift = Long.numberOfTrailingZeros(escaped);
+                src += shift;
+                dst += shift;
+                dst = writeEscape(buffer[src], dst);
+                src++;
+            }
+        }
+        encoded[dst] = QUOTE;
+        return dst + 1;
+    }
+
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    private int writeEscape(byte b, int dst) {
+        encoded[dst] = BACKSLASH;
+        byte escape = ESCAPES[b & 0xFF];
+        if (escape != 0) {
+            encoded[dst + 1] = escape;
+            return dst + 2;
+        }
+        encoded[dst + 1] = 'u';
+        encoded[dst + 2] = '0';
+        encoded[dst + 3] = '0';
+        encoded[dst + 4] = HEX_DIGITS[(b >>> 4) & 0xF];
+        encoded[dst + 5] = HEX_DIGITS[b & 0xF];
+        return dst + 6;
+    }
+
+    private ByteVector load(byte[] buffer, int src, int end) {
+        if (src + STEP_SIZE <= end) {
+            return ByteVector.fromArray(SPECIES_256, buffer, src);
+        }
+        Arrays.fill(lastChunk, (byte) ' ');
+        System.arraycopy(buffer, src, lastChunk, 0, end - src);
+        return ByteVector.fromArray(SPECIES_256, lastChunk, 0);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > encoded.length) {
+            encoded = Arrays.copyOf(encoded, Math.max(capacity, 2 * encoded.length));
+        }
+    }
+}
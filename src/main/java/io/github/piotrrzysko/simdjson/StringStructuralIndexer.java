@@ -0,0 +1,157 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ShortVector;
+
+import static jdk.incubator.vector.ShortVector.SPECIES_256;
+import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
+
+/*
+    Indexes JSON held in a String, without encoding it to UTF-8 first. The positions written to BitIndexes are char
+    offsets, i.e. they can be passed directly to String::charAt or String::substring.
+
+    The internal byte array of a String (and whether it's compact LATIN1 or UTF-16) is not accessible without opening
+    java.lang, so instead of working on it, the indexer copies each 64-char block with String::getChars into a small
+    reusable array and classifies chars with ShortVector (four 16-lane chunks per block). For LATIN1 strings, getChars
+    is an intrinsified inflating copy. The copied block stays in L1, so the only cost of the copy is the copy itself,
+    and nothing is allocated.
+
+    All structural characters are ASCII, so any char above 0x7F (including surrogates) is just a part of a string or a
+    scalar. Since the nibble-table lookup would need a 16-bit rearrange, which is not intrinsified on AVX2, the chars
+    are classified with a chain of comparisons. It gives exactly the same masks as the tables used by the other
+    indexers (including 0x1A and 0x0C being classified as ops).
+
+    Apart from that, the block loop is the same as in InlinedIndexStructuralIndexer. The escaped and inString masks
+    are computed from the char masks by BlockScanner.
+ */
+public class StringStructuralIndexer {
+
+    private static final int STEP_SIZE = 64;
+    private static final short BACKSLASH = '\\';
+    private static final short QUOTE = '"';
+    private static final short LAST_CONTROL_CHARACTER = 0x1F;
+
+    private final BitIndexes bitIndexes;
+    private final char[] block = new char[STEP_SIZE];
+
+    // The masks of the current block computed by classify().
+    private long backslashMask;
+    private long quoteMask;
+    private long unescapedMask;
+    private long whitespaceMask;
+    private long opMask;
+
+    public StringStructuralIndexer(BitIndexes bitIndexes) {
+        this.bitIndexes = BitIndexes.requireNoTags(bitIndexes);
+    }
+
+    public void index(String json) {
+        bitIndexes.reset();
+
+        long prevInString = 0;
+        long prevEscaped = 0;
+        long prevStructurals = 0;
+        long unescapedCharsError = 0;
+        long prevScalar = 0;
+
+        int length = json.length();
+        int loopBound = length - length % STEP_SIZE;
+        int blockIndex = 0;
+        for (int offset = 0; offset <= loopBound; offset += STEP_SIZE) {
+            if (offset == loopBound) {
+                json.getChars(offset, length, block, 0);
+                for (int i = length - offset; i < STEP_SIZE; i++) {
+                    block[i] = ' ';
+                }
+            } else {
+                json.getChars(offset, offset + STEP_SIZE, block, 0);
+            }
+            classify();
+
+            // string scanning
+            long backslash = backslashMask;
+
+            long escaped = BlockScanner.escaped(backslash, prevEscaped);
+            prevEscaped = BlockScanner.nextEscaped(backslash, prevEscaped);
+
+            long unescaped = unescapedMask;
+            long quote = quoteMask & ~escaped;
+
+            long inString = BlockScanner.inString(quote, prevInString);
+            prevInString = inString >> 63;
+
+            // characters classification
+            long whitespace = whitespaceMask;
+            long op = opMask;
+
+            // finish
+            long scalar = ~(op | whitespace);
+            long nonQuoteScalar = scalar & ~quote;
+            long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+            prevScalar = nonQuoteScalar >>> 63;
+            long potentialScalarStart = scalar & ~followsNonQuoteScalar;
+            long potentialStructuralStart = op | potentialScalarStart;
+            bitIndexes.write(blockIndex, prevStructurals);
+            blockIndex += STEP_SIZE;
+            prevStructurals = potentialStructuralStart & ~(inString ^ quote);
+            unescapedCharsError |= unescaped & inString;
+        }
+
+        bitIndexes.write(blockIndex, prevStructurals);
+        bitIndexes.finish();
+        if (prevInString != 0) {
+            throw new IllegalArgumentException("Unclosed string. A string is opened, but never closed.");
+        }
+        if (unescapedCharsError != 0) {
+            throw new IllegalArgumentException("Unescaped characters. Within strings, there are characters that should be escaped.");
+        }
+    }
+
+    // With four chunks per block, the vector operations produce so many IR nodes that C2 stops inlining the calls
+    // in the index method (NodeCountInliningCutoff), and then the vectors are boxed and allocated. Therefore,
+    // the classification is kept in a separate method, which classifies half of a block at a time, so that all
+    // vectors are local to a small compilation unit, and only the masks leave it.
+    private void classify() {
+        backslashMask = 0;
+        quoteMask = 0;
+        unescapedMask = 0;
+        whitespaceMask = 0;
+        opMask = 0;
+        classifyHalf(0);
+        classifyHalf(32);
+    }
+
+    private void classifyHalf(int offset) {
+        ShortVector chunk0 = ShortVector.fromCharArray(SPECIES_256, block, offset);
+        ShortVector chunk1 = ShortVector.fromCharArray(SPECIES_256, block, offset + 16);
+
+        backslashMask |= combine(chunk0.eq(BACKSLASH).toLong(), chunk1.eq(BACKSLASH).toLong()) << offset;
+        quoteMask |= combine(chunk0.eq(QUOTE).toLong(), chunk1.eq(QUOTE).toLong()) << offset;
+        unescapedMask |= combine(
+                chunk0.compare(UNSIGNED_LE, LAST_CONTROL_CHARACTER).toLong(),
+                chunk1.compare(UNSIGNED_LE, LAST_CONTROL_CHARACTER).toLong()
+        ) << offset;
+        whitespaceMask |= combine(whitespace(chunk0), whitespace(chunk1)) << offset;
+        opMask |= combine(op(chunk0), op(chunk1)) << offset;
+    }
+
+    private static long whitespace(ShortVector chunk) {
+        return chunk.eq((short) ' ')
+                .or(chunk.eq((short) '\t'))
+                .or(chunk.eq((short) '\n'))
+                .or(chunk.eq((short) '\r'))
+                .toLong();
+    }
+
+    private static long op(ShortVector chunk) {
+        ShortVector curlified = chunk.or((short) 0x20);
+        return curlified.eq((short) ':')
+                .or(curlified.eq((short) ','))
+                .or(curlified.eq((short) '{'))
+                .or(curlified.eq((short) '}'))
+                .toLong();
+    }
+
+    private static long combine(long mask0, long mask1) {
+        return mask0 | (mask1 << 16);
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.piotrrzysko.simdjson;
+
+/*
+    An immutable snapshot of the positions written to BitIndexes by a single index call. Unlike BitIndexes, which is
+    reused by its indexer, an instance of this class can be shared between threads.
+ */
+public final class StructuralIndex {
+
+    private final int[] positions;
+
+    StructuralIndex(int[] positions) {
+        this.positions = positions;
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    public int get(int idx) {
+        return positions[idx];
+    }
+
+    public int[] toArray() {
+        return positions.clone();
+    }
+
+    long sizeInBytes() {
+        return (long) positions.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.piotrrzysko.simdjson;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    A size-bounded LRU cache of structural indexes keyed by the exact input bytes.
+
+    The size is measured in bytes and covers both the copy of the input that is kept to verify hits (a matching hash
+    alone is not enough) and the cached positions. Entries larger than the whole cache are never stored. The map is
+    guarded by a single lock because every lookup updates the access order; hashing, which is the expensive part, is
+    done by the callers before they take the lock.
+ */
+public class StructuralIndexCache {
+
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, StructuralIndex> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private long sizeInBytes;
+
+    public StructuralIndexCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("The maximum size of the cache has to be positive.");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    public StructuralIndex get(byte[] buffer, int length, long hash) {
+        Key key = new Key(buffer, length, hash);
+        StructuralIndex index;
+        lock.lock();
+        try {
+            index = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (index == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return index;
+    }
+
+    public void put(byte[] buffer, int length, long hash, StructuralIndex index) {
+        long entrySize = entrySize(length, index);
+        if (entrySize > maxBytes) {
+            return;
+        }
+        Key key = new Key(Arrays.copyOf(buffer, length), length, hash);
+        lock.lock();
+        try {
+            StructuralIndex previous = entries.put(key, index);
+            if (previous != null) {
+                sizeInBytes -= entrySize(length, previous);
+            }
+            sizeInBytes += entrySize;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, StructuralIndex>> it = entries.entrySet().iterator();
+        while (sizeInBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, StructuralIndex> eldest = it.next();
+            sizeInBytes -= entrySize(eldest.getKey().length, eldest.getValue());
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            sizeInBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int getEntryCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSizeInBytes() {
+        lock.lock();
+        try {
+            return sizeInBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private static long entrySize(int length, StructuralIndex index) {
+        return ENTRY_OVERHEAD + length + index.sizeInBytes();
+    }
+
+    private static final class Key {
+
+        private final byte[] bytes;
+        private final int length;
+        private final long hash;
+
+        private Key(byte[] bytes, int length, long hash) {
+            this.bytes = bytes;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return hash == other.hash && Arrays.equals(bytes, 0, length, other.bytes, 0, other.length);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.piotrrzysko.simdjson;
+
+/*
+    Common interface of the structural indexer variants. Each variant writes the positions of structurals in the
+    first length bytes of the buffer to the BitIndexes passed to its constructor.
+ */
+public interface StructuralIndexer {
+
+    void index(byte[] buffer, int length);
+}
@@ -0,0 +1,93 @@
+package io.github.piotrrzysko.simdjson;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/*
+    Drives a structural indexer variant to its steady state (i.e. C2-compiled code) before real traffic arrives.
+
+    Before C2 compiles the index method, the Vector API calls are executed by the interpreter or C1, which don't
+    intrinsify them, so the first calls are orders of magnitude slower than the following ones (see
+    TimeToPeakBenchmark). The warmer creates its own indexer and BitIndexes with the given factory (the JIT-compiled
+    code is shared by all instances of a class), and indexes synthetic documents until the time per call stops
+    improving or the time budget runs out.
+
+    The synthetic documents contain escapes, all kinds of whitespace, and lengths that are not multiples of 64,
+    so that all branches of the block loop are profiled. Otherwise, C2 could compile some of them as uncommon traps,
+    and the first real document taking such a branch would cause a deoptimization.
+ */
+public final class StructuralIndexerWarmer {
+
+    private static final int WINDOW_CALLS = 32;
+    private static final int MIN_CALLS = 2_000;
+    private static final int STABLE_WINDOWS = 8;
+    private static final double STABLE_TOLERANCE = 1.1;
+    private static final byte[] DOCUMENT = syntheticDocument();
+    private static final byte[] SHORT_DOCUMENT = "{\"a\":[1,\"\\\"\",true]}".getBytes(UTF_8);
+
+    private StructuralIndexerWarmer() {
+    }
+
+    public static Result warmUp(Function<BitIndexes, ? extends StructuralIndexer> factory, Duration budget) {
+        return warmUp(factory, budget, System::nanoTime);
+    }
+
+    // The clock can be replaced, so that tests can check when the time per call is considered stable.
+    static Result warmUp(Function<BitIndexes, ? extends StructuralIndexer> factory, Duration budget, LongSupplier nanoTime) {
+        BitIndexes bitIndexes = new BitIndexes(DOCUMENT.length + 64);
+        StructuralIndexer indexer = factory.apply(bitIndexes);
+
+        long start = nanoTime.getAsLong();
+        long deadline = start + budget.toNanos();
+        int calls = 0;
+        long bestWindow = Long.MAX_VALUE;
+        int stableWindows = 0;
+        while (nanoTime.getAsLong() < deadline) {
+            long windowStart = nanoTime.getAsLong();
+            for (int i = 0; i < WINDOW_CALLS; i++) {
+                indexer.index(DOCUMENT, DOCUMENT.length);
+                indexer.index(SHORT_DOCUMENT, SHORT_DOCUMENT.length);
+            }
+            long window = nanoTime.getAsLong() - windowStart;
+            calls += 2 * WINDOW_CALLS;
+
+            if (window < bestWindow) {
+                // The current window is significantly better than the best one, so the code is still being compiled.
+                stableWindows = window * STABLE_TOLERANCE < bestWindow ? 0 : stableWindows + 1;
+                bestWindow = window;
+            } else if (window <= bestWindow * STABLE_TOLERANCE) {
+                stableWindows++;
+            } else {
+                stableWindows = 0;
+            }
+            if (calls >= MIN_CALLS && stableWindows >= STABLE_WINDOWS) {
+                return new Result(calls, nanoTime.getAsLong() - start, true);
+            }
+        }
+        return new Result(calls, nanoTime.getAsLong() - start, false);
+    }
+
+    private static byte[] syntheticDocument() {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < 50; i++) {
+            sb.append("  {\"id\": ").append(i * 7919)
+                    .append(",\t\"score\": ").append(-i * 0.125e-3)
+                    .append(",\r\n   \"text\": \"line\\nbreak \\\"quoted\\\" \\\\ \\u00e9 zażółć ").append("x".repeat(i % 13))
+                    .append("\", \"flags\": [true, false, null], \"nested\": {\"empty\": [], \"obj\": {}}}")
+                    .append(i < 49 ? ",\n" : "\n");
+        }
+        sb.append(']');
+        // The length is not a multiple of 64, so that the last block is padded.
+        while (sb.length() % 64 == 0) {
+            sb.append(' ');
+        }
+        return sb.toString().getBytes(UTF_8);
+    }
+
+    // steadyState is false if the time budget ran out before the time per call stabilized.
+    public record Result(int calls, long elapsedNanos, boolean steadyState) {
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static jdk.incubator.vector.VectorOperators.ADD;
+import static jdk.incubator.vector.VectorOperators.ROL;
+
+/*
+    A non-cryptographic 64-bit hash of a byte range.
+
+    The bulk of the input is consumed 32 bytes at a time using the same ByteVector loads as the structural indexers.
+    Each chunk is reinterpreted as eight int lanes and mixed into eight independent accumulators with an xxHash32-like
+    round, so there is no dependency between lanes inside the loop. The accumulators are folded into a single value
+    with a different weight per lane (otherwise permuting 4-byte words within a chunk would not change the hash),
+    the remaining bytes are mixed in 8 bytes at a time (the last 1-7 bytes with a single, possibly overlapping, read),
+    and the result is finalized with MurmurHash3's fmix64.
+ */
+public final class VectorizedHash {
+
+    private static final int STEP_SIZE = 32;
+    private static final int PRIME_1 = 0x9E3779B1;
+    private static final int PRIME_2 = 0x85EBCA77;
+    private static final long PRIME_64 = 0x9E3779B97F4A7C15L;
+    private static final IntVector LANE_WEIGHTS = IntVector.fromArray(
+            IntVector.SPECIES_256,
+            new int[]{0x01000193, 0x27D4EB2F, 0x165667B1, 0xC2B2AE3D, 0x9E3779B1, 0x85EBCA77, 0x2545F491, 0x61C88647},
+            0
+    );
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private VectorizedHash() {
+    }
+
+    public static long hash(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        int loopBound = offset + SPECIES_256.loopBound(length);
+        long hash = PRIME_64 ^ length;
+
+        int i = offset;
+        if (i < loopBound) {
+            IntVector acc = IntVector.broadcast(IntVector.SPECIES_256, PRIME_1);
+            for (; i < loopBound; i += STEP_SIZE) {
+                IntVector lanes = ByteVector.fromArray(SPECIES_256, buffer, i).reinterpretAsInts();
+                acc = acc.add(lanes.mul(PRIME_2)).lanewise(ROL, 13).mul(PRIME_1);
+            }
+            hash = mix(hash, acc.mul(LANE_WEIGHTS).reduceLanes(ADD));
+        }
+        for (; i + 8 <= end; i += 8) {
+            hash = mix(hash, (long) LONG_VIEW.get(buffer, i));
+        }
+        // The remaining 1-7 bytes are mixed in at once. Reads may overlap the bytes that were already mixed in, since
+        // the length is a part of the hash.
+        int remaining = end - i;
+        if (remaining > 0) {
+            if (length >= 8) {
+                hash = mix(hash, (long) LONG_VIEW.get(buffer, end - 8));
+            } else if (remaining >= 4) {
+                hash = mix(hash, ((long) (int) INT_VIEW.get(buffer, i) << 32) | ((int) INT_VIEW.get(buffer, end - 4) & 0xFFFFFFFFL));
+            } else {
+                hash = mix(hash, (buffer[i] & 0xFF) | (buffer[i + (remaining >> 1)] & 0xFF) << 8 | (buffer[end - 1] & 0xFF) << 16);
+            }
+        }
+        return fmix64(hash);
+    }
+
+    private static long mix(long hash, long value) {
+        return Long.rotateLeft(hash ^ (value * PRIME_64), 31) * PRIME_64;
+    }
+
+    private static long fmix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
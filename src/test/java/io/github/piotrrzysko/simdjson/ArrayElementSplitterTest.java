@@ -0,0 +1,236 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ArrayElementSplitterTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void elementsOfTopLevelArray(boolean withTags) {
+        // given
+        byte[] input = toUtf8("[{\"a\": [1, 2]}, 3, \"x,]\", [[], {}], {}, null]");
+        BitIndexes bitIndexes = new BitIndexes(input.length + 64, withTags);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(input, input.length);
+        String[] elements = new String[6];
+
+        // when
+        int count = new ArrayElementSplitter("").process(input, bitIndexes,
+                (element, cursor) -> elements[element] = structurals(input, cursor));
+
+        // then
+        assertThat(count).isEqualTo(6);
+        assertThat(elements).containsExactly("{\":[1,2]}", "3", "\"", "[[],{}]", "{}", "n");
+    }
+
+    @Test
+    public void elementsOfArrayAtPath() {
+        // given
+        byte[] input = toUtf8("""
+                {
+                    "items": 1,
+                    "data": {"itemz": [0], "items": {"items": [9]}, "x": [{"items": [8]}]},
+                    "data": {"items": [{"items": [7]}, "a", 2]}
+                }
+                """);
+        BitIndexes bitIndexes = index(input);
+        String[] elements = new String[3];
+
+        // when
+        int count = new ArrayElementSplitter("data.items.items").process(input, bitIndexes,
+                (element, cursor) -> elements[element] = structurals(input, cursor));
+
+        // then
+        assertThat(count).isEqualTo(1);
+        assertThat(elements[0]).isEqualTo("9");
+    }
+
+    @Test
+    public void firstMatchingKeyIsUsed() {
+        // given
+        byte[] input = toUtf8("{\"a\": {\"b\": 1}, \"list\": [{}, [], 1], \"list\": [2]}");
+        BitIndexes bitIndexes = index(input);
+        AtomicInteger visited = new AtomicInteger();
+
+        // when
+        int count = new ArrayElementSplitter("list").process(input, bitIndexes, (element, cursor) -> visited.incrementAndGet());
+
+        // then
+        assertThat(count).isEqualTo(3);
+        assertThat(visited.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void emptyArray() {
+        // given
+        byte[] input = toUtf8("{\"list\": [ ]}");
+        BitIndexes bitIndexes = index(input);
+        AtomicInteger visited = new AtomicInteger();
+
+        // when
+        int count = new ArrayElementSplitter("list").process(input, bitIndexes, (element, cursor) -> visited.incrementAndGet());
+
+        // then
+        assertThat(count).isZero();
+        assertThat(visited.get()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 64, 1000})
+    public void elementsAreVisitedInParallelChunks(int chunks) {
+        // given
+        StringBuilder sb = new StringBuilder("{\"meta\": {\"count\": 500}, \"records\": [");
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\": ").append(i).append(", \"tags\": [").append("\"t\",".repeat(i % 10)).append("\"last\"]}");
+        }
+        byte[] input = toUtf8(sb.append("]}").toString());
+        BitIndexes bitIndexes = index(input);
+        long[] ids = new long[500];
+        long[] expectedIds = new long[500];
+        Arrays.setAll(expectedIds, i -> i);
+        AtomicInteger visitors = new AtomicInteger();
+
+        // when
+        int count;
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            count = new ArrayElementSplitter("records").process(input, bitIndexes, executor, chunks, () -> {
+                visitors.incrementAndGet();
+                return (element, cursor) -> {
+                    cursor.advance();
+                    cursor.advance();
+                    cursor.advance();
+                    ids[element] = NumberParser.parseLong(input, input.length, cursor.getAndAdvance());
+                };
+            });
+        }
+
+        // then
+        assertThat(count).isEqualTo(500);
+        assertThat(visitors.get()).isLessThanOrEqualTo(chunks);
+        assertThat(ids).containsExactly(expectedIds);
+    }
+
+    @Test
+    public void chunksHaveSimilarNumberOfBytes() {
+        // given
+        byte[] input = toUtf8("[" + "\"" + "x".repeat(100) + "\"" + ",1".repeat(100) + ",2]");
+        BitIndexes bitIndexes = index(input);
+        ArrayElementSplitter splitter = new ArrayElementSplitter("");
+        ArrayElementSplitter.Elements elements = splitter.split(input, bitIndexes);
+
+        // when
+        int[] bounds = ArrayElementSplitter.chunks(bitIndexes, elements, 4);
+
+        // then
+        assertThat(elements.count()).isEqualTo(102);
+        assertThat(bounds).containsExactly(0, 1, 26, 64, 102);
+    }
+
+    @Test
+    public void exceptionsOfVisitorsArePropagated() {
+        // given
+        byte[] input = toUtf8("[1, 2, 3, 4]");
+        BitIndexes bitIndexes = index(input);
+
+        // when
+        IllegalArgumentException ex;
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            ex = assertThrows(IllegalArgumentException.class, () -> new ArrayElementSplitter("").process(input, bitIndexes, executor, 4,
+                    () -> (element, cursor) -> {
+                        if (element == 2) {
+                            throw new IllegalArgumentException("Invalid element.");
+                        }
+                    }));
+        }
+
+        // then
+        assertThat(ex.getMessage()).isEqualTo("Invalid element.");
+    }
+
+    @Test
+    public void remainingChunksStopAfterFailure() {
+        // given
+        byte[] input = toUtf8("[1, 2, 3, 4, 5, 6, 7, 8]");
+        BitIndexes bitIndexes = index(input);
+        AtomicInteger visited = new AtomicInteger();
+
+        // when
+        IllegalArgumentException ex;
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            ex = assertThrows(IllegalArgumentException.class, () -> new ArrayElementSplitter("").process(input, bitIndexes, executor, 4,
+                    () -> (element, cursor) -> {
+                        visited.incrementAndGet();
+                        if (element == 0) {
+                            throw new IllegalArgumentException("Invalid element.");
+                        }
+                    }));
+        }
+
+        // then
+        assertThat(ex.getMessage()).isEqualTo("Invalid element.");
+        assertThat(visited.get()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"list\": [1]}|missing|Invalid array path: missing. The array is not found.",
+            "{\"list\": {\"a\": 1}}|list.b|Invalid array path: list.b. The array is not found.",
+            "{\"list\": 1}|list.a|Invalid array path: list.a. The array is not found.",
+            "[1]|list|Invalid array path: list. The array is not found.",
+            "{\"list\": {}}|list|Invalid array path: list. The value is not an array.",
+            "{\"list\": [1, 2}|list|Invalid document. Expected a comma or a closing bracket at position 14.",
+            "{\"list\": [1, , 2]}|list|Invalid document. Expected an element at position 13.",
+            "{\"list\": [1, 2|list|Invalid document. The document is incomplete.",
+    })
+    public void invalidDocumentsOrPaths(String testCase) {
+        // given
+        String[] parts = testCase.split("\\|");
+        byte[] input = toUtf8(parts[0]);
+        BitIndexes bitIndexes = index(input);
+        ArrayElementSplitter splitter = new ArrayElementSplitter(parts[1]);
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> splitter.process(input, bitIndexes, (element, cursor) -> {
+                }));
+
+        // then
+        assertThat(ex.getMessage()).isEqualTo(parts[2]);
+    }
+
+    @Test
+    public void emptyKeysAreRejected() {
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> new ArrayElementSplitter("a..b"));
+
+        // then
+        assertThat(ex.getMessage()).isEqualTo("Invalid array path: a..b. Keys cannot be empty.");
+    }
+
+    private static BitIndexes index(byte[] input) {
+        BitIndexes bitIndexes = new BitIndexes(input.length + 64);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(input, input.length);
+        return bitIndexes;
+    }
+
+    private static String structurals(byte[] input, BitIndexesCursor cursor) {
+        StringBuilder sb = new StringBuilder();
+        while (!cursor.isEnd()) {
+            sb.append((char) input[cursor.getAndAdvance()]);
+        }
+        return sb.toString();
+    }
+}
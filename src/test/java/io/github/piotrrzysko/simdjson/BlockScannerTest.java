@@ -0,0 +1,66 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BlockScannerTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4, 16})
+    public void escapedCharactersAcrossBlocks(int backslashFrequency) {
+        // given
+        Random random = new Random(backslashFrequency);
+        long[] blocks = new long[1000];
+        for (int i = 0; i < blocks.length; i++) {
+            for (int bit = 0; bit < 64; bit++) {
+                if (random.nextInt(backslashFrequency) == 0) {
+                    blocks[i] |= 1L << bit;
+                }
+            }
+        }
+        blocks[1] = -1L;
+
+        // when
+        long prevEscaped = 0;
+        long[] escaped = new long[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            escaped[i] = BlockScanner.escaped(blocks[i], prevEscaped);
+            prevEscaped = BlockScanner.nextEscaped(blocks[i], prevEscaped);
+        }
+
+        // then
+        boolean escapeNext = false;
+        for (int i = 0; i < blocks.length; i++) {
+            for (int bit = 0; bit < 64; bit++) {
+                assertThat((escaped[i] >>> bit & 1) == 1).as("block %d, bit %d", i, bit).isEqualTo(escapeNext);
+                escapeNext = !escapeNext && (blocks[i] >>> bit & 1) == 1;
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 1L, 0b1001L, 0x8000000000000001L, -1L})
+    public void inStringAcrossBlocks(long quote) {
+        // given
+        long prevInString = 0;
+        boolean expectedInString = false;
+
+        for (int i = 0; i < 3; i++) {
+            // when
+            long inString = BlockScanner.inString(quote, prevInString);
+            prevInString = inString >> 63;
+
+            // then
+            for (int bit = 0; bit < 64; bit++) {
+                if ((quote >>> bit & 1) == 1) {
+                    expectedInString = !expectedInString;
+                }
+                assertThat((inString >>> bit & 1) == 1).as("block %d, bit %d", i, bit).isEqualTo(expectedInString);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.incubator.vector.ByteVector;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static jdk.incubator.vector.ByteVector.SPECIES_256;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CharacterClassifierTest {
+
+    @ParameterizedTest
+    @EnumSource(CharacterClassification.class)
+    public void allByteValues(CharacterClassification classification) {
+        for (int first = 0; first < 256; first += 64) {
+            // given
+            byte[] block = new byte[64];
+            for (int i = 0; i < block.length; i++) {
+                block[i] = (byte) (first + i);
+            }
+            ByteVector chunk0 = ByteVector.fromArray(SPECIES_256, block, 0);
+            ByteVector chunk1 = ByteVector.fromArray(SPECIES_256, block, 32);
+            CharacterClassifier classifier = new CharacterClassifier(classification);
+
+            // when
+            classifier.classify(chunk0, chunk1);
+            long whitespace = classifier.whitespace;
+            long op = classifier.op;
+
+            // then
+            for (int i = 0; i < block.length; i++) {
+                int b = block[i] & 0xFF;
+                boolean expectedWhitespace = b == ' ' || b == '\t' || b == '\n' || b == '\r';
+                int curlified = b | 0x20;
+                boolean expectedOp = curlified == ':' || curlified == ',' || curlified == '{' || curlified == '}';
+                assertThat((whitespace >>> i & 1) == 1).as("whitespace: 0x%02X", b).isEqualTo(expectedWhitespace);
+                assertThat((op >>> i & 1) == 1).as("op: 0x%02X", b).isEqualTo(expectedOp);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(CharacterClassification.class)
+    public void sameIndexesAsDefaultClassification(CharacterClassification classification) {
+        // given
+        byte[] input = toUtf8("{\"a\": [1, -2.5e3, true, null],\r\n\t\"b\\\"c\": {\"d\": \"[e, f] {g: h}\"}}\n".repeat(10));
+        BitIndexes expected = new BitIndexes(input.length + 64);
+        new InlinedIndexStructuralIndexer(expected).index(input, input.length);
+        BitIndexes bitIndexes = new BitIndexes(input.length + 64);
+        ClassifyingStructuralIndexer indexer = new ClassifyingStructuralIndexer(bitIndexes, classification);
+
+        // when
+        indexer.index(input, input.length);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(expected.toArray());
+    }
+}
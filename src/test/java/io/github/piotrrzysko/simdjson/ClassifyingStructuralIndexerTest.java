@@ -0,0 +1,14 @@
+package io.github.piotrrzysko.simdjson;
+
+public class ClassifyingStructuralIndexerTest extends StructuralIndexerTest {
+
+    @Override
+    protected StructuralIndexer createIndexer(BitIndexes bitIndexes) {
+        return new ClassifyingStructuralIndexer(bitIndexes);
+    }
+
+    @Override
+    protected boolean writesTags() {
+        return true;
+    }
+}
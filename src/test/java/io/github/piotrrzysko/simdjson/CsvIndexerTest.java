@@ -0,0 +1,161 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvIndexerTest {
+
+    @Test
+    public void unquotedFields() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        CsvIndexer indexer = CsvIndexer.csv(bitIndexes);
+        byte[] input = toUtf8("a,bc,\nd,,e\n");
+
+        // when
+        indexer.index(input, input.length);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(1, 4, 5, 7, 8, 10);
+    }
+
+    @Test
+    public void quotedFields() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        CsvIndexer indexer = CsvIndexer.csv(bitIndexes);
+        byte[] input = toUtf8("\"a,b\",\"c\"\"d,\"\"\",\"e\nf\"\r\ng");
+
+        // when
+        indexer.index(input, input.length);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(5, 15, 22);
+    }
+
+    @Test
+    public void tsv() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        CsvIndexer indexer = CsvIndexer.tsv(bitIndexes);
+        byte[] input = toUtf8("a,b\t\"c\td\"\te\n");
+
+        // when
+        indexer.index(input, input.length);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(3, 9, 11);
+    }
+
+    @Test
+    public void customDelimiterAndQuote() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        CsvIndexer indexer = new CsvIndexer(bitIndexes, (byte) ' ', (byte) '\'');
+        byte[] input = toUtf8("a 'b c' \"d");
+
+        // when
+        indexer.index(input, input.length);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(1, 7);
+    }
+
+    @Test
+    public void bytesBeyondLengthAreIgnored() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        CsvIndexer indexer = CsvIndexer.csv(bitIndexes);
+        byte[] input = toUtf8("a,b,c\"x,d");
+
+        // when
+        indexer.index(input, 5);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(1, 3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 63, 64, 65, 127, 128, 1000})
+    public void sameBoundariesAsByteLoop(int length) {
+        // given
+        Random random = new Random(length);
+        byte[] alphabet = toUtf8("ab,\"\n\r ");
+        byte[] input = new byte[length];
+        for (int i = 0; i < length; i++) {
+            input[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        // Close the last quoted field, if there is one.
+        boolean inQuotes = false;
+        for (int i = 0; i < length; i++) {
+            if (input[i] == '"') {
+                inQuotes = !inQuotes;
+            }
+        }
+        if (inQuotes) {
+            input[length - 1] = input[length - 1] == '"' ? (byte) 'a' : (byte) '"';
+        }
+        BitIndexes bitIndexes = new BitIndexes(length + 64);
+        CsvIndexer indexer = CsvIndexer.csv(bitIndexes);
+
+        // when
+        indexer.index(input, length);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(boundaries(input));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 62, 63, 64, 65, 200})
+    public void unclosedQuote(int padding) {
+        // given
+        CsvIndexer indexer = CsvIndexer.csv(new BitIndexes(1024));
+        byte[] input = toUtf8("a,\"" + "b".repeat(padding));
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> indexer.index(input, input.length));
+
+        // then
+        assertThat(ex.getMessage()).isEqualTo("Unclosed quoted field. A quoted field is opened, but never closed.");
+    }
+
+    @Test
+    public void conflictingCharactersAreRejected() {
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> new CsvIndexer(new BitIndexes(64), (byte) '"', (byte) '"'));
+
+        // then
+        assertThat(ex.getMessage()).isEqualTo("The delimiter, the quote and the line feed have to be distinct.");
+    }
+
+    @Test
+    public void bitIndexesWithTagsAreRejected() {
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> CsvIndexer.csv(new BitIndexes(64, true)));
+
+        // then
+        assertThat(ex.getMessage()).isEqualTo("The tags are stored, but the indexer doesn't write them.");
+    }
+
+    private static int[] boundaries(byte[] input) {
+        List<Integer> result = new ArrayList<>();
+        boolean inQuotes = false;
+        for (int i = 0; i < input.length; i++) {
+            if (input[i] == '"') {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && (input[i] == ',' || input[i] == '\n')) {
+                result.add(i);
+            }
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DocumentStatisticsCollectorTest {
+
+    @Test
+    public void statisticsOfSimpleDocument() {
+        // given
+        DocumentStatisticsCollector collector = new DocumentStatisticsCollector();
+        byte[] bytes = toUtf8("[{\"a\": \"x,[y]\", \"b\": [1, true, null]}, 2.5, \"z\", []]");
+
+        // when
+        DocumentStatistics statistics = collector.collect(bytes, bytes.length);
+
+        // then
+        assertThat(statistics.inputSize()).isEqualTo(bytes.length);
+        assertThat(statistics.structurals()).isEqualTo(24);
+        assertThat(statistics.values()).isEqualTo(10);
+        assertThat(statistics.strings()).isEqualTo(2);
+        assertThat(statistics.keys()).isEqualTo(2);
+        assertThat(statistics.containers()).isEqualTo(4);
+        assertThat(statistics.maxDepth()).isEqualTo(3);
+        assertThat(statistics.topLevelArrayLength()).isEqualTo(4);
+        assertThat(statistics.structuralDensity()).isEqualTo(24.0 / bytes.length);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[]",
+            "  [ ]  ",
+            "[1]",
+            "[[1, 2], [3]]",
+            "[\"a,b\", \"c\\\",d\"]",
+    })
+    public void topLevelArrayLength(String input) {
+        // given
+        DocumentStatisticsCollector collector = new DocumentStatisticsCollector();
+        byte[] bytes = toUtf8(input);
+
+        // when
+        DocumentStatistics statistics = collector.collect(bytes, bytes.length);
+
+        // then
+        assertThat(statistics.topLevelArrayLength()).isEqualTo(naiveStatistics(bytes).topLevelArrayLength());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"{}", "{\"a\": [1, 2]}", "1", "\"abc\"", "null", ""})
+    public void topLevelValueOtherThanArray(String input) {
+        // given
+        DocumentStatisticsCollector collector = new DocumentStatisticsCollector();
+        byte[] bytes = toUtf8(input);
+
+        // when
+        DocumentStatistics statistics = collector.collect(bytes, bytes.length);
+
+        // then
+        assertThat(statistics.topLevelArrayLength()).isEqualTo(-1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 10, 100, 1000})
+    public void statisticsMatchWalkingOverBitIndexes(int seed) {
+        // given
+        DocumentStatisticsCollector collector = new DocumentStatisticsCollector();
+        StringBuilder sb = new StringBuilder();
+        randomValue(new Random(seed), sb, 0);
+        byte[] bytes = toUtf8(sb.toString());
+
+        // when
+        DocumentStatistics statistics = collector.collect(bytes, bytes.length);
+
+        // then
+        assertThat(statistics).isEqualTo(naiveStatistics(bytes));
+    }
+
+    @Test
+    public void unclosedString() {
+        // given
+        DocumentStatisticsCollector collector = new DocumentStatisticsCollector();
+        byte[] bytes = toUtf8("[\"abc]");
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> collector.collect(bytes, bytes.length));
+
+        // then
+        assertThat(ex.getMessage()).isEqualTo("Unclosed string. A string is opened, but never closed.");
+    }
+
+    private static DocumentStatistics naiveStatistics(byte[] bytes) {
+        BitIndexes bitIndexes = new BitIndexes(bytes.length + 64);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(bytes, bytes.length);
+        int structurals = 0, strings = 0, keys = 0, containers = 0, primitives = 0, depth = 0, maxDepth = 0, topLevelCommas = 0;
+        int first = -1;
+        while (!bitIndexes.isEnd()) {
+            byte b = bytes[bitIndexes.getAndAdvance()];
+            if (first == -1) {
+                first = b;
+            }
+            structurals++;
+            switch (b) {
+                case '{', '[' -> {
+                    containers++;
+                    depth++;
+                    maxDepth = Math.max(maxDepth, depth);
+                }
+                case '}', ']' -> depth--;
+                case ':' -> keys++;
+                case ',' -> topLevelCommas += depth == 1 ? 1 : 0;
+                case '"' -> strings++;
+                default -> primitives++;
+            }
+        }
+        int topLevelArrayLength = first != '[' ? -1 : structurals == 2 ? 0 : topLevelCommas + 1;
+        return new DocumentStatistics(bytes.length, structurals, strings + primitives + containers - keys, strings - keys,
+                keys, containers, maxDepth, topLevelArrayLength);
+    }
+
+    private static void randomValue(Random random, StringBuilder sb, int depth) {
+        int type = depth > 6 ? random.nextInt(4) : random.nextInt(6);
+        switch (type) {
+            case 0 -> sb.append(random.nextInt());
+            case 1 -> sb.append(random.nextBoolean() ? "true" : "null");
+            case 2 -> sb.append("\"s\\\\").append("{[,:]}\\\"".repeat(random.nextInt(10))).append('"');
+            case 3 -> sb.append("\"").append("x".repeat(random.nextInt(100))).append('"');
+            case 4 -> {
+                sb.append('[');
+                int n = random.nextInt(8);
+                for (int i = 0; i < n; i++) {
+                    sb.append(i > 0 ? ",\n  " : "");
+                    randomValue(random, sb, depth + 1);
+                }
+                sb.append(']');
+            }
+            default -> {
+                sb.append('{');
+                int n = random.nextInt(8);
+                for (int i = 0; i < n; i++) {
+                    sb.append(i > 0 ? ", " : "").append("\"k").append(i).append("\" : ");
+                    randomValue(random, sb, depth + 1);
+                }
+                sb.append('}');
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IncrementalStructuralIndexerTest {
+
+    private static final String[] SNIPPETS = {
+            "1", "-2.5e3", "\"abc\"", "\"a\\\"b\"", "\\", "\\\\", "\"", "true", " ", "\n", ",", ":", "{", "}", "[", "]",
+            "{\"key\": [1, 2, \"x\"]}", "\"\\u00e9 zażółć\"", "null"
+    };
+
+    @Test
+    public void indexIsTheSameAsFullIndex() {
+        // given
+        byte[] document = toUtf8(document(new Random(1), 20_000));
+        IncrementalStructuralIndexer indexer = new IncrementalStructuralIndexer();
+
+        // when
+        indexer.index(document, document.length);
+
+        // then
+        assertThat(indexer.toArray()).containsExactly(fullIndex(document, document.length));
+        assertThat(indexer.size()).isEqualTo(indexer.toArray().length);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5})
+    public void randomEdits(int seed) {
+        // given
+        Random random = new Random(seed);
+        String text = document(random, 30_000);
+        byte[] document = toUtf8(text);
+        IncrementalStructuralIndexer indexer = new IncrementalStructuralIndexer();
+        indexer.index(document, document.length);
+
+        for (int edit = 0; edit < 300; edit++) {
+            int offset = random.nextInt(document.length + 1);
+            int removedLength = random.nextInt(Math.min(document.length - offset, 100) + 1);
+            byte[] inserted = toUtf8(SNIPPETS[random.nextInt(SNIPPETS.length)].repeat(random.nextInt(3)));
+            byte[] edited = edit(document, offset, removedLength, inserted);
+            int[] expected = null;
+            try {
+                expected = fullIndex(edited, edited.length);
+            } catch (IllegalArgumentException ignored) {
+                // The edit made the document invalid.
+            }
+
+            // when
+            if (expected == null) {
+                int[] before = indexer.toArray();
+                assertThrows(IllegalArgumentException.class, () -> indexer.reindex(edited, edited.length, offset, removedLength, inserted.length));
+
+                // then
+                assertThat(indexer.toArray()).containsExactly(before);
+            } else {
+                indexer.reindex(edited, edited.length, offset, removedLength, inserted.length);
+                document = edited;
+
+                // then
+                assertThat(indexer.toArray()).containsExactly(expected);
+                assertThat(indexer.size()).isEqualTo(expected.length);
+            }
+        }
+    }
+
+    @Test
+    public void editThatDoesNotChangeStructureTouchesOneSegment() {
+        // given
+        byte[] document = toUtf8(document(new Random(7), 100_000));
+        IncrementalStructuralIndexer indexer = new IncrementalStructuralIndexer();
+        indexer.index(document, document.length);
+        int segmentCount = indexer.segmentCount();
+        int offset = text(document).indexOf("\"abc\"", 50_000) + 1;
+        byte[] edited = edit(document, offset, 3, toUtf8("a\\\"bcd"));
+
+        // when
+        indexer.reindex(edited, edited.length, offset, 3, 6);
+
+        // then
+        assertThat(indexer.toArray()).containsExactly(fullIndex(edited, edited.length));
+        assertThat(indexer.segmentCount()).isEqualTo(segmentCount);
+    }
+
+    @Test
+    public void unmatchedQuoteIsReported() {
+        // given
+        byte[] document = toUtf8("{\"a\":[1,2,3],\"b\":\"" + "x".repeat(10_000) + "\"}");
+        IncrementalStructuralIndexer indexer = new IncrementalStructuralIndexer();
+        indexer.index(document, document.length);
+        byte[] edited = edit(document, 7, 0, toUtf8("\""));
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> indexer.reindex(edited, edited.length, 7, 0, 1));
+
+        // then
+        assertThat(ex).hasMessage("Unclosed string. A string is opened, but never closed.");
+        assertThat(indexer.toArray()).containsExactly(fullIndex(document, document.length));
+    }
+
+    @Test
+    public void editNotMatchingDocumentIsRejected() {
+        // given
+        byte[] document = toUtf8("[1,2,3]");
+        IncrementalStructuralIndexer indexer = new IncrementalStructuralIndexer();
+        indexer.index(document, document.length);
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> indexer.reindex(document, document.length, 5, 3, 3));
+
+        // then
+        assertThat(ex).hasMessage("The edit doesn't match the indexed document.");
+    }
+
+    @Test
+    public void editOfEmptyDocument() {
+        // given
+        IncrementalStructuralIndexer indexer = new IncrementalStructuralIndexer();
+        indexer.index(new byte[0], 0);
+        byte[] edited = toUtf8("[1, \"a\"]");
+
+        // when
+        indexer.reindex(edited, edited.length, 0, 0, edited.length);
+
+        // then
+        assertThat(indexer.toArray()).containsExactly(0, 1, 2, 4, 7);
+    }
+
+    private static String document(Random random, int minLength) {
+        StringBuilder sb = new StringBuilder("[");
+        while (sb.length() < minLength) {
+            sb.append("{\"id\": ").append(random.nextInt(100_000))
+                    .append(", \"text\": \"abc").append("\\\\".repeat(random.nextInt(3))).append("\\\"")
+                    .append("x".repeat(random.nextInt(100)))
+                    .append("\", \"tags\": [\"abc\", true, null, -1.5e3]},\n");
+        }
+        sb.append("{}]");
+        return sb.toString();
+    }
+
+    private static byte[] edit(byte[] document, int offset, int removedLength, byte[] inserted) {
+        byte[] result = new byte[document.length - removedLength + inserted.length];
+        System.arraycopy(document, 0, result, 0, offset);
+        System.arraycopy(inserted, 0, result, offset, inserted.length);
+        System.arraycopy(document, offset + removedLength, result, offset + inserted.length, document.length - offset - removedLength);
+        return result;
+    }
+
+    private static String text(byte[] document) {
+        return new String(document, UTF_8);
+    }
+
+    private static int[] fullIndex(byte[] document, int length) {
+        BitIndexes bitIndexes = new BitIndexes(length + 64);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(document, length);
+        return bitIndexes.toArray();
+    }
+}
@@ -1,10 +1,32 @@
 package io.github.piotrrzysko.simdjson;
 
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class InlinedIndexStructuralIndexerTest extends StructuralIndexerTest {
 
     @Override
-    protected void index(BitIndexes bitIndexes, byte[] buffer, int length) {
-        InlinedIndexStructuralIndexer indexer = new InlinedIndexStructuralIndexer(bitIndexes);
-        indexer.index(buffer, length);
+    protected StructuralIndexer createIndexer(BitIndexes bitIndexes) {
+        return new InlinedIndexStructuralIndexer(bitIndexes);
+    }
+
+    @Override
+    protected boolean writesTags() {
+        return true;
+    }
+
+    @Test
+    public void tagsNotStored() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, bitIndexes::tagsToArray);
+
+        // then
+        assertThat(bitIndexes.hasTags()).isFalse();
+        assertThat(ex).hasMessage("The tags are not stored.");
     }
 }
@@ -3,8 +3,7 @@ package io.github.piotrrzysko.simdjson;
 public class InlinedStepStructuralIndexerTest extends StructuralIndexerTest {
 
     @Override
-    protected void index(BitIndexes bitIndexes, byte[] buffer, int length) {
-        InlinedStepStructuralIndexer indexer = new InlinedStepStructuralIndexer(bitIndexes);
-        indexer.index(buffer, length);
+    protected StructuralIndexer createIndexer(BitIndexes bitIndexes) {
+        return new InlinedStepStructuralIndexer(bitIndexes);
     }
 }
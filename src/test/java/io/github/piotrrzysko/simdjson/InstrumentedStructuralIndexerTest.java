@@ -0,0 +1,110 @@
+package io.github.piotrrzysko.simdjson;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InstrumentedStructuralIndexerTest {
+
+    private static final String EVENT_NAME = "io.github.piotrrzysko.simdjson.Indexing";
+
+    @Test
+    public void metricsAreUpdated() {
+        // given
+        IndexingMetrics metrics = new IndexingMetrics();
+        InstrumentedStructuralIndexer indexer = new InstrumentedStructuralIndexer(metrics, new BitIndexes(1024));
+        byte[] noEscapes = toUtf8("{\"a\":[1,2,3]}");
+        byte[] escapes = toUtf8("{\"a\":\"\\\"\",\"b\":\"" + "x".repeat(100) + "\\n\"}");
+        byte[] unclosed = toUtf8("{\"a\":\"x}");
+
+        // when
+        indexer.index(noEscapes, noEscapes.length);
+        indexer.index(escapes, escapes.length);
+        assertThrows(IllegalArgumentException.class, () -> indexer.index(unclosed, unclosed.length));
+
+        // then
+        assertThat(metrics.getCalls()).isEqualTo(3);
+        assertThat(metrics.getErrors()).isEqualTo(1);
+        assertThat(metrics.getBytes()).isEqualTo(noEscapes.length + escapes.length + unclosed.length);
+        assertThat(metrics.getStructurals()).isEqualTo(11 + 9 + 4);
+        assertThat(metrics.getBlocksWithEscapes()).isEqualTo(2);
+        assertThat(metrics.getNanos()).isPositive();
+    }
+
+    @Test
+    public void blocksWithEscapesAreCounted() {
+        // given
+        String block = "[\"" + "x".repeat(59) + "\"]\n";
+        byte[] input = toUtf8(block + block.replace("xx", "\\\\") + block + block.replace("xx", "\\n") + "[\"\\t\"]");
+
+        // when
+        int blocks = InstrumentedStructuralIndexer.countBlocksWithEscapes(input, input.length);
+
+        // then
+        assertThat(blocks).isEqualTo(3);
+    }
+
+    @Test
+    public void eventIsCommittedWhenEnabled() throws IOException {
+        // given
+        InstrumentedStructuralIndexer indexer = new InstrumentedStructuralIndexer(null, new BitIndexes(1024));
+        byte[] valid = toUtf8("{\"a\":\"\\\"\"}");
+        byte[] invalid = toUtf8("{\"a\":\"x}");
+        Path file = Files.createTempFile("indexing", ".jfr");
+
+        // when
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME);
+            recording.start();
+            indexer.index(valid, valid.length);
+            assertThrows(IllegalArgumentException.class, () -> indexer.index(invalid, invalid.length));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+                .toList();
+        Files.delete(file);
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0).getInt("bytes")).isEqualTo(valid.length);
+        assertThat(events.get(0).getInt("structurals")).isEqualTo(5);
+        assertThat(events.get(0).getInt("blocksWithEscapes")).isEqualTo(1);
+        assertThat(events.get(0).getString("error")).isNull();
+        assertThat(events.get(1).getString("error")).isEqualTo("Unclosed string. A string is opened, but never closed.");
+    }
+
+    @Test
+    public void eventIsDisabledByDefault() throws IOException {
+        // given
+        InstrumentedStructuralIndexer indexer = new InstrumentedStructuralIndexer(null, new BitIndexes(1024));
+        byte[] input = toUtf8("{\"a\":1}");
+        Path file = Files.createTempFile("indexing", ".jfr");
+
+        // when
+        try (Recording recording = new Recording()) {
+            recording.start();
+            indexer.index(input, input.length);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+                .toList();
+        Files.delete(file);
+        assertThat(events).isEmpty();
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonMinifierTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "   ",
+            "{ \"a\" : 1 }",
+            "[ 1 ,\n\t2 ,\r\n 3 ]",
+            "{ \"a b\" : \" c \\\" d \" }",
+            "{ \"a\\\\\" : \" b \" }",
+            "\"  zażółć  gęślą  jaźń  \"",
+    })
+    public void whitespaceOutsideStringsIsRemoved(String input) {
+        // given
+        JsonMinifier minifier = new JsonMinifier();
+        byte[] bytes = toUtf8(input);
+        byte[] output = new byte[bytes.length];
+
+        // when
+        int length = minifier.minify(bytes, bytes.length, output);
+
+        // then
+        assertThat(new String(output, 0, length, UTF_8)).isEqualTo(naiveMinify(input));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {63, 64, 65, 127, 128, 129, 1000})
+    public void inputSpanningMultipleBlocks(int repetitions) {
+        // given
+        JsonMinifier minifier = new JsonMinifier();
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < repetitions; i++) {
+            sb.append("  { \"key\\\\\" : \"value \\\" ").append(i).append(" \" ,\t\"n\": ").append(i).append(" },\n");
+        }
+        sb.append("  null\n]");
+        String input = sb.toString();
+        byte[] bytes = toUtf8(input);
+        byte[] output = new byte[bytes.length];
+
+        // when
+        int length = minifier.minify(bytes, bytes.length, output);
+
+        // then
+        assertThat(new String(output, 0, length, UTF_8)).isEqualTo(naiveMinify(input));
+    }
+
+    @Test
+    public void outputWithoutSlack() {
+        // given
+        JsonMinifier minifier = new JsonMinifier();
+        String input = "[\"aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa\", 1]";
+        byte[] bytes = toUtf8(input);
+        byte[] output = new byte[bytes.length - 1];
+
+        // when
+        int length = minifier.minify(bytes, bytes.length, output);
+
+        // then
+        assertThat(length).isEqualTo(output.length);
+        assertThat(new String(output, 0, length, UTF_8)).isEqualTo(naiveMinify(input));
+    }
+
+    @Test
+    public void unclosedString() {
+        // given
+        JsonMinifier minifier = new JsonMinifier();
+        byte[] bytes = toUtf8("{\"a\": \"b   }");
+        byte[] output = new byte[bytes.length];
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> minifier.minify(bytes, bytes.length, output)
+        );
+
+        // then
+        assertThat(ex)
+                .hasMessage("Unclosed string. A string is opened, but never closed.");
+    }
+
+    private static String naiveMinify(String input) {
+        StringBuilder sb = new StringBuilder();
+        boolean inString = false;
+        boolean escaped = false;
+        for (char c : input.toCharArray()) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                continue;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.stream.Stream;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class JsonValidatorTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{}",
+            "[]",
+            " [ ] ",
+            "true",
+            "false",
+            "null",
+            "0",
+            "-0",
+            "-12.5e+10",
+            "1E5",
+            "\"abc\"",
+            "\"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00e9\\uD83D\\uDE00\"",
+            "{\"a\": [1, 2.5, -3e-2, true, false, null, \"x\", {}, []], \"b\": {\"c\": {\"d\": \"e\"}}}",
+            "[[[[[[[[[[]]]]]]]]]]",
+            "{\"zażółć\":\"gęślą jaźń\"}",
+            "\t{\r\n\"a\"\t:\r\n1\n}\n",
+    })
+    public void validDocument(String input) {
+        // given
+        JsonValidator validator = new JsonValidator();
+        byte[] bytes = toUtf8(input);
+
+        // when
+        boolean valid = validator.validate(bytes, bytes.length);
+
+        // then
+        assertThat(valid).isTrue();
+        assertThat(validator.getError()).isNull();
+        assertThat(validator.getErrorOffset()).isEqualTo(-1);
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidDocuments")
+    public void invalidDocument(String input, JsonValidationError expectedError, int expectedOffset) {
+        // given
+        JsonValidator validator = new JsonValidator();
+        byte[] bytes = toUtf8(input);
+
+        // when
+        boolean valid = validator.validate(bytes, bytes.length);
+
+        // then
+        assertThat(valid).isFalse();
+        assertThat(validator.getError()).isEqualTo(expectedError);
+        assertThat(validator.getErrorOffset()).isEqualTo(expectedOffset);
+    }
+
+    static Stream<Arguments> invalidDocuments() {
+        return Stream.of(
+                arguments("", JsonValidationError.EMPTY_DOCUMENT, 0),
+                arguments("   ", JsonValidationError.EMPTY_DOCUMENT, 3),
+                arguments("[1, 2", JsonValidationError.UNCLOSED_CONTAINER, 5),
+                arguments("{\"a\": 1", JsonValidationError.UNCLOSED_CONTAINER, 7),
+                arguments("[1, 2}", JsonValidationError.UNEXPECTED_TOKEN, 5),
+                arguments("{\"a\": 1]", JsonValidationError.UNEXPECTED_TOKEN, 7),
+                arguments("[1 2]", JsonValidationError.UNEXPECTED_TOKEN, 3),
+                arguments("[1,]", JsonValidationError.UNEXPECTED_TOKEN, 3),
+                arguments("[,1]", JsonValidationError.UNEXPECTED_TOKEN, 1),
+                arguments("{\"a\" 1}", JsonValidationError.UNEXPECTED_TOKEN, 5),
+                arguments("{\"a\":}", JsonValidationError.UNEXPECTED_TOKEN, 5),
+                arguments("{1: 2}", JsonValidationError.UNEXPECTED_TOKEN, 1),
+                arguments("{\"a\": 1,}", JsonValidationError.UNEXPECTED_TOKEN, 8),
+                arguments("[\"a\": 1]", JsonValidationError.UNEXPECTED_TOKEN, 4),
+                arguments("]", JsonValidationError.UNEXPECTED_TOKEN, 0),
+                arguments("{} {}", JsonValidationError.TRAILING_CONTENT, 3),
+                arguments("1 2", JsonValidationError.TRAILING_CONTENT, 2),
+                arguments("tru", JsonValidationError.INVALID_LITERAL, 0),
+                arguments("[truex]", JsonValidationError.INVALID_LITERAL, 1),
+                arguments("[nul]", JsonValidationError.INVALID_LITERAL, 1),
+                arguments("[True]", JsonValidationError.UNEXPECTED_CHARACTER, 1),
+                arguments("[abc]", JsonValidationError.UNEXPECTED_CHARACTER, 1),
+                arguments("[01]", JsonValidationError.INVALID_NUMBER, 1),
+                arguments("[-]", JsonValidationError.INVALID_NUMBER, 1),
+                arguments("[1.]", JsonValidationError.INVALID_NUMBER, 1),
+                arguments("[.5]", JsonValidationError.UNEXPECTED_CHARACTER, 1),
+                arguments("[1e]", JsonValidationError.INVALID_NUMBER, 1),
+                arguments("[1e+]", JsonValidationError.INVALID_NUMBER, 1),
+                arguments("[1x]", JsonValidationError.INVALID_NUMBER, 1),
+                arguments("[\"abc", JsonValidationError.UNCLOSED_STRING, 1),
+                arguments("[\"a\\x\"]", JsonValidationError.INVALID_ESCAPE, 4),
+                arguments("[\"a\\u12G4\"]", JsonValidationError.INVALID_ESCAPE, 4),
+                arguments("[\"a\\u12", JsonValidationError.INVALID_ESCAPE, 4),
+                arguments("[\"a\tb\"]", JsonValidationError.UNESCAPED_CHARACTER, 3),
+                arguments("[\"a\tb\", }", JsonValidationError.UNESCAPED_CHARACTER, 3),
+                arguments("[}, \"a\tb\"]", JsonValidationError.UNEXPECTED_TOKEN, 1)
+        );
+    }
+
+    @Test
+    public void errorInLaterBlock() {
+        // given
+        JsonValidator validator = new JsonValidator();
+        String prefix = "[" + "1, ".repeat(100);
+        byte[] bytes = toUtf8(prefix + "\"a\\qb\", 2]");
+
+        // when
+        boolean valid = validator.validate(bytes, bytes.length);
+
+        // then
+        assertThat(valid).isFalse();
+        assertThat(validator.getError()).isEqualTo(JsonValidationError.INVALID_ESCAPE);
+        assertThat(validator.getErrorOffset()).isEqualTo(prefix.length() + 3);
+    }
+
+    @Test
+    public void escapedBackslashBeforeQuoteAtBlockBoundary() {
+        // given
+        JsonValidator validator = new JsonValidator();
+        String input = "[\"" + "a".repeat(60) + "\\\\\", \"\\\"\"]";
+
+        // when
+        boolean valid = validator.validate(toUtf8(input), input.length());
+
+        // then
+        assertThat(valid).isTrue();
+    }
+
+    @Test
+    public void depthLimit() {
+        // given
+        JsonValidator validator = new JsonValidator();
+        byte[] ok = toUtf8("[".repeat(1024) + "]".repeat(1024));
+        byte[] tooDeep = toUtf8("[".repeat(1025) + "]".repeat(1025));
+
+        // when
+        boolean okValid = validator.validate(ok, ok.length);
+        boolean tooDeepValid = validator.validate(tooDeep, tooDeep.length);
+
+        // then
+        assertThat(okValid).isTrue();
+        assertThat(tooDeepValid).isFalse();
+        assertThat(validator.getError()).isEqualTo(JsonValidationError.DEPTH_LIMIT_EXCEEDED);
+        assertThat(validator.getErrorOffset()).isEqualTo(1024);
+    }
+
+    @Test
+    public void mixedContainersAcrossBitsetWords() {
+        // given
+        JsonValidator validator = new JsonValidator();
+        StringBuilder open = new StringBuilder();
+        StringBuilder close = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            if (i % 3 == 0) {
+                open.append("{\"k\":");
+                close.insert(0, '}');
+            } else {
+                open.append('[');
+                close.insert(0, ']');
+            }
+        }
+        byte[] bytes = toUtf8(open + "1" + close);
+
+        // when
+        boolean valid = validator.validate(bytes, bytes.length);
+
+        // then
+        assertThat(valid).isTrue();
+    }
+}
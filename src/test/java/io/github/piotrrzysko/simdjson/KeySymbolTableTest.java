@@ -0,0 +1,141 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KeySymbolTableTest {
+
+    @Test
+    public void sameKeysGetSameIds() {
+        // given
+        KeySymbolTable table = new KeySymbolTable(16, 64);
+        byte[] input = toUtf8("[{\"id\": 1, \"name\": \"a\"}, {\"name\" : \"id\", \"id\": 2}]");
+
+        // when
+        List<String> keys = internKeys(table, input);
+
+        // then
+        assertThat(keys).containsExactly("id", "name", "name", "id");
+        assertThat(keys.get(3)).isSameAs(keys.get(0));
+        assertThat(keys.get(2)).isSameAs(keys.get(1));
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.getKey(0)).isEqualTo("id");
+        assertThat(table.getKey(1)).isEqualTo("name");
+        assertThat(table.lookup(toUtf8("name"), 0, 4)).isEqualTo(1);
+        assertThat(table.lookup(toUtf8("names"), 0, 5)).isEqualTo(-1);
+    }
+
+    @Test
+    public void escapedKeys() {
+        // given
+        KeySymbolTable table = new KeySymbolTable(16, 64);
+        byte[] input = toUtf8("{\"a\\\"b\": 1, \"\\u0041\": 2, \"A\": 3, \"\": 4}");
+
+        // when
+        List<String> keys = internKeys(table, input);
+
+        // then
+        assertThat(keys).containsExactly("a\"b", "A", "A", "");
+        // The raw bytes differ, so the keys are different symbols.
+        assertThat(table.size()).isEqualTo(4);
+    }
+
+    @Test
+    public void keysAreNotInternedWhenTableIsFull() {
+        // given
+        KeySymbolTable table = new KeySymbolTable(2, 64);
+        byte[] input = toUtf8("{\"a\": 1, \"b\": 2, \"c\": 3, \"a\": 4}");
+
+        // when
+        List<String> keys = internKeys(table, input);
+
+        // then
+        assertThat(keys).containsExactly("a", "b", "c", "a");
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.lookup(toUtf8("c"), 0, 1)).isEqualTo(-1);
+    }
+
+    @Test
+    public void longKeysAreNotInterned() {
+        // given
+        KeySymbolTable table = new KeySymbolTable(16, 8);
+        byte[] input = toUtf8("{\"short\": 1, \"muchlongerkey\": 2}");
+
+        // when
+        List<String> keys = internKeys(table, input);
+
+        // then
+        assertThat(keys).containsExactly("short", "muchlongerkey");
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void concurrentInterning() throws Exception {
+        // given
+        KeySymbolTable table = new KeySymbolTable(1024, 64);
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 500; i++) {
+            sb.append(i > 0 ? "," : "").append("\"key").append(i * 7919 % 500).append("\":").append(i);
+        }
+        byte[] input = toUtf8(sb.append('}').toString());
+
+        // when
+        List<List<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> internKeys(table, input)));
+            }
+            for (Future<List<String>> future : futures) {
+                results.add(future.get());
+            }
+        }
+
+        // then
+        assertThat(table.size()).isEqualTo(500);
+        for (List<String> keys : results) {
+            for (int i = 0; i < keys.size(); i++) {
+                assertThat(keys.get(i)).isSameAs(results.get(0).get(i));
+            }
+        }
+        for (int id = 0; id < 500; id++) {
+            byte[] key = toUtf8(table.getKey(id));
+            assertThat(table.lookup(key, 0, key.length)).isEqualTo(id);
+        }
+    }
+
+    @Test
+    public void unknownId() {
+        // given
+        KeySymbolTable table = new KeySymbolTable(16, 64);
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> table.getKey(0));
+
+        // then
+        assertThat(ex).hasMessage("Unknown key id: 0.");
+    }
+
+    private static List<String> internKeys(KeySymbolTable table, byte[] input) {
+        BitIndexes bitIndexes = new BitIndexes(input.length + 64);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(input, input.length);
+        int[] indexes = bitIndexes.toArray();
+        StringDecoder decoder = new StringDecoder();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i + 1 < indexes.length; i++) {
+            if (input[indexes[i]] == '"' && input[indexes[i + 1]] == ':') {
+                keys.add(table.internKey(input, input.length, indexes[i], indexes[i + 1], decoder));
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LineIndexTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 16, 1024})
+    public void sameLocationsAsScanningFromTheStart(int blocksPerEntry) {
+        // given
+        byte[] input = toUtf8(document(new Random(blocksPerEntry)));
+        LineIndex lineIndex = new LineIndex(input.length, blocksPerEntry);
+        ClassifyingStructuralIndexer indexer = new ClassifyingStructuralIndexer(
+                new BitIndexes(input.length + 64), CharacterClassification.REARRANGE, lineIndex
+        );
+
+        // when
+        indexer.index(input, input.length);
+
+        // then
+        int line = 1;
+        int column = 1;
+        for (int offset = 0; offset < input.length; offset++) {
+            assertThat(lineIndex.locate(input, offset)).isEqualTo(new LineIndex.Location(line, column));
+            if (input[offset] == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        assertThat(lineIndex.getLineCount()).isEqualTo(line);
+    }
+
+    @Test
+    public void structuralIndexesAreNotAffected() {
+        // given
+        byte[] input = toUtf8("{\n  \"a\": [1, 2],\r\n  \"b\": \"x\\ny\"\n}\n".repeat(10));
+        BitIndexes expected = new BitIndexes(input.length + 64);
+        new InlinedIndexStructuralIndexer(expected).index(input, input.length);
+        BitIndexes bitIndexes = new BitIndexes(input.length + 64);
+        LineIndex lineIndex = new LineIndex(input.length, 1);
+        ClassifyingStructuralIndexer indexer = new ClassifyingStructuralIndexer(
+                bitIndexes, CharacterClassification.REARRANGE, lineIndex
+        );
+
+        // when
+        indexer.index(input, input.length);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(expected.toArray());
+        assertThat(lineIndex.getLineCount()).isEqualTo(41);
+    }
+
+    @Test
+    public void lineLongerThanEntry() {
+        // given
+        byte[] input = toUtf8("[1,\n\"" + "x".repeat(1000) + "\", 2]");
+        LineIndex lineIndex = new LineIndex(input.length, 1);
+        ClassifyingStructuralIndexer indexer = new ClassifyingStructuralIndexer(
+                new BitIndexes(input.length + 64), CharacterClassification.REARRANGE, lineIndex
+        );
+
+        // when
+        indexer.index(input, input.length);
+
+        // then
+        assertThat(lineIndex.locate(input, input.length - 1)).isEqualTo(new LineIndex.Location(2, 1006));
+    }
+
+    @Test
+    public void indexReusedForShorterInput() {
+        // given
+        byte[] first = toUtf8("[\n1,\n2,\n3\n]".repeat(20));
+        byte[] second = toUtf8("[1,\n2]");
+        LineIndex lineIndex = new LineIndex(first.length, 1);
+        ClassifyingStructuralIndexer indexer = new ClassifyingStructuralIndexer(
+                new BitIndexes(first.length + 64), CharacterClassification.REARRANGE, lineIndex
+        );
+        indexer.index(first, first.length);
+
+        // when
+        indexer.index(second, second.length);
+
+        // then
+        assertThat(lineIndex.getLineCount()).isEqualTo(2);
+        assertThat(lineIndex.locate(second, 5)).isEqualTo(new LineIndex.Location(2, 2));
+    }
+
+    @Test
+    public void offsetOutsideOfIndexedInput() {
+        // given
+        byte[] input = toUtf8("[1, 2]");
+        LineIndex lineIndex = new LineIndex(1024, 1);
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> lineIndex.locate(input, 0)
+        );
+
+        // then
+        assertThat(ex).hasMessage("The offset is outside of the indexed input.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 3, -4})
+    public void blocksPerEntryNotPowerOfTwo(int blocksPerEntry) {
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> new LineIndex(1024, blocksPerEntry)
+        );
+
+        // then
+        assertThat(ex).hasMessage("The number of blocks per entry has to be a power of two.");
+    }
+
+    private static String document(Random random) {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < 300; i++) {
+            sb.append(" ".repeat(random.nextInt(4)))
+                    .append("{\"id\": ").append(i)
+                    .append(", \"text\": \"").append("x".repeat(random.nextInt(150))).append("\\n\"}")
+                    .append(random.nextBoolean() ? ",\r\n" : ",\n");
+            if (random.nextInt(10) == 0) {
+                sb.append("\n\n");
+            }
+        }
+        sb.append("{}\n]");
+        return sb.toString();
+    }
+}
@@ -3,8 +3,7 @@ package io.github.piotrrzysko.simdjson;
 public class LoadingInStepStructuralIndexerTest extends StructuralIndexerTest {
 
     @Override
-    protected void index(BitIndexes bitIndexes, byte[] buffer, int length) {
-        LoadingInStepStructuralIndexer indexer = new LoadingInStepStructuralIndexer(bitIndexes);
-        indexer.index(buffer, length);
+    protected StructuralIndexer createIndexer(BitIndexes bitIndexes) {
+        return new LoadingInStepStructuralIndexer(bitIndexes);
     }
 }
@@ -0,0 +1,125 @@
+package io.github.piotrrzysko.simdjson;
+
+import io.github.piotrrzysko.simdjson.NdjsonPrefilter.MatchMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NdjsonPrefilterTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "ANYWHERE        | true      | {\"a\":true}             | true",
+            "ANYWHERE        | true      | {\"a\":\"true\"}         | true",
+            "ANYWHERE        | true      | {\"a\":false}            | false",
+            "OUTSIDE_STRINGS | true      | {\"a\":true}             | true",
+            "OUTSIDE_STRINGS | true      | {\"a\":\"true\"}         | false",
+            "OUTSIDE_STRINGS | \"b\"     | {\"a\":\"b\"}            | true",
+            "OUTSIDE_STRINGS | \"b\"     | {\"a\":\"x\\\"b\\\"\"}   | false",
+            "OUTSIDE_STRINGS | \"b\"     | {\"a\\\\\":\"b\"}        | true",
+            "KEY             | \"level\" | {\"level\":\"x\"}        | true",
+            "KEY             | \"level\" | {\"level\" \t : \"x\"}  | true",
+            "KEY             | \"level\" | {\"x\":\"level\"}        | false",
+            "KEY             | \"level\" | [\"level\",1]            | false",
+            "KEY             | \"level\" | {\"x\":\"\\\"level\\\":\"} | false",
+            "KEY             | \"lev\"   | {\"level\":\"x\"}        | false",
+    })
+    public void matchModes(MatchMode mode, String pattern, String record, boolean expected) {
+        // given
+        NdjsonPrefilter prefilter = new NdjsonPrefilter(mode, pattern);
+        byte[] bytes = toUtf8(record);
+
+        // when
+        boolean result = prefilter.test(bytes, 0, bytes.length);
+
+        // then
+        assertThat(result).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 50, 55, 60, 63, 64, 65, 120, 1000})
+    public void patternAtAnyOffset(int padding) {
+        // given
+        NdjsonPrefilter prefilter = new NdjsonPrefilter(MatchMode.OUTSIDE_STRINGS, "\"level\":\"ERROR\"");
+        byte[] bytes = toUtf8("{\"msg\":\"" + "x".repeat(padding) + "\",\"level\":\"ERROR\"}");
+
+        // when
+        boolean result = prefilter.test(bytes, 0, bytes.length);
+
+        // then
+        assertThat(result).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 50, 55, 60, 63, 64, 65, 120, 1000})
+    public void patternInsideLongStringIsIgnored(int padding) {
+        // given
+        NdjsonPrefilter prefilter = new NdjsonPrefilter(MatchMode.OUTSIDE_STRINGS, "ERROR");
+        byte[] bytes = toUtf8("{\"msg\":\"" + "\\\\".repeat(padding) + "ERROR\",\"level\":\"INFO\"}");
+
+        // when
+        boolean result = prefilter.test(bytes, 0, bytes.length);
+
+        // then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    public void anyOfMultiplePatterns() {
+        // given
+        NdjsonPrefilter prefilter = new NdjsonPrefilter(MatchMode.OUTSIDE_STRINGS, "\"ERROR\"", "\"WARN\"");
+        byte[] error = toUtf8("{\"level\":\"ERROR\"}");
+        byte[] warn = toUtf8("{\"level\":\"WARN\"}");
+        byte[] info = toUtf8("{\"level\":\"INFO\"}");
+
+        // when
+        boolean errorResult = prefilter.test(error, 0, error.length);
+        boolean warnResult = prefilter.test(warn, 0, warn.length);
+        boolean infoResult = prefilter.test(info, 0, info.length);
+
+        // then
+        assertThat(errorResult).isTrue();
+        assertThat(warnResult).isTrue();
+        assertThat(infoResult).isFalse();
+    }
+
+    @Test
+    public void onlyTheGivenRecordIsSearched() {
+        // given
+        NdjsonPrefilter prefilter = new NdjsonPrefilter(MatchMode.OUTSIDE_STRINGS, "\"ERROR\"");
+        String first = "{\"level\":\"INFO\"}";
+        String second = "{\"level\":\"ERROR\"}";
+        String third = "{\"level\":\"INFO\",\"msg\":\"" + "x".repeat(100) + "\"}";
+        byte[] bytes = toUtf8(first + "\n" + second + "\n" + third + "\n");
+
+        // when
+        boolean firstResult = prefilter.test(bytes, 0, first.length());
+        boolean firstExtendedResult = prefilter.test(bytes, 0, first.length() + 17);
+        boolean secondResult = prefilter.test(bytes, first.length() + 1, second.length());
+        boolean secondTruncatedResult = prefilter.test(bytes, first.length() + 1, second.length() - 3);
+        boolean thirdResult = prefilter.test(bytes, first.length() + second.length() + 2, third.length());
+
+        // then
+        assertThat(firstResult).isFalse();
+        assertThat(firstExtendedResult).isTrue();
+        assertThat(secondResult).isTrue();
+        assertThat(secondTruncatedResult).isFalse();
+        assertThat(thirdResult).isFalse();
+    }
+
+    @Test
+    public void emptyPatternsAreRejected() {
+        // when
+        IllegalArgumentException noPatterns = assertThrows(IllegalArgumentException.class, () -> new NdjsonPrefilter(MatchMode.ANYWHERE, new String[0]));
+        IllegalArgumentException emptyPattern = assertThrows(IllegalArgumentException.class, () -> new NdjsonPrefilter(MatchMode.ANYWHERE, ""));
+
+        // then
+        assertThat(noPatterns.getMessage()).isEqualTo("At least one pattern is required.");
+        assertThat(emptyPattern.getMessage()).isEqualTo("Patterns cannot be empty.");
+    }
+}
@@ -0,0 +1,238 @@
+package io.github.piotrrzysko.simdjson;
+
+import io.github.piotrrzysko.simdjson.NdjsonProjection.ColumnType;
+import io.github.piotrrzysko.simdjson.NdjsonProjection.Field;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.github.piotrrzysko.simdjson.NdjsonProjection.ColumnType.DOUBLE;
+import static io.github.piotrrzysko.simdjson.NdjsonProjection.ColumnType.LONG;
+import static io.github.piotrrzysko.simdjson.NdjsonProjection.ColumnType.STRING;
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NdjsonProjectionTest {
+
+    @Test
+    public void projectFields() {
+        // given
+        NdjsonProjection projection = new NdjsonProjection(
+                new Field("id", LONG),
+                new Field("user.name", STRING),
+                new Field("user.score", DOUBLE)
+        );
+        byte[] input = toUtf8("""
+                {"id": 1, "user": {"name": "Ala", "score": 1.5}}
+                {"user": {"score": -2e3, "name": "Zażółć \\"gęślą\\" \\u0041"}, "id": -7}
+                {"id": null, "tags": [{"id": 5}, [1, 2]], "user": null}
+                {"user" : {"name" : "first", "name" : "second", "nested": {"score": 3}} , "id" : 2}\r
+                {}
+                """);
+
+        // when
+        ProjectedColumn[] columns = projection.project(input, input.length);
+
+        // then
+        ProjectedColumn ids = columns[0];
+        assertThat(ids.size()).isEqualTo(5);
+        assertThat(ids.getLong(0)).isEqualTo(1);
+        assertThat(ids.getLong(1)).isEqualTo(-7);
+        assertThat(ids.isNull(2)).isTrue();
+        assertThat(ids.getLong(3)).isEqualTo(2);
+        assertThat(ids.isNull(4)).isTrue();
+
+        ProjectedColumn names = columns[1];
+        assertThat(names.getPath()).isEqualTo("user.name");
+        assertThat(names.getString(0)).isEqualTo("Ala");
+        assertThat(names.getString(1)).isEqualTo("Zażółć \"gęślą\" A");
+        assertThat(names.isNull(2)).isTrue();
+        assertThat(names.getString(2)).isEmpty();
+        assertThat(names.getString(3)).isEqualTo("first");
+        assertThat(names.isNull(4)).isTrue();
+
+        ProjectedColumn scores = columns[2];
+        assertThat(scores.getDouble(0)).isEqualTo(1.5);
+        assertThat(scores.getDouble(1)).isEqualTo(-2e3);
+        assertThat(scores.isNull(2)).isTrue();
+        assertThat(scores.isNull(3)).isTrue();
+        assertThat(scores.isNull(4)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 8, 1000})
+    public void parallelProjectionSameAsSequential(int chunks) throws Exception {
+        // given
+        NdjsonProjection projection = new NdjsonProjection(
+                new Field("id", LONG),
+                new Field("msg", STRING),
+                new Field("metrics.latency", DOUBLE)
+        );
+        byte[] input = toUtf8(corpus(5_000));
+        ProjectedColumn[] expected = projection.project(input, input.length);
+
+        // when
+        ProjectedColumn[] columns;
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            columns = projection.project(input, input.length, executor, chunks);
+        }
+
+        // then
+        for (int i = 0; i < columns.length; i++) {
+            assertThat(columns[i].size()).isEqualTo(5_000);
+            for (int row = 0; row < 5_000; row++) {
+                assertThat(columns[i].isNull(row)).isEqualTo(expected[i].isNull(row));
+            }
+        }
+        for (int row = 0; row < 5_000; row++) {
+            assertThat(columns[0].getLong(row)).isEqualTo(row);
+            assertThat(columns[1].getString(row)).isEqualTo(expected[1].getString(row));
+            assertThat(columns[2].getDouble(row)).isEqualTo(expected[2].getDouble(row));
+        }
+    }
+
+    @Test
+    public void remainingChunksStopAfterFailure() {
+        // given
+        NdjsonProjection projection = new NdjsonProjection(new Field("x", LONG));
+        // Every record of the second chunk is invalid as well.
+        byte[] input = toUtf8("[1]\n" + "{\"x\": 1}\n".repeat(100) + "[2]\n".repeat(250));
+
+        // when
+        IllegalArgumentException ex;
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            ex = assertThrows(IllegalArgumentException.class, () -> projection.project(input, input.length, executor, 2));
+        }
+
+        // then
+        assertThat(ex).hasMessage("Invalid record. Expected an object at position 0.");
+        assertThat(ex.getSuppressed()).isEmpty();
+    }
+
+    @Test
+    public void recordLongerThanWindow() {
+        // given
+        NdjsonProjection projection = new NdjsonProjection(new Field("b", STRING), new Field("c", LONG));
+        String longString = "x".repeat(200_000);
+        byte[] input = toUtf8("{\"c\": 1}\n{\"a\": [" + "1,".repeat(50_000) + "2], \"b\": \"" + longString + "\", \"c\": 2}\n{\"c\": 3}");
+
+        // when
+        ProjectedColumn[] columns = projection.project(input, input.length);
+
+        // then
+        assertThat(columns[0].isNull(0)).isTrue();
+        assertThat(columns[0].getString(1)).isEqualTo(longString);
+        assertThat(columns[1].getLongs()).startsWith(1, 2, 3);
+    }
+
+    @Test
+    public void typeMismatch() {
+        // given
+        NdjsonProjection projection = new NdjsonProjection(new Field("id", LONG));
+        byte[] input = toUtf8("{\"id\": 1}\n{\"id\": \"2\"}\n");
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> projection.project(input, input.length)
+        );
+
+        // then
+        assertThat(ex).hasMessage("Type mismatch. Expected LONG for id at position 17.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "LONG|1e5|Invalid number. Expected an integer at position %d.",
+            "LONG|12345678901234567890|Number out of range. The integer at position %d does not fit in a long.",
+            "DOUBLE|1.5e|Invalid number. Malformed number at position %d.",
+    })
+    public void invalidNumbersAfterFirstWindow(String testCase) {
+        // given
+        String[] parts = testCase.split("\\|");
+        NdjsonProjection projection = new NdjsonProjection(new Field("x", ColumnType.valueOf(parts[0])));
+        String records = "{\"x\": 1}\n".repeat(10_000);
+        byte[] input = toUtf8(records + "{\"x\": " + parts[1] + "}\n");
+        int position = records.length() + "{\"x\": ".length();
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> projection.project(input, input.length)
+        );
+
+        // then
+        assertThat(ex).hasMessage(String.format(parts[2], position));
+    }
+
+    @Test
+    public void recordIsNotAnObject() {
+        // given
+        NdjsonProjection projection = new NdjsonProjection(new Field("id", LONG));
+        byte[] input = toUtf8("{\"id\": 1}\n[1]\n");
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> projection.project(input, input.length)
+        );
+
+        // then
+        assertThat(ex).hasMessage("Invalid record. Expected an object at position 10.");
+    }
+
+    @Test
+    public void incompleteRecord() {
+        // given
+        NdjsonProjection projection = new NdjsonProjection(new Field("id", LONG));
+        byte[] input = toUtf8("{\"id\": 1, \"a\": {\"b\": 2}");
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> projection.project(input, input.length)
+        );
+
+        // then
+        assertThat(ex).hasMessage("Invalid record. The record ending at position 23 is incomplete.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a.b,a", "a,a.b", "a..b,c"})
+    public void invalidPaths(String paths) {
+        // given
+        Field[] fields = Arrays.stream(paths.split(",")).map(path -> new Field(path, LONG)).toArray(Field[]::new);
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> new NdjsonProjection(fields)
+        );
+
+        // then
+        assertThat(ex).hasMessageStartingWith("Invalid field path: ");
+    }
+
+    private static String corpus(int records) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < records; i++) {
+            sb.append("{\"id\":").append(i);
+            if (random.nextInt(5) > 0) {
+                sb.append(",\"msg\":\"").append("message \\\"").append(random.nextInt(1000)).append("\\\" ").append("y".repeat(random.nextInt(300))).append('"');
+            }
+            sb.append(",\"tags\":[\"a\",{\"msg\":1}]");
+            if (random.nextInt(5) > 0) {
+                sb.append(",\"metrics\":{\"count\":").append(random.nextInt(10)).append(",\"latency\":").append(random.nextDouble() * 100).append('}');
+            }
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+}
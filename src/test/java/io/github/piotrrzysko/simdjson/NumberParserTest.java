@@ -0,0 +1,200 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NumberParserTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "0",
+            "-0",
+            "7",
+            "12345678",
+            "123456789",
+            "-1234567890123456",
+            "9007199254740993",
+            "0.1",
+            "-0.000001",
+            "3.141592653589793",
+            "40.71427000",
+            "-73.98765432",
+            "1e22",
+            "1e23",
+            "1E-22",
+            "1e-23",
+            "2.5e+3",
+            "123456789012345678901234567890",
+            "0.000000000000000000000000000012345",
+            "1.7976931348623157e308",
+            "1e309",
+            "2.2250738585072014E-308",
+            "4.9e-324",
+            "1e-400",
+            "0e100",
+            "-0.0e-5",
+            "9007199254740993e-3",
+            "18446744073709551615e-10",
+            "9999999999999999999",
+            "2.2250738585072011e-308",
+            "2.4703282292062328e-324",
+            "1.7976931348623158e308",
+            "7.2057594037927933e16",
+            "0.30000000000000004",
+    })
+    public void parseDouble(String input) {
+        // given
+        byte[] bytes = toUtf8(input);
+
+        // when
+        double value = NumberParser.parseDouble(bytes, bytes.length, 0);
+
+        // then
+        assertThat(value).isEqualTo(Double.parseDouble(input));
+    }
+
+    @Test
+    public void parseRandomDoubles() {
+        // given
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            String input = switch (i % 4) {
+                case 0 -> Double.toString(random.nextDouble() * 360 - 180);
+                case 1 -> String.format(Locale.ROOT, "%.8f", random.nextDouble() * 180 - 90);
+                case 2 -> Long.toString(random.nextLong());
+                default -> Double.toString(Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL));
+            };
+            byte[] bytes = toUtf8("[" + input + "]");
+
+            // when
+            double value = NumberParser.parseDouble(bytes, bytes.length, 1);
+
+            // then
+            assertThat(value).isEqualTo(Double.parseDouble(input));
+        }
+    }
+
+    @Test
+    public void parseRandomSignificandsAndExponents() {
+        // given
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            int digits = 1 + random.nextInt(19);
+            long significand = Math.abs(random.nextLong() % (long) Math.pow(10, Math.min(digits, 18)));
+            String input = (i % 2 == 0 ? "-" : "") + significand + "e" + (random.nextInt(700) - 360);
+            byte[] bytes = toUtf8(input);
+
+            // when
+            double value = NumberParser.parseDouble(bytes, bytes.length, 0);
+
+            // then
+            assertThat(value).isEqualTo(Double.parseDouble(input));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "0",
+            "-0",
+            "42",
+            "-12345678",
+            "123456789012345678",
+            "9223372036854775807",
+            "-9223372036854775808",
+    })
+    public void parseLong(String input) {
+        // given
+        byte[] bytes = toUtf8(input);
+
+        // when
+        long value = NumberParser.parseLong(bytes, bytes.length, 0);
+
+        // then
+        assertThat(value).isEqualTo(Long.parseLong(input));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "9223372036854775808",
+            "-9223372036854775809",
+            "99999999999999999999",
+    })
+    public void longOutOfRange(String input) {
+        // given
+        byte[] bytes = toUtf8(input);
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> NumberParser.parseLong(bytes, bytes.length, 0)
+        );
+
+        // then
+        assertThat(ex)
+                .hasMessage("Number out of range. The integer at position 0 does not fit in a long.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"-", "01", "1.", "1.5", "1e5", "12a", "--1"})
+    public void invalidLong(String input) {
+        // given
+        byte[] bytes = toUtf8(input);
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> NumberParser.parseLong(bytes, bytes.length, 0)
+        );
+
+        // then
+        assertThat(ex)
+                .hasMessage("Invalid number. Expected an integer at position 0.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"-", "01", "1.", ".5", "1e", "1e+", "12345678a", "1.5x", "--1"})
+    public void invalidDouble(String input) {
+        // given
+        byte[] bytes = toUtf8(input);
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> NumberParser.parseDouble(bytes, bytes.length, 0)
+        );
+
+        // then
+        assertThat(ex)
+                .hasMessage("Invalid number. Malformed number at position 0.");
+    }
+
+    @Test
+    public void parseDoublesFromStructurals() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        InlinedIndexStructuralIndexer indexer = new InlinedIndexStructuralIndexer(bitIndexes);
+        byte[] bytes = toUtf8("{\"a\": [1, -2.5, \"3\", true, 4e2, null], \"b\": 12345678.87654321}");
+        indexer.index(bytes, bytes.length);
+        double[] output = new double[16];
+
+        // when
+        int count = NumberParser.parseDoubles(bitIndexes, bytes, bytes.length, output);
+
+        // then
+        assertThat(count).isEqualTo(4);
+        assertThat(output[0]).isEqualTo(1.0);
+        assertThat(output[1]).isEqualTo(-2.5);
+        assertThat(output[2]).isEqualTo(400.0);
+        assertThat(output[3]).isEqualTo(12345678.87654321);
+    }
+}
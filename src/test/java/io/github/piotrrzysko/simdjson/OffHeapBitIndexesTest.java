@@ -0,0 +1,122 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OffHeapBitIndexesTest {
+
+    @Test
+    public void sameIndexesAsOnHeap() {
+        // given
+        byte[] input = toUtf8("{\"a\": [1, \"x\\\"y\", true], \"b\": {\"c\": null}}".repeat(20));
+        BitIndexes onHeap = new BitIndexes(input.length + 64);
+        OffHeapBitIndexes offHeap = new OffHeapBitIndexes(input.length + 64);
+
+        // when
+        new InlinedIndexStructuralIndexer(onHeap).index(input, input.length);
+        new InlinedIndexStructuralIndexer(offHeap).index(input, input.length);
+
+        // then
+        assertThat(offHeap.toArray()).containsExactly(onHeap.toArray());
+        assertThat(offHeap.size()).isEqualTo(onHeap.size());
+        assertThat(offHeap.getLast()).isEqualTo(onHeap.getLast());
+        for (int i = 0; i < onHeap.size(); i++) {
+            assertThat(offHeap.getAndAdvance()).isEqualTo(onHeap.getAndAdvance());
+        }
+        assertThat(offHeap.isEnd()).isTrue();
+    }
+
+    @Test
+    public void allocatedInstancesDontOverlap() {
+        // given
+        OffHeapBitIndexes[] bitIndexes = OffHeapBitIndexes.allocate(3, 128);
+
+        // when
+        for (int i = 0; i < bitIndexes.length; i++) {
+            bitIndexes[i].write(64, -1L);
+            bitIndexes[i].write(128 + 64 * i, 1L);
+            bitIndexes[i].finish();
+        }
+
+        // then
+        for (int i = 0; i < bitIndexes.length; i++) {
+            assertThat(bitIndexes[i].size()).isEqualTo(65);
+            assertThat(bitIndexes[i].getLast()).isEqualTo(64 * (i + 1));
+        }
+    }
+
+    @Test
+    public void publishedIndexesAreReadOnly() {
+        // given
+        byte[] input = toUtf8("[1, 2]");
+        OffHeapBitIndexes bitIndexes = new OffHeapBitIndexes(1024);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(input, input.length);
+
+        // when
+        IntBuffer published = bitIndexes.publish();
+
+        // then
+        assertThat(published.remaining()).isEqualTo(5);
+        assertThat(published.get(4)).isEqualTo(5);
+        assertThrows(ReadOnlyBufferException.class, () -> published.put(0, 1));
+    }
+
+    @Test
+    public void publishedIndexesAreVisibleToAnotherThread() throws ExecutionException, InterruptedException {
+        // given
+        byte[] input = toUtf8("{\"a\": [true, false, null]}");
+        OffHeapBitIndexes bitIndexes = new OffHeapBitIndexes(1024);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(input, input.length);
+        IntBuffer published = bitIndexes.publish();
+
+        // when
+        int[] consumed = CompletableFuture.supplyAsync(() -> {
+            int[] result = new int[published.remaining()];
+            published.get(0, result);
+            return result;
+        }).get();
+
+        // then
+        assertThat(consumed).containsExactly(bitIndexes.toArray());
+    }
+
+    @Test
+    public void tagsAreNotSupported() {
+        // given
+        byte[] input = toUtf8("{\"a\": [1, true]}");
+        OffHeapBitIndexes bitIndexes = new OffHeapBitIndexes(input.length + 64);
+
+        // when
+        new InlinedIndexStructuralIndexer(bitIndexes).index(input, input.length);
+
+        // then
+        assertThat(bitIndexes.hasTags()).isFalse();
+        assertThat(bitIndexes.toArray()).containsExactly(0, 1, 4, 6, 7, 8, 10, 14, 15);
+        assertThat(assertThrows(UnsupportedOperationException.class, bitIndexes::getTag))
+                .hasMessage("OffHeapBitIndexes don't store the tags.");
+        assertThat(assertThrows(UnsupportedOperationException.class, () -> bitIndexes.getTag(0)))
+                .hasMessage("OffHeapBitIndexes don't store the tags.");
+        assertThat(assertThrows(UnsupportedOperationException.class, bitIndexes::tagsToArray))
+                .hasMessage("OffHeapBitIndexes don't store the tags.");
+    }
+
+    @Test
+    public void tooManyIndexesForDirectBuffer() {
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> OffHeapBitIndexes.allocate(1024, 1024 * 1024)
+        );
+
+        // then
+        assertThat(ex).hasMessage("A direct buffer cannot hold 1024 x 1048576 indexes.");
+    }
+}
@@ -3,8 +3,13 @@ package io.github.piotrrzysko.simdjson;
 public class OriginalStructuralIndexerTest extends StructuralIndexerTest {
 
     @Override
-    protected void index(BitIndexes bitIndexes, byte[] buffer, int length) {
-        OriginalStructuralIndexer indexer = new OriginalStructuralIndexer(bitIndexes);
-        indexer.index(buffer, length);
+    protected StructuralIndexer createIndexer(BitIndexes bitIndexes) {
+        return new OriginalStructuralIndexer(bitIndexes);
+    }
+
+    @Override
+    protected boolean isAllocating() {
+        // ByteVector::fromArray escapes, see the comment in OriginalStructuralIndexer.
+        return true;
     }
 }
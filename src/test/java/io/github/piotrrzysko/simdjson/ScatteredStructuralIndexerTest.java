@@ -0,0 +1,118 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ScatteredStructuralIndexerTest extends StructuralIndexerTest {
+
+    @Override
+    protected StructuralIndexer createIndexer(BitIndexes bitIndexes) {
+        return new ScatteredStructuralIndexer(bitIndexes);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 63, 64, 65, 100, 4096})
+    public void sameIndexesAsForContiguousBuffer(int fragmentSize) {
+        // given
+        byte[] input = toUtf8(document());
+        BitIndexes expected = new BitIndexes(input.length + 64);
+        new InlinedIndexStructuralIndexer(expected).index(input, input.length);
+        Fragments fragments = split(input, fragmentSize, new Random(fragmentSize));
+        BitIndexes bitIndexes = new BitIndexes(input.length + 64);
+        ScatteredStructuralIndexer indexer = new ScatteredStructuralIndexer(bitIndexes);
+
+        // when
+        indexer.index(fragments.buffers, fragments.offsets, fragments.lengths, fragments.count);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(expected.toArray());
+    }
+
+    @Test
+    public void emptyFragments() {
+        // given
+        byte[] input = toUtf8("{\"a\":[1,2]}");
+        byte[][] buffers = {new byte[0], input, new byte[0], new byte[0]};
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        ScatteredStructuralIndexer indexer = new ScatteredStructuralIndexer(bitIndexes);
+
+        // when
+        indexer.index(buffers, new int[4], new int[]{0, input.length, 0, 0}, 4);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(0, 1, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    public void stringOpenedInOneFragmentAndClosedInAnother() {
+        // given
+        byte[] first = toUtf8("[\"" + "a".repeat(100) + "\\");
+        byte[] second = toUtf8("\"" + "b".repeat(30));
+        byte[] third = toUtf8("\",1]");
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        ScatteredStructuralIndexer indexer = new ScatteredStructuralIndexer(bitIndexes);
+
+        // when
+        indexer.index(new byte[][]{first, second, third}, new int[3], new int[]{first.length, second.length, third.length}, 3);
+
+        // then
+        int end = first.length + second.length;
+        assertThat(bitIndexes.toArray()).containsExactly(0, 1, end + 1, end + 2, end + 3);
+    }
+
+    @Test
+    public void unclosedStringInLastFragment() {
+        // given
+        byte[] first = toUtf8("[1,");
+        byte[] second = toUtf8("\"abc");
+        ScatteredStructuralIndexer indexer = new ScatteredStructuralIndexer(new BitIndexes(1024));
+
+        // when
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> indexer.index(new byte[][]{first, second}, new int[2], new int[]{first.length, second.length}, 2)
+        );
+
+        // then
+        assertThat(ex).hasMessage("Unclosed string. A string is opened, but never closed.");
+    }
+
+    private static String document() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            sb.append("{\"id\": ").append(i)
+                    .append(", \"text\": \"").append("\\\\".repeat(i % 3)).append("\\\"").append("x".repeat(i % 70))
+                    .append("\", \"tags\": [true, null, -1.5e3]},\n");
+        }
+        sb.append("{}]");
+        return sb.toString();
+    }
+
+    // Each fragment is placed in the middle of a larger buffer, so that the offsets are exercised as well.
+    private static Fragments split(byte[] input, int fragmentSize, Random random) {
+        int count = (input.length + fragmentSize - 1) / fragmentSize;
+        Fragments fragments = new Fragments(new byte[count][], new int[count], new int[count], count);
+        for (int i = 0; i < count; i++) {
+            int from = i * fragmentSize;
+            int length = Math.min(fragmentSize, input.length - from);
+            int offset = random.nextInt(10);
+            byte[] buffer = new byte[offset + length + random.nextInt(10)];
+            Arrays.fill(buffer, (byte) '"');
+            System.arraycopy(input, from, buffer, offset, length);
+            fragments.buffers[i] = buffer;
+            fragments.offsets[i] = offset;
+            fragments.lengths[i] = length;
+        }
+        return fragments;
+    }
+
+    private record Fragments(byte[][] buffers, int[] offsets, int[] lengths, int count) {
+    }
+}
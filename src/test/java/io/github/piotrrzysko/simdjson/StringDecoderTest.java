@@ -0,0 +1,155 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StringDecoderTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "\"\"",
+            "\"abc\"",
+            "\"zażółć gęślą jaźń\"",
+            "\"a\\\"b\"",
+            "\"\\\\\"",
+            "\"\\/\\b\\f\\n\\r\\t\"",
+            "\"\\u0041\\u00e9\\u20AC\"",
+            "\"\\uD83D\\uDE00\"",
+            "\"x\\uD834\\uDD1Ey\"",
+            "\"\\\\\\\"\\\\\"",
+    })
+    public void stringsAreUnescaped(String input) {
+        // given
+        StringDecoder decoder = new StringDecoder();
+        byte[] bytes = toUtf8(input + " ");
+
+        // when
+        String decoded = decoder.decodeString(bytes, bytes.length, 0);
+        int length = decoder.decode(bytes, bytes.length, 0);
+
+        // then
+        assertThat(decoded).isEqualTo(naiveUnescape(input));
+        assertThat(new String(decoder.getDecoded(), 0, length, UTF_8)).isEqualTo(naiveUnescape(input));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 30, 31, 32, 33, 63, 64, 65, 100})
+    public void escapesAtChunkBoundaries(int prefixLength) {
+        // given
+        StringDecoder decoder = new StringDecoder(32);
+        String input = "\"" + "a".repeat(prefixLength) + "\\n\\u00e9\\\"" + "b".repeat(prefixLength) + "\\uD83D\\uDE00\"";
+        byte[] bytes = toUtf8(input);
+
+        // when
+        String decoded = decoder.decodeString(bytes, bytes.length, 0);
+
+        // then
+        assertThat(decoded).isEqualTo(naiveUnescape(input));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 31, 32, 33, 64, 1000})
+    public void stringsWithoutEscapes(int stringLength) {
+        // given
+        StringDecoder decoder = new StringDecoder();
+        String ascii = "\"" + "x".repeat(stringLength) + "\"";
+        String nonAscii = "\"" + "ż".repeat(stringLength) + "\"";
+        byte[] bytes = toUtf8(ascii + "," + nonAscii);
+
+        // when
+        String decodedAscii = decoder.decodeString(bytes, bytes.length, 0);
+        String decodedNonAscii = decoder.decodeString(bytes, bytes.length, ascii.length() + 1);
+
+        // then
+        assertThat(decodedAscii).isEqualTo("x".repeat(stringLength));
+        assertThat(decodedNonAscii).isEqualTo("ż".repeat(stringLength));
+    }
+
+    @Test
+    public void decodeStringsTakesPositionsFromBitIndexes() {
+        // given
+        StringDecoder decoder = new StringDecoder();
+        byte[] bytes = toUtf8("{\"a\\tb\": [\"c\", 1, \"\\u0064\"], \"e\": null}");
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(bytes, bytes.length);
+        String[] output = new String[4];
+
+        // when
+        int count = decoder.decodeStrings(bitIndexes, bytes, bytes.length, output);
+
+        // then
+        assertThat(count).isEqualTo(4);
+        assertThat(output).containsExactly("a\tb", "c", "d", "e");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "\"abc",
+            "\"abc\\\"",
+            "\"abc\\",
+            "\"\\u00",
+    })
+    public void unclosedString(String input) {
+        // given
+        StringDecoder decoder = new StringDecoder();
+        byte[] bytes = toUtf8(input);
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> decoder.decodeString(bytes, bytes.length, 0));
+
+        // then
+        assertThat(ex.getMessage()).startsWith("Unclosed string.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "\"\\x\"",
+            "\"\\u00g0\"",
+            "\"\\uD83D\"",
+            "\"\\uD83Dx\\uDE00\"",
+            "\"\\uD83D\\u0041\"",
+            "\"\\uDE00\"",
+    })
+    public void invalidEscapeSequence(String input) {
+        // given
+        StringDecoder decoder = new StringDecoder();
+        byte[] bytes = toUtf8(input);
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> decoder.decode(bytes, bytes.length, 0));
+
+        // then
+        assertThat(ex.getMessage()).startsWith("Invalid escape sequence.");
+    }
+
+    private static String naiveUnescape(String input) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i < input.length() - 1; i++) {
+            char c = input.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escape = input.charAt(++i);
+            switch (escape) {
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    sb.append((char) Integer.parseInt(input.substring(i + 1, i + 5), 16));
+                    i += 4;
+                }
+                default -> sb.append(escape);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringEncoderTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "abc",
+            "zażółć gęślą jaźń",
+            "a\"b",
+            "\\",
+            "/\b\f\n\r\t",
+            "\u0000\u0001\u001f\u007f",
+            "😀 €",
+    })
+    public void stringsAreEscaped(String input) {
+        // given
+        StringEncoder encoder = new StringEncoder();
+        byte[] bytes = input.getBytes(UTF_8);
+
+        // when
+        int length = encoder.encode(bytes, 0, bytes.length);
+
+        // then
+        assertThat(new String(encoder.getEncoded(), 0, length, UTF_8)).isEqualTo(naiveEscape(input));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 30, 31, 32, 33, 63, 64, 65, 100})
+    public void escapesAtChunkBoundaries(int prefixLength) {
+        // given
+        StringEncoder encoder = new StringEncoder(8);
+        String input = "a".repeat(prefixLength) + "\n\"\u0002" + "ż".repeat(prefixLength) + "\\";
+        byte[] bytes = input.getBytes(UTF_8);
+
+        // when
+        int length = encoder.encode(bytes, 0, bytes.length);
+
+        // then
+        assertThat(new String(encoder.getEncoded(), 0, length, UTF_8)).isEqualTo(naiveEscape(input));
+    }
+
+    @Test
+    public void onlyTheGivenRangeIsEncoded() {
+        // given
+        StringEncoder encoder = new StringEncoder();
+        byte[] bytes = "\"\"\"a\tb\"\"\"".getBytes(UTF_8);
+
+        // when
+        int length = encoder.encode(bytes, 3, 3);
+
+        // then
+        assertThat(new String(encoder.getEncoded(), 0, length, UTF_8)).isEqualTo("\"a\\tb\"");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 31, 32, 33, 1000})
+    public void encodedStringsAreDecodedBack(int stringLength) {
+        // given
+        StringEncoder encoder = new StringEncoder(32);
+        StringDecoder decoder = new StringDecoder();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stringLength; i++) {
+            sb.append(i % 7 == 0 ? (char) (i % 0x20) : i % 11 == 0 ? '"' : i % 13 == 0 ? 'ł' : 'x');
+        }
+        String input = sb.toString();
+        byte[] bytes = input.getBytes(UTF_8);
+
+        // when
+        int length = encoder.encode(bytes, 0, bytes.length);
+
+        // then
+        assertThat(decoder.decodeString(encoder.getEncoded(), length, 0)).isEqualTo(input);
+    }
+
+    private static String naiveEscape(String input) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StringStructuralIndexerTest extends StructuralIndexerTest {
+
+    @Override
+    protected StructuralIndexer createIndexer(BitIndexes bitIndexes) {
+        StringStructuralIndexer indexer = new StringStructuralIndexer(bitIndexes);
+        return new StructuralIndexer() {
+
+            private byte[] lastBuffer;
+            private int lastLength;
+            private String json;
+
+            @Override
+            public void index(byte[] buffer, int length) {
+                // ISO-8859-1 maps bytes to chars one to one, so char offsets are equal to byte offsets. The String is
+                // cached, so that the allocation test measures the indexer only.
+                if (buffer != lastBuffer || length != lastLength) {
+                    lastBuffer = buffer;
+                    lastLength = length;
+                    json = new String(buffer, 0, length, ISO_8859_1);
+                }
+                indexer.index(json);
+            }
+        };
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"zażółć\":[\"gęślą\",\"jaźń\"],\"x\":1}",
+            "{\"emoji\":\"😀😀\",\"a\":[true,null,-1.5e3]}",
+            "[\"中文\", \"日本語\", {\"한국어\": \"\\\"\\u0041\\\\\"}]"
+    })
+    public void charOffsetsOfUtf16Strings(String input) {
+        // given
+        String json = input.repeat(5);
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        StringStructuralIndexer indexer = new StringStructuralIndexer(bitIndexes);
+
+        // when
+        indexer.index(json);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(charOffsetsOfUtf8Indexes(json));
+    }
+
+    @Test
+    public void nonAsciiCharsWithStructuralLowByte() {
+        // given
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        StringStructuralIndexer indexer = new StringStructuralIndexer(bitIndexes);
+        // U+0122, U+015C, U+017B and U+0A3A have the same low byte as '"', '\\', '{' and ':'.
+        String json = "[aĢbŜcŻd਺e]";
+
+        // when
+        indexer.index(json);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(0, 1, 10);
+    }
+
+    @Test
+    public void unclosedUtf16String() {
+        // given
+        StringStructuralIndexer indexer = new StringStructuralIndexer(new BitIndexes(1024));
+        String json = "{\"żółw\":\"" + "ż".repeat(100) + "}";
+
+        // when
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> indexer.index(json));
+
+        // then
+        assertThat(ex).hasMessage("Unclosed string. A string is opened, but never closed.");
+    }
+
+    private static int[] charOffsetsOfUtf8Indexes(String json) {
+        byte[] bytes = json.getBytes(UTF_8);
+        BitIndexes bitIndexes = new BitIndexes(1024);
+        new InlinedIndexStructuralIndexer(bitIndexes).index(bytes, bytes.length);
+        int[] byteOffsets = bitIndexes.toArray();
+        int[] charOffsets = new int[byteOffsets.length];
+        for (int i = 0; i < byteOffsets.length; i++) {
+            charOffsets[i] = new String(bytes, 0, byteOffsets[i], UTF_8).length();
+        }
+        return charOffsets;
+    }
+}
@@ -0,0 +1,123 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StructuralIndexCacheTest {
+
+    @Test
+    public void missThenHit() {
+        // given
+        StructuralIndexCache cache = new StructuralIndexCache(1024 * 1024);
+        CachingStructuralIndexer indexer = new CachingStructuralIndexer(cache, new BitIndexes(1024));
+        byte[] input = toUtf8("{\"a\": [1, 2]}");
+
+        // when
+        StructuralIndex first = indexer.index(input, input.length);
+        StructuralIndex second = indexer.index(input, input.length);
+
+        // then
+        assertThat(first.toArray()).containsExactly(0, 1, 4, 6, 7, 8, 10, 11, 12);
+        assertThat(second).isSameAs(first);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getEntryCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void sameBytesInDifferentBuffers() {
+        // given
+        StructuralIndexCache cache = new StructuralIndexCache(1024 * 1024);
+        CachingStructuralIndexer indexer = new CachingStructuralIndexer(cache, new BitIndexes(1024));
+        byte[] input = toUtf8("[true, false]");
+        byte[] copy = toUtf8("[true, false]   trailing bytes that are not a part of the input");
+
+        // when
+        StructuralIndex first = indexer.index(input, input.length);
+        StructuralIndex second = indexer.index(copy, input.length);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void differentInputsOfTheSameLength() {
+        // given
+        StructuralIndexCache cache = new StructuralIndexCache(1024 * 1024);
+        CachingStructuralIndexer indexer = new CachingStructuralIndexer(cache, new BitIndexes(1024));
+        byte[] input1 = toUtf8("[1, 2]");
+        byte[] input2 = toUtf8("[1,22]");
+
+        // when
+        StructuralIndex first = indexer.index(input1, input1.length);
+        StructuralIndex second = indexer.index(input2, input2.length);
+
+        // then
+        assertThat(first.toArray()).containsExactly(0, 1, 2, 4, 5);
+        assertThat(second.toArray()).containsExactly(0, 1, 2, 3, 5);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        // given
+        byte[] input1 = toUtf8("[1]");
+        byte[] input2 = toUtf8("[2]");
+        byte[] input3 = toUtf8("[3]");
+        StructuralIndexCache cache = new StructuralIndexCache(2 * entrySize(input1, 3));
+        CachingStructuralIndexer indexer = new CachingStructuralIndexer(cache, new BitIndexes(1024));
+        StructuralIndex first = indexer.index(input1, input1.length);
+        indexer.index(input2, input2.length);
+        indexer.index(input1, input1.length);
+
+        // when
+        indexer.index(input3, input3.length);
+
+        // then
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+        assertThat(cache.getEntryCount()).isEqualTo(2);
+        assertThat(cache.getSizeInBytes()).isLessThanOrEqualTo(cache.getMaxBytes());
+        assertThat(indexer.index(input1, input1.length)).isSameAs(first);
+        assertThat(cache.get(input2, input2.length, VectorizedHash.hash(input2, 0, input2.length))).isNull();
+    }
+
+    @Test
+    public void entryLargerThanCacheIsNotStored() {
+        // given
+        StructuralIndexCache cache = new StructuralIndexCache(16);
+        CachingStructuralIndexer indexer = new CachingStructuralIndexer(cache, new BitIndexes(1024));
+        byte[] input = toUtf8("{\"a\": [1, 2]}");
+
+        // when
+        StructuralIndex first = indexer.index(input, input.length);
+        StructuralIndex second = indexer.index(input, input.length);
+
+        // then
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.toArray()).containsExactly(first.toArray());
+        assertThat(cache.getEntryCount()).isEqualTo(0);
+        assertThat(cache.getSizeInBytes()).isEqualTo(0);
+    }
+
+    @Test
+    public void invalidInputIsNotCached() {
+        // given
+        StructuralIndexCache cache = new StructuralIndexCache(1024 * 1024);
+        CachingStructuralIndexer indexer = new CachingStructuralIndexer(cache, new BitIndexes(1024));
+        byte[] input = toUtf8("\"abc");
+
+        // when
+        assertThrows(IllegalArgumentException.class, () -> indexer.index(input, input.length));
+
+        // then
+        assertThat(cache.getEntryCount()).isEqualTo(0);
+    }
+
+    private static long entrySize(byte[] input, int structurals) {
+        return 64 + input.length + structurals * Integer.BYTES;
+    }
+}
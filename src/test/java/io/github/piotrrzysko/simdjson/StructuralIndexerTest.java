@@ -1,15 +1,25 @@
 package io.github.piotrrzysko.simdjson;
 
+import com.sun.management.ThreadMXBean;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.lang.management.ManagementFactory;
+
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public abstract class StructuralIndexerTest {
 
+    private static final int ALLOCATION_WARMUP_CALLS = 20_000;
+    private static final int ALLOCATION_MEASURED_CALLS = 1_000;
+    private static final int ALLOCATION_MAX_ATTEMPTS = 10;
+    private static final long ALLOCATION_THRESHOLD = 16;
+
     @Test
     public void unquotedString() {
         // given
@@ -258,6 +268,105 @@ public abstract class StructuralIndexerTest {
         assertThat(bitIndexes.isEnd()).isTrue();
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"a\": [1, 2, {\"b\": null}], \"c\": \"x\\\"y\"}",
+            "[1,2,3,4,5,6,7,8,9,0,1,2,3,4,5,6,7,8,9,0,1,2,3,4,5,6,7,8,9,0,1,2,3,4,5,6,7,8,9,0,1,2,3,4,5,6,7,8,9,0,1,2]",
+            "[true,false,null,-1.5e3,\"\",{},[]]",
+            "  tru",
+            "",
+    })
+    public void tagsAreFirstBytesOfStructurals(String json) {
+        // given
+        byte[] input = toUtf8(json.repeat(3));
+        BitIndexes expected = new BitIndexes(input.length + 64);
+        index(expected, input, input.length);
+        BitIndexes bitIndexes = new BitIndexes(input.length + 64, true);
+
+        // when
+        if (!writesTags()) {
+            IllegalArgumentException ex = assertThrows(
+                    IllegalArgumentException.class,
+                    () -> createIndexer(bitIndexes)
+            );
+
+            // then
+            assertThat(ex).hasMessage("The tags are stored, but the indexer doesn't write them.");
+            return;
+        }
+        index(bitIndexes, input, input.length);
+
+        // then
+        int[] indexes = bitIndexes.toArray();
+        assertThat(indexes).containsExactly(expected.toArray());
+        byte[] tags = bitIndexes.tagsToArray();
+        for (int i = 0; i < indexes.length; i++) {
+            assertThat(tags[i]).isEqualTo(input[indexes[i]]);
+            assertThat(bitIndexes.getTag()).isEqualTo(input[indexes[i]]);
+            bitIndexes.advance();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"compact", "pretty", "strings", "numbers"})
+    public void allocationPerCall(String shape, TestReporter reporter) {
+        // given
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+        byte[] input = toUtf8(inputOfShape(shape));
+        BitIndexes bitIndexes = new BitIndexes(input.length + 64);
+        StructuralIndexer indexer = createIndexer(bitIndexes);
+        // The allocating variants are measured once, because retrying wouldn't make their allocations go away.
+        int maxAttempts = isAllocating() ? 1 : ALLOCATION_MAX_ATTEMPTS;
+
+        // when
+        long bytesPerCall = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < maxAttempts && bytesPerCall > ALLOCATION_THRESHOLD; attempt++) {
+            // Warming up until the allocations are gone, because we don't know when C2 compiles the index method.
+            for (int i = 0; i < ALLOCATION_WARMUP_CALLS; i++) {
+                indexer.index(input, input.length);
+            }
+            long allocatedBefore = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().threadId());
+            for (int i = 0; i < ALLOCATION_MEASURED_CALLS; i++) {
+                indexer.index(input, input.length);
+            }
+            long allocatedAfter = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().threadId());
+            bytesPerCall = (allocatedAfter - allocatedBefore) / ALLOCATION_MEASURED_CALLS;
+        }
+
+        // then
+        if (isAllocating()) {
+            reporter.publishEntry("bytesPerCall", String.format("%s allocates %d B per index() call (%s input, %d B)",
+                    indexer.getClass().getSimpleName(), bytesPerCall, shape, input.length));
+            // If this fails, the variant doesn't allocate anymore and should no longer be marked as allocating.
+            assertThat(bytesPerCall).isGreaterThan(ALLOCATION_THRESHOLD);
+        } else {
+            assertThat(bytesPerCall).isLessThanOrEqualTo(ALLOCATION_THRESHOLD);
+        }
+    }
+
+    private static String inputOfShape(String shape) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 40; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            switch (shape) {
+                case "compact" -> sb.append("{\"id\":").append(i).append(",\"name\":\"n").append(i).append("\",\"tags\":[true,null]}");
+                case "pretty" -> sb.append("\n    {\n        \"id\" : ").append(i).append(",\n        \"tags\" : [ true, null ]\n    }");
+                case "strings" -> sb.append("\"").append("abc\\\"\\\\def ".repeat(i % 7)).append("x".repeat(i)).append('"');
+                case "numbers" -> sb.append(-i * 12345.678e-3);
+                default -> throw new IllegalArgumentException("Unknown shape: " + shape);
+            }
+        }
+        sb.append(']');
+        // The length is not a multiple of 64 to exercise the last block.
+        while (sb.length() % 64 != 7) {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
     private static int len(String input) {
         return input.getBytes(UTF_8).length;
     }
@@ -266,5 +375,19 @@ public abstract class StructuralIndexerTest {
         return str.getBytes(UTF_8);
     }
 
-    protected abstract void index(BitIndexes bitIndexes, byte[] buffer, int length);
+    protected void index(BitIndexes bitIndexes, byte[] buffer, int length) {
+        createIndexer(bitIndexes).index(buffer, length);
+    }
+
+    protected abstract StructuralIndexer createIndexer(BitIndexes bitIndexes);
+
+    // Variants that write the tags if BitIndexes store them. The others have to reject such BitIndexes when created.
+    protected boolean writesTags() {
+        return false;
+    }
+
+    // Variants known to allocate on every call. For them, the allocation test reports how much they allocate.
+    protected boolean isAllocating() {
+        return false;
+    }
 }
@@ -0,0 +1,88 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StructuralIndexerWarmerTest {
+
+    @Test
+    public void warmUpStopsWhenBudgetRunsOut() {
+        // when
+        StructuralIndexerWarmer.Result result = StructuralIndexerWarmer.warmUp(LoadingInStepStructuralIndexer::new, Duration.ZERO);
+
+        // then
+        assertThat(result.calls()).isZero();
+        assertThat(result.steadyState()).isFalse();
+    }
+
+    @Test
+    public void warmUpReachesSteadyState() {
+        // given
+        FakeClock clock = new FakeClock(calls -> 1_000);
+
+        // when
+        StructuralIndexerWarmer.Result result = StructuralIndexerWarmer.warmUp(clock::indexer, Duration.ofSeconds(30), clock);
+
+        // then
+        assertThat(result.steadyState()).isTrue();
+        assertThat(result.calls()).isEqualTo(2_048);
+        assertThat(result.elapsedNanos()).isEqualTo(2_048 * 1_000);
+    }
+
+    @Test
+    public void warmUpDoesNotReachSteadyStateWhenTimePerCallFluctuates() {
+        // given
+        FakeClock clock = new FakeClock(calls -> (calls / 64) % 2 == 0 ? 1_000 : 2_000);
+
+        // when
+        StructuralIndexerWarmer.Result result = StructuralIndexerWarmer.warmUp(clock::indexer, Duration.ofMillis(10), clock);
+
+        // then
+        assertThat(result.steadyState()).isFalse();
+        assertThat(result.calls()).isGreaterThan(2_000);
+        assertThat(result.elapsedNanos()).isGreaterThanOrEqualTo(Duration.ofMillis(10).toNanos());
+    }
+
+    @Test
+    public void warmedUpIndexerProducesSameIndexes() {
+        // given
+        StructuralIndexerWarmer.warmUp(InlinedStepStructuralIndexer::new, Duration.ofMillis(200));
+        BitIndexes bitIndexes = new BitIndexes(64);
+        InlinedStepStructuralIndexer indexer = new InlinedStepStructuralIndexer(bitIndexes);
+        byte[] input = toUtf8("{\"a\":[1,\"\\\"\"]}");
+
+        // when
+        indexer.index(input, input.length);
+
+        // then
+        assertThat(bitIndexes.toArray()).containsExactly(0, 1, 4, 5, 6, 7, 8, 12, 13);
+    }
+
+    // Time advances only when the indexer is called, by the cost of the call with the given number.
+    private static class FakeClock implements LongSupplier {
+
+        private final IntUnaryOperator costOfCall;
+
+        private long nanos;
+        private int calls;
+
+        FakeClock(IntUnaryOperator costOfCall) {
+            this.costOfCall = costOfCall;
+        }
+
+        StructuralIndexer indexer(BitIndexes bitIndexes) {
+            return (buffer, length) -> nanos += costOfCall.applyAsInt(calls++);
+        }
+
+        @Override
+        public long getAsLong() {
+            return nanos;
+        }
+    }
+}
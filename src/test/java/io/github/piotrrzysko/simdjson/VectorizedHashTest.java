@@ -0,0 +1,78 @@
+package io.github.piotrrzysko.simdjson;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static io.github.piotrrzysko.simdjson.StructuralIndexerTest.toUtf8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VectorizedHashTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 7, 8, 31, 32, 33, 64, 100, 1000})
+    public void hashDoesNotDependOnOffset(int length) {
+        // given
+        byte[] input = new byte[length];
+        for (int i = 0; i < length; i++) {
+            input[i] = (byte) (i * 31);
+        }
+        byte[] shifted = new byte[length + 13];
+        System.arraycopy(input, 0, shifted, 13, length);
+
+        // when
+        long hash = VectorizedHash.hash(input, 0, length);
+        long shiftedHash = VectorizedHash.hash(shifted, 13, length);
+
+        // then
+        assertThat(shiftedHash).isEqualTo(hash);
+    }
+
+    @Test
+    public void everySingleByteChangeChangesTheHash() {
+        // given
+        byte[] input = toUtf8("{\"statuses\": [{\"id\": 505874924095815681, \"text\": \"abcdefghijklmnopqrstuvwxyz\"}]}");
+        Set<Long> hashes = new HashSet<>();
+        hashes.add(VectorizedHash.hash(input, 0, input.length));
+
+        // when
+        for (int i = 0; i < input.length; i++) {
+            input[i]++;
+            hashes.add(VectorizedHash.hash(input, 0, input.length));
+            input[i]--;
+        }
+
+        // then
+        assertThat(hashes).hasSize(input.length + 1);
+    }
+
+    @Test
+    public void permutedWordsWithinChunkHaveDifferentHashes() {
+        // given
+        byte[] input1 = toUtf8("aaaabbbbccccddddeeeeffffgggghhhh");
+        byte[] input2 = toUtf8("bbbbaaaaccccddddeeeeffffgggghhhh");
+
+        // when
+        long hash1 = VectorizedHash.hash(input1, 0, input1.length);
+        long hash2 = VectorizedHash.hash(input2, 0, input2.length);
+
+        // then
+        assertThat(hash1).isNotEqualTo(hash2);
+    }
+
+    @Test
+    public void lengthIsPartOfTheHash() {
+        // given
+        byte[] input = new byte[64];
+
+        // when
+        long hash1 = VectorizedHash.hash(input, 0, 32);
+        long hash2 = VectorizedHash.hash(input, 0, 64);
+
+        // then
+        assertThat(hash1).isNotEqualTo(hash2);
+    }
+}